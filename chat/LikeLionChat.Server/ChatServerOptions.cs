@@ -6,4 +6,10 @@ public sealed class ChatServerOptions
 
     public long SoftCap { get; set; } = 100;
     public long MaxCap { get; set; } = 150;
+
+    // Registered in server:instances so queue-manager can route tickets to this instance.
+    public string InstanceId { get; set; } = Environment.MachineName;
+
+    // Key id -> base64 secret for signed tickets. Keep the previous key listed until its tickets expire when rotating.
+    public Dictionary<string, string> TicketSigningKeys { get; set; } = new();
 }
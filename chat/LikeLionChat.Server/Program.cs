@@ -22,6 +22,7 @@ var valkeyConnectionString = builder.Configuration.GetConnectionString("Valkey")
                              ?? throw new InvalidOperationException("Valkey connection string is not configured.");
 
 builder.Services.AddSingleton<IConnectionMultiplexer>(_ => ConnectionMultiplexer.Connect(valkeyConnectionString));
+builder.Services.AddSingleton<SignedTicketVerifier>();
 builder.Services.AddSingleton<ITicketRepository, TicketRepository>();
 builder.Services.AddSingleton<MetricService>();
 builder.Services.AddSingleton<ChatService>();
@@ -1,5 +1,7 @@
+using System.Diagnostics;
 using ChatServer.Services;
 using Microsoft.Extensions.Logging;
+using Microsoft.Extensions.Options;
 using StackExchange.Redis;
 
 namespace ChatServer.Repositories;
@@ -12,12 +14,18 @@ public interface ITicketRepository
 
 public sealed class TicketRepository(
     ILogger<TicketRepository> logger,
-    IConnectionMultiplexer connectionMultiplexer)
+    IOptionsMonitor<ChatServerOptions> optionsMonitor,
+    IConnectionMultiplexer connectionMultiplexer,
+    SignedTicketVerifier signedTicketVerifier)
     : ITicketRepository
 {
     private const string JoiningTicketKeyPrefix = "queue:joining:";
+    private const string RedeemedTicketKeyPrefix = "queue:redeemed:";
     private const string JoiningTicketsKey = "queue:joining:tickets";
+    private const char ShardSeparator = '.';
     private const string WaitingUserKeyPrefix = "queue:waiting:user:";
+    private const string GrantedTicketKeyPrefix = "queue:granted:";
+    private const string InstanceKeyPrefix = "server:instance:";
 
     private readonly IDatabase _valkey = connectionMultiplexer.GetDatabase();
 
@@ -30,7 +38,19 @@ public sealed class TicketRepository(
 
         cancellationToken.ThrowIfCancellationRequested();
 
-        var key = $"{JoiningTicketKeyPrefix}{ticketId}";
+        // Signed tickets carry their own claims and have no ticket hash, so they need the signing keys to be accepted.
+        if (SignedTicketVerifier.IsSigned(ticketId))
+        {
+            if (!signedTicketVerifier.IsEnabled)
+            {
+                logger.LogWarning("Signed ticket rejected: no ticket signing keys are configured");
+                return null;
+            }
+
+            return await RedeemSignedTicketAsync(ticketId);
+        }
+
+        var key = TicketKey(ticketId);
 
         var entries = await _valkey.HashGetAllAsync(key);
         if (entries.Length == 0)
@@ -41,6 +61,7 @@ public sealed class TicketRepository(
 
         string? userId = null;
         string? nickname = null;
+        string? traceparent = null;
 
         foreach (var entry in entries)
         {
@@ -53,6 +74,12 @@ public sealed class TicketRepository(
             if (nickname is null && entry.Name.Equals("nickname"))
             {
                 nickname = entry.Value.ToString();
+                continue;
+            }
+
+            if (traceparent is null && entry.Name.Equals("traceparent"))
+            {
+                traceparent = entry.Value.ToString();
             }
         }
 
@@ -62,10 +89,39 @@ public sealed class TicketRepository(
             return null;
         }
 
+        // Sampled journeys carry the queue-api enqueue span context; link it so the redemption joins the same journey.
+        if (traceparent is not null && ActivityContext.TryParse(traceparent, null, out var journey))
+        {
+            Activity.Current?.AddLink(new ActivityLink(journey));
+        }
+
         var ticket = new Ticket(userId, nickname);
         return new User(ticket.UserId, ticket.Nickname);
     }
 
+    private async Task<User?> RedeemSignedTicketAsync(string ticketId)
+    {
+        var now = DateTimeOffset.UtcNow.ToUnixTimeMilliseconds();
+        var claims = signedTicketVerifier.Verify(ticketId, now);
+        if (claims is null)
+        {
+            logger.LogWarning("Signed ticket rejected: malformed, unknown key, bad signature or expired");
+            return null;
+        }
+
+        // Replay protection only needs a single-use marker that lives as long as the ticket, not the ticket hash.
+        var firstUse = await _valkey.StringSetAsync($"{RedeemedTicketKeyPrefix}{claims.TicketNonce}", claims.UserId,
+            TimeSpan.FromMilliseconds(claims.ExpireAtMillis - now), When.NotExists);
+        if (!firstUse)
+        {
+            logger.LogWarning("Signed ticket {TicketNonce} for user {UserId} was already redeemed",
+                claims.TicketNonce, claims.UserId);
+            return null;
+        }
+
+        return new User(claims.UserId, claims.Nickname);
+    }
+
     public async Task ConsumeTicketAsync(string ticketId, string userId, CancellationToken cancellationToken)
     {
         if (string.IsNullOrWhiteSpace(ticketId) || string.IsNullOrWhiteSpace(userId))
@@ -75,15 +131,25 @@ public sealed class TicketRepository(
 
         cancellationToken.ThrowIfCancellationRequested();
 
+        // Signed tickets are indexed by their nonce and never had a ticket hash.
+        var signed = SignedTicketVerifier.IsSigned(ticketId);
+        var member = signed ? SignedTicketVerifier.NonceOf(ticketId) ?? ticketId : ticketId;
+
         var batch = _valkey.CreateBatch();
-        var deleteTicketTask = batch.KeyDeleteAsync($"{JoiningTicketKeyPrefix}{ticketId}");
-        var removeFromQueueTask = batch.SortedSetRemoveAsync(JoiningTicketsKey, ticketId);
+        var deleteTicketTask = signed ? Task.FromResult(false) : batch.KeyDeleteAsync(TicketKey(ticketId));
+        var removeFromQueueTask = batch.SortedSetRemoveAsync(JoiningIndexKey(ticketId), member);
         var deleteUserMetaTask = batch.KeyDeleteAsync($"{WaitingUserKeyPrefix}{userId}");
+        // Users on the compact layout keep their grant in queue:granted:{userId} instead of a meta hash.
+        var deleteGrantedTask = batch.KeyDeleteAsync($"{GrantedTicketKeyPrefix}{userId}");
+        // Tickets routed to this instance are counted against its headroom until consumed.
+        var instanceId = optionsMonitor.CurrentValue.InstanceId;
+        var removeFromInstanceTask = batch.SortedSetRemoveAsync(InstanceJoiningKey(ticketId, instanceId), member);
         batch.Execute();
 
         try
         {
-            await Task.WhenAll(deleteTicketTask, removeFromQueueTask, deleteUserMetaTask)
+            await Task.WhenAll(deleteTicketTask, removeFromQueueTask, deleteUserMetaTask, deleteGrantedTask,
+                    removeFromInstanceTask)
                 .WaitAsync(TimeSpan.FromSeconds(5), cancellationToken);
         }
         catch (OperationCanceledException)
@@ -95,6 +161,38 @@ public sealed class TicketRepository(
             logger.LogWarning(ex, "Failed to clean up ticket {TicketId} for user {UserId}", ticketId, userId);
         }
     }
+
+    // Tickets issued from a sharded queue carry their shard as a "{shard}." nonce prefix and live in that shard's
+    // hash-tagged keys (queue:{sN}:...) so queue-manager can write them in the same script as the waiting queue.
+    private static int TicketShard(string ticketId)
+    {
+        var nonce = SignedTicketVerifier.IsSigned(ticketId) ? SignedTicketVerifier.NonceOf(ticketId) : ticketId;
+        if (nonce is null)
+        {
+            return -1;
+        }
+
+        var separator = nonce.IndexOf(ShardSeparator);
+        return separator > 0 && int.TryParse(nonce.AsSpan(0, separator), out var shard) ? shard : -1;
+    }
+
+    private static string TicketKey(string ticketId)
+    {
+        var shard = TicketShard(ticketId);
+        return shard < 0 ? $"{JoiningTicketKeyPrefix}{ticketId}" : $"queue:{{s{shard}}}:joining:{ticketId}";
+    }
+
+    private static string JoiningIndexKey(string ticketId)
+    {
+        var shard = TicketShard(ticketId);
+        return shard < 0 ? JoiningTicketsKey : $"queue:{{s{shard}}}:joining:tickets";
+    }
+
+    private static string InstanceJoiningKey(string ticketId, string instanceId)
+    {
+        var shard = TicketShard(ticketId);
+        return shard < 0 ? $"{InstanceKeyPrefix}{instanceId}:joining" : $"queue:{{s{shard}}}:instance:{instanceId}:joining";
+    }
 }
 
 internal sealed record Ticket(string UserId, string Nickname);
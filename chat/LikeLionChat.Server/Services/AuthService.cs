@@ -1,3 +1,4 @@
+using System.Diagnostics;
 using ChatServer.Repositories;
 using LikeLionChat.Shared;
 using Microsoft.AspNetCore.Http;
@@ -8,8 +9,14 @@ public sealed record User(string UserId, string Nickname);
 
 public sealed class AuthService(ITicketRepository ticketRepository, MetricService metrics)
 {
+    // Same name as the application name, which ServiceDefaults registers as a tracing source.
+    private static readonly ActivitySource ActivitySource = new("chat-server");
+
     public async Task<AuthenticationResult> AuthenticateAsync(string? ticketId, CancellationToken cancellationToken)
     {
+        using var activity = ActivitySource.StartActivity("ticket.redeem");
+        activity?.SetTag("queue.ticket_id", ticketId);
+
         if (string.IsNullOrWhiteSpace(ticketId))
         {
             metrics.RecordAuthFailure();
@@ -20,9 +27,11 @@ public sealed class AuthService(ITicketRepository ticketRepository, MetricServic
         if (user is null)
         {
             metrics.RecordAuthFailure();
+            activity?.SetStatus(ActivityStatusCode.Error, "InvalidTicket");
             return AuthenticationResult.Fail(StatusCodes.Status401Unauthorized, "InvalidTicket", "ticketId is invalid or expired.");
         }
 
+        activity?.SetTag("queue.user_id", user.UserId);
         return AuthenticationResult.Success(user);
     }
 }
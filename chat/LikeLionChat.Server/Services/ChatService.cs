@@ -34,6 +34,8 @@ public class ChatService(
             try
             {
                 await CheckIdleClientsAsync(stoppingToken);
+                // Doubles as the instance heartbeat for queue-manager's game-server registry.
+                await UpdateServerStatusAsync(stoppingToken);
             }
             catch (Exception ex) when (ex is not OperationCanceledException)
             {
@@ -50,6 +52,8 @@ public class ChatService(
                 break;
             }
         }
+
+        await serverStatusService.UnregisterAsync();
     }
 
     public async Task HandleClientAsync(WebSocket socket, User user, string ticketId, CancellationToken cancellationToken)
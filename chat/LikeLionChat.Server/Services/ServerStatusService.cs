@@ -8,6 +8,7 @@ namespace ChatServer.Services;
 public interface IServerStatusService
 {
     Task PublishAsync(int currentUsers, CancellationToken cancellationToken);
+    Task UnregisterAsync();
 }
 
 public sealed class ServerStatusService(
@@ -16,10 +17,15 @@ public sealed class ServerStatusService(
     IConnectionMultiplexer connectionMultiplexer) : IServerStatusService
 {
     private const string ServerStatusKey = "server:status";
+    private const string InstancesKey = "server:instances";
+    private const string InstanceKeyPrefix = "server:instance:";
+    private static readonly TimeSpan s_instanceTtl = TimeSpan.FromMinutes(1);
+    private static readonly RedisChannel s_capacityChannel = RedisChannel.Literal("queue:capacity");
 
     private readonly IDatabase _redis = connectionMultiplexer.GetDatabase();
     private long? _lastSoftCap;
     private long? _lastMaxCap;
+    private int? _lastCurrentUsers;
 
     public async Task PublishAsync(int currentUsers, CancellationToken cancellationToken)
     {
@@ -36,6 +42,22 @@ public sealed class ServerStatusService(
                 _redis.HashSetAsync(ServerStatusKey, "current_users", currentUsers)
             };
 
+            // Per-instance capacity and heartbeat. Every publish (including the periodic one) refreshes the heartbeat.
+            var instanceKey = $"{InstanceKeyPrefix}{options.InstanceId}";
+            publishTasks.Add(_redis.HashSetAsync(instanceKey, new HashEntry[]
+            {
+                new("current_users", currentUsers),
+                new("soft_cap", softCap),
+                new("max_cap", maxCap)
+            }));
+            publishTasks.Add(_redis.KeyExpireAsync(instanceKey, s_instanceTtl));
+            publishTasks.Add(_redis.SortedSetAddAsync(InstancesKey, options.InstanceId,
+                DateTimeOffset.UtcNow.ToUnixTimeMilliseconds()));
+
+            // queue-manager reacts to freed capacity immediately instead of waiting for its next cycle.
+            var capacityFreed = currentUsers < _lastCurrentUsers || softCap > _lastSoftCap;
+            _lastCurrentUsers = currentUsers;
+
             if (_lastSoftCap != softCap || _lastMaxCap != maxCap)
             {
                 var capacityFields = new HashEntry[]
@@ -48,6 +70,11 @@ public sealed class ServerStatusService(
                 _lastMaxCap = maxCap;
             }
 
+            if (capacityFreed)
+            {
+                publishTasks.Add(_redis.PublishAsync(s_capacityChannel, "released"));
+            }
+
             await Task.WhenAll(publishTasks);
         }
         catch (Exception ex)
@@ -56,4 +83,20 @@ public sealed class ServerStatusService(
             throw;
         }
     }
+
+    public async Task UnregisterAsync()
+    {
+        var instanceId = optionsMonitor.CurrentValue.InstanceId;
+        try
+        {
+            // Stop receiving new tickets right away instead of waiting for the heartbeat timeout.
+            await Task.WhenAll(
+                _redis.SortedSetRemoveAsync(InstancesKey, instanceId),
+                _redis.KeyDeleteAsync($"{InstanceKeyPrefix}{instanceId}"));
+        }
+        catch (Exception ex)
+        {
+            logger.LogWarning(ex, "Failed to unregister instance {InstanceId}.", instanceId);
+        }
+    }
 }
@@ -0,0 +1,107 @@
+using System.Buffers.Text;
+using System.Security.Cryptography;
+using System.Text;
+using Microsoft.Extensions.Options;
+
+namespace ChatServer.Services;
+
+public sealed record SignedTicketClaims(string TicketNonce, string UserId, string Nickname, string? Target,
+    long ExpireAtMillis);
+
+// Verifies tickets issued by queue-manager with ticket signing enabled (see SignedTickets in queue-common):
+// t1.{kid}.{base64url(payload)}.{base64url(HMAC-SHA256(secret, "t1.{kid}.{payload}"))}
+// payload = ticketNonce \n userId \n expireAtMillis \n target \n nickname
+// Signed tickets have no ticket hash in Valkey; only the nonce is stored (joining index members, redeemed marker).
+public sealed class SignedTicketVerifier(IOptionsMonitor<ChatServerOptions> optionsMonitor)
+{
+    private const string VersionPrefix = "t1.";
+
+    private volatile KeyRing? _keys;
+
+    public static bool IsSigned(string ticketId)
+    {
+        return ticketId.StartsWith(VersionPrefix, StringComparison.Ordinal);
+    }
+
+    public bool IsEnabled => optionsMonitor.CurrentValue.TicketSigningKeys.Count > 0;
+
+    // Reads the nonce without checking the signature; only used to locate the ticket's keys.
+    public static string? NonceOf(string ticketId)
+    {
+        if (!IsSigned(ticketId))
+        {
+            return null;
+        }
+
+        var parts = ticketId.Split('.');
+        if (parts.Length != 4)
+        {
+            return null;
+        }
+
+        try
+        {
+            var payload = Encoding.UTF8.GetString(Base64Url.DecodeFromChars(parts[2]));
+            var newline = payload.IndexOf('\n');
+            return newline < 0 ? null : payload[..newline];
+        }
+        catch (FormatException)
+        {
+            return null;
+        }
+    }
+
+    public SignedTicketClaims? Verify(string ticketId, long nowMillis)
+    {
+        if (!IsSigned(ticketId))
+        {
+            return null;
+        }
+
+        var parts = ticketId.Split('.');
+        if (parts.Length != 4 || !CurrentKeys().TryGetValue(parts[1], out var secret))
+        {
+            return null;
+        }
+
+        try
+        {
+            var signature = Base64Url.DecodeFromChars(parts[3]);
+            var expected = HMACSHA256.HashData(secret, Encoding.UTF8.GetBytes($"{parts[0]}.{parts[1]}.{parts[2]}"));
+            if (!CryptographicOperations.FixedTimeEquals(expected, signature))
+            {
+                return null;
+            }
+
+            var fields = Encoding.UTF8.GetString(Base64Url.DecodeFromChars(parts[2])).Split('\n', 5);
+            if (fields.Length != 5 || !long.TryParse(fields[2], out var expireAtMillis) || nowMillis >= expireAtMillis)
+            {
+                return null;
+            }
+
+            return new SignedTicketClaims(fields[0], fields[1], fields[4], fields[3].Length == 0 ? null : fields[3],
+                expireAtMillis);
+        }
+        catch (FormatException)
+        {
+            return null;
+        }
+    }
+
+    // Decoded once per options instance so a reloaded configuration (key rotation) takes effect without a restart.
+    private Dictionary<string, byte[]> CurrentKeys()
+    {
+        var source = optionsMonitor.CurrentValue.TicketSigningKeys;
+        var cached = _keys;
+        if (cached is not null && ReferenceEquals(cached.Source, source))
+        {
+            return cached.Keys;
+        }
+
+        var keys = source.ToDictionary(entry => entry.Key, entry => Convert.FromBase64String(entry.Value));
+        _keys = new KeyRing(source, keys);
+        return keys;
+    }
+
+    private sealed record KeyRing(Dictionary<string, string> Source, Dictionary<string, byte[]> Keys);
+}
@@ -49,8 +49,9 @@ const UserBehavior = {
 const QUEUE_URL = __ENV.QUEUE_URL || "http://localhost:8080";
 const CHAT_URL = __ENV.CHAT_URL || "ws://localhost:8081";
 
-// Queue polling
+// Queue polling (the server's nextPollAfterMs hint wins unless IGNORE_POLL_HINT=true)
 const POLL_INTERVAL_MS = Number(__ENV.POLL_INTERVAL_MS) || 2000;
+const IGNORE_POLL_HINT = __ENV.IGNORE_POLL_HINT === "true";
 const POLL_LIMIT = Number(__ENV.POLL_LIMIT) || 120;
 
 // Behavior weights (default distribution)
@@ -229,10 +230,10 @@ function waitForTicket(userId, immediateTicketId) {
     // Poll for ticket
     let ticketId = null;
     let polls = 0;
-    const pollIntervalSeconds = POLL_INTERVAL_MS / 1000;
+    let pollIntervalMs = POLL_INTERVAL_MS;
 
     while (!ticketId && polls < POLL_LIMIT) {
-        sleep(pollIntervalSeconds);
+        sleep(pollIntervalMs / 1000);
         polls++;
 
         const response = http.get(
@@ -243,7 +244,10 @@ function waitForTicket(userId, immediateTicketId) {
         if (response.status === 200) {
             const data = response.json();
             ticketId = data.ticketId || data.ticket_id;
-            
+            if (!IGNORE_POLL_HINT && data.nextPollAfterMs) {
+                pollIntervalMs = data.nextPollAfterMs;
+            }
+
             if (!ticketId) {
                 logDebug("queue", `Poll #${polls}: status=${data.status}, rank=${data.rank || "N/A"}`);
             }
@@ -0,0 +1,64 @@
+package com.likelion.queueapi;
+
+import com.likelion.queueapi.service.ConcurrencyLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * POST /api/queue/entry, GET /api/queue/status 앞에서 동시 처리 한도를 넘는 요청을 429 로 거절한다.
+ * Valkey 지연이 튀어도 Tomcat 스레드가 쌓이지 않고 일부 요청만 빠르게 실패하게 하는 것이 목적이다.
+ * SSE 스트림은 연결이 길게 유지되므로 대상에서 제외한다.
+ */
+@Order(2)
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String ENTRY_PATH = "/api/queue/entry";
+    private static final String STATUS_PATH = "/api/queue/status";
+
+    private final ConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!limiter.isEnabled()) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return !(isStatusPoll(request) || (ENTRY_PATH.equals(path) && HttpMethod.POST.matches(request.getMethod())));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!limiter.tryAcquire(isStatusPoll(request))) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(limiter.retryAfterSeconds()));
+            return;
+        }
+        long startedAt = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(startedAt);
+        }
+    }
+
+    private static boolean isStatusPoll(HttpServletRequest request) {
+        return STATUS_PATH.equals(request.getRequestURI()) && HttpMethod.GET.matches(request.getMethod());
+    }
+}
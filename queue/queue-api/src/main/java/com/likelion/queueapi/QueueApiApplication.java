@@ -1,11 +1,14 @@
 package com.likelion.queueapi;
 
 import com.likelion.queueapi.config.QueueApiProperties;
+import com.likelion.queueapi.config.QueueApiRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @EnableConfigurationProperties(QueueApiProperties.class)
+@ImportRuntimeHints(QueueApiRuntimeHints.class)
 @SpringBootApplication
 public class QueueApiApplication {
 
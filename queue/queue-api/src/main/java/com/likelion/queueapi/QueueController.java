@@ -4,8 +4,10 @@ import com.likelion.queueapi.dto.QueueEntryRequest;
 import com.likelion.queueapi.dto.QueueEntryResponse;
 import com.likelion.queueapi.dto.QueueStatusResponse;
 import com.likelion.queueapi.service.QueueService;
+import com.likelion.queueapi.service.QueueStatusStreamService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -13,6 +15,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Validated
 @RestController
@@ -20,9 +23,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class QueueController {
 
     private final QueueService queueService;
+    private final QueueStatusStreamService statusStreamService;
 
-    public QueueController(QueueService queueService) {
+    public QueueController(QueueService queueService, QueueStatusStreamService statusStreamService) {
         this.queueService = queueService;
+        this.statusStreamService = statusStreamService;
     }
 
     @PostMapping("/entry")
@@ -34,4 +39,9 @@ public class QueueController {
     public QueueStatusResponse getStatus(@RequestParam @NotBlank String userId) {
         return queueService.getStatus(userId);
     }
+
+    @GetMapping(path = "/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatus(@RequestParam @NotBlank String userId) {
+        return statusStreamService.subscribe(userId);
+    }
 }
@@ -0,0 +1,64 @@
+package com.likelion.queueapi;
+
+import com.likelion.queueapi.service.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 클라이언트별 요청 수 제한. 진입은 IP 기준, 상태 조회(폴링/SSE)는 IP 와 userId 기준으로 센다.
+ * 동시 처리 한도보다 먼저 적용해 남용 클라이언트가 처리 슬롯을 차지하지 못하게 한다.
+ */
+@Order(1)
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String ENTRY_PATH = "/api/queue/entry";
+    private static final String STATUS_PATH_PREFIX = "/api/queue/status";
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || endpoint(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String endpoint = endpoint(request);
+        String userId = "status".equals(endpoint) ? request.getParameter("userId") : null;
+        long retryAfterSeconds = rateLimiter.check(endpoint, request.getRemoteAddr(), userId);
+        if (retryAfterSeconds > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (ENTRY_PATH.equals(path) && HttpMethod.POST.matches(request.getMethod())) {
+            return "entry";
+        }
+        if (path.startsWith(STATUS_PATH_PREFIX) && HttpMethod.GET.matches(request.getMethod())) {
+            return "status";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.likelion.queueapi.config;
+
+import com.likelion.queue.common.QueueRedisKeys;
+import com.likelion.queueapi.service.QueueStatusStreamService;
+import com.likelion.queueapi.service.WaitingMetaCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * queue-manager 가 발행하는 티켓 발급 알림을 구독해 이 Pod 에 연결된 SSE 구독자에게 전달하고
+ * 로컬 대기 메타 캐시를 갱신한다.
+ */
+@Configuration
+public class PromotionSubscriptionConfig {
+
+    @Bean
+    public RedisMessageListenerContainer promotionListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                    QueueStatusStreamService streamService,
+                                                                    WaitingMetaCache metaCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> {
+                    String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+                    metaCache.onPromotions(payload);
+                    streamService.onPromotions(payload);
+                },
+                new ChannelTopic(QueueRedisKeys.PROMOTION_CHANNEL));
+        return container;
+    }
+}
@@ -1,6 +1,8 @@
 package com.likelion.queueapi.config;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.convert.DurationUnit;
 import org.springframework.validation.annotation.Validated;
@@ -16,6 +18,40 @@ public class QueueApiProperties {
     @DurationUnit(ChronoUnit.SECONDS)
     private Duration waitingMetaTtl = Duration.ofSeconds(30);
 
+    /**
+     * 진입 멱등 키 -> userId 매핑 유지 시간. 매핑은 대기열에 남아 있는지 확인한 뒤에만 쓰므로 넉넉해도 된다
+     */
+    @NotNull
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration entryKeyTtl = Duration.ofHours(1);
+
+    private boolean atomicEntry = true;
+
+    private boolean atomicStatus = true;
+
+    private StorageLayout storageLayout = StorageLayout.LEGACY;
+
+    @Positive
+    private int shardCount = 1;
+
+    @Valid
+    private final Stream stream = new Stream();
+
+    @Valid
+    private final Polling polling = new Polling();
+
+    @Valid
+    private final Batching batching = new Batching();
+
+    @Valid
+    private final Limiter limiter = new Limiter();
+
+    @Valid
+    private final RateLimit rateLimit = new RateLimit();
+
+    @Valid
+    private final MetaCache metaCache = new MetaCache();
+
     public Duration getWaitingMetaTtl() {
         return waitingMetaTtl;
     }
@@ -25,4 +61,538 @@ public class QueueApiProperties {
             this.waitingMetaTtl = waitingMetaTtl;
         }
     }
+
+    public Duration getEntryKeyTtl() {
+        return entryKeyTtl;
+    }
+
+    public void setEntryKeyTtl(Duration entryKeyTtl) {
+        if (entryKeyTtl != null && !entryKeyTtl.isZero() && !entryKeyTtl.isNegative()) {
+            this.entryKeyTtl = entryKeyTtl;
+        }
+    }
+
+    public boolean isAtomicEntry() {
+        return atomicEntry;
+    }
+
+    public void setAtomicEntry(boolean atomicEntry) {
+        this.atomicEntry = atomicEntry;
+    }
+
+    public boolean isAtomicStatus() {
+        return atomicStatus;
+    }
+
+    public void setAtomicStatus(boolean atomicStatus) {
+        this.atomicStatus = atomicStatus;
+    }
+
+    public StorageLayout getStorageLayout() {
+        return storageLayout;
+    }
+
+    public void setStorageLayout(StorageLayout storageLayout) {
+        if (storageLayout != null) {
+            this.storageLayout = storageLayout;
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount) {
+        if (shardCount > 0) {
+            this.shardCount = shardCount;
+        }
+    }
+
+    public Stream getStream() {
+        return stream;
+    }
+
+    public Polling getPolling() {
+        return polling;
+    }
+
+    public Batching getBatching() {
+        return batching;
+    }
+
+    public Limiter getLimiter() {
+        return limiter;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public MetaCache getMetaCache() {
+        return metaCache;
+    }
+
+    /**
+     * 신규 진입 유저의 저장 레이아웃. 조회/발급은 userId 형식으로 레이아웃을 판별하므로 전환 중 혼재해도 된다.
+     * LEGACY: UUID + 유저별 메타 해시
+     * COMPACT: base62 64비트 ID + 버킷 메타 해시 (항상 Lua 스크립트 경로 사용)
+     */
+    public enum StorageLayout {
+        LEGACY,
+        COMPACT
+    }
+
+    /**
+     * GET /api/queue/status/stream (SSE) 설정
+     */
+    public static class Stream {
+
+        @DurationUnit(ChronoUnit.SECONDS)
+        private Duration timeout = Duration.ofMinutes(10);
+
+        @DurationUnit(ChronoUnit.SECONDS)
+        private Duration rankInterval = Duration.ofSeconds(5);
+
+        @Positive
+        private int batchSize = 500;
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            if (timeout != null && !timeout.isZero() && !timeout.isNegative()) {
+                this.timeout = timeout;
+            }
+        }
+
+        public Duration getRankInterval() {
+            return rankInterval;
+        }
+
+        public void setRankInterval(Duration rankInterval) {
+            if (rankInterval != null && !rankInterval.isZero() && !rankInterval.isNegative()) {
+                this.rankInterval = rankInterval;
+            }
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            if (batchSize > 0) {
+                this.batchSize = batchSize;
+            }
+        }
+    }
+
+    /**
+     * 상태 응답의 nextPollAfterMs 계산 설정
+     * 입장률을 알면 예상 대기 시간의 wait-fraction 만큼, 모르면 순번 x rank-step 만큼 기다리게 한다.
+     * 힌트를 그대로 따른 클라이언트가 비활성으로 정리되지 않도록 max-interval 은 inactivity-grace 의 1/3 을 넘지 않는다.
+     */
+    public static class Polling {
+
+        @DurationUnit(ChronoUnit.MILLIS)
+        private Duration minInterval = Duration.ofSeconds(1);
+
+        @DurationUnit(ChronoUnit.MILLIS)
+        private Duration maxInterval = Duration.ofSeconds(30);
+
+        @DurationUnit(ChronoUnit.MILLIS)
+        private Duration rankStep = Duration.ofMillis(10);
+
+        private double waitFraction = 0.25;
+
+        @DurationUnit(ChronoUnit.MILLIS)
+        private Duration rateCacheTtl = Duration.ofSeconds(1);
+
+        // queue-manager 의 inactivity-grace 와 같은 값
+        private Duration inactivityGrace = Duration.ofSeconds(30);
+
+        public Duration getMinInterval() {
+            return minInterval;
+        }
+
+        public void setMinInterval(Duration minInterval) {
+            if (minInterval != null && !minInterval.isZero() && !minInterval.isNegative()) {
+                this.minInterval = minInterval;
+            }
+        }
+
+        public Duration getMaxInterval() {
+            return maxInterval;
+        }
+
+        public void setMaxInterval(Duration maxInterval) {
+            if (maxInterval != null && !maxInterval.isZero() && !maxInterval.isNegative()) {
+                this.maxInterval = maxInterval;
+            }
+        }
+
+        public Duration getRankStep() {
+            return rankStep;
+        }
+
+        public void setRankStep(Duration rankStep) {
+            if (rankStep != null && !rankStep.isNegative()) {
+                this.rankStep = rankStep;
+            }
+        }
+
+        public double getWaitFraction() {
+            return waitFraction;
+        }
+
+        public void setWaitFraction(double waitFraction) {
+            if (waitFraction > 0 && waitFraction <= 1) {
+                this.waitFraction = waitFraction;
+            }
+        }
+
+        public Duration getRateCacheTtl() {
+            return rateCacheTtl;
+        }
+
+        public void setRateCacheTtl(Duration rateCacheTtl) {
+            if (rateCacheTtl != null && !rateCacheTtl.isNegative()) {
+                this.rateCacheTtl = rateCacheTtl;
+            }
+        }
+
+        public Duration getInactivityGrace() {
+            return inactivityGrace;
+        }
+
+        public void setInactivityGrace(Duration inactivityGrace) {
+            if (inactivityGrace != null && !inactivityGrace.isZero() && !inactivityGrace.isNegative()) {
+                this.inactivityGrace = inactivityGrace;
+            }
+        }
+
+        /**
+         * 실제로 쓰는 폴링 간격 상한. max-interval 과 inactivity-grace / 3 중 작은 값 (min-interval 아래로는 내리지 않음)
+         */
+        public Duration getEffectiveMaxInterval() {
+            Duration graceBound = inactivityGrace.dividedBy(3);
+            Duration max = maxInterval.compareTo(graceBound) > 0 ? graceBound : maxInterval;
+            return max.compareTo(minInterval) < 0 ? minInterval : max;
+        }
+    }
+
+    /**
+     * Valkey 명령 묶음 처리 설정 (queue.api.batching.*)
+     * 동시에 들어온 진입/상태 조회 스크립트 호출을 모아 파이프라인 한 번으로 보낸다.
+     * 보내는 중인 묶음이 없으면 바로 보내고, 있을 때만 max-delay 까지 더 모은다.
+     */
+    public static class Batching {
+
+        private boolean enabled = true;
+
+        @Positive
+        private int maxBatchSize = 64;
+
+        @DurationUnit(ChronoUnit.MICROS)
+        private Duration maxDelay = Duration.ofNanos(500_000);
+
+        @Positive
+        private int flushThreads = 4;
+
+        private Duration callTimeout = Duration.ofSeconds(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            if (maxBatchSize > 0) {
+                this.maxBatchSize = maxBatchSize;
+            }
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            if (maxDelay != null && !maxDelay.isNegative()) {
+                this.maxDelay = maxDelay;
+            }
+        }
+
+        public int getFlushThreads() {
+            return flushThreads;
+        }
+
+        public void setFlushThreads(int flushThreads) {
+            if (flushThreads > 0) {
+                this.flushThreads = flushThreads;
+            }
+        }
+
+        public Duration getCallTimeout() {
+            return callTimeout;
+        }
+
+        public void setCallTimeout(Duration callTimeout) {
+            if (callTimeout != null && !callTimeout.isZero() && !callTimeout.isNegative()) {
+                this.callTimeout = callTimeout;
+            }
+        }
+    }
+
+    /**
+     * 진입/상태 조회 동시 처리 한도 설정 (queue.api.limiter.*)
+     * 응답 시간이 기준(장기 평균)보다 늘어나면 한도를 줄이고, 줄어들면 다시 늘린다.
+     * 상태 조회는 한도의 status-share 까지만 받아 진입보다 먼저 거절된다.
+     */
+    public static class Limiter {
+
+        private boolean enabled = true;
+
+        @Positive
+        private int initialLimit = 200;
+
+        @Positive
+        private int minLimit = 20;
+
+        @Positive
+        private int maxLimit = 2000;
+
+        @Positive
+        private int windowSize = 100;
+
+        @Positive
+        private int longWindowSize = 600;
+
+        private double smoothing = 0.2;
+
+        private double statusShare = 0.8;
+
+        @DurationUnit(ChronoUnit.SECONDS)
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            if (initialLimit > 0) {
+                this.initialLimit = initialLimit;
+            }
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            if (minLimit > 0) {
+                this.minLimit = minLimit;
+            }
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            if (maxLimit > 0) {
+                this.maxLimit = maxLimit;
+            }
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            if (windowSize > 0) {
+                this.windowSize = windowSize;
+            }
+        }
+
+        public int getLongWindowSize() {
+            return longWindowSize;
+        }
+
+        public void setLongWindowSize(int longWindowSize) {
+            if (longWindowSize > 0) {
+                this.longWindowSize = longWindowSize;
+            }
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            if (smoothing > 0 && smoothing <= 1) {
+                this.smoothing = smoothing;
+            }
+        }
+
+        public double getStatusShare() {
+            return statusShare;
+        }
+
+        public void setStatusShare(double statusShare) {
+            if (statusShare > 0 && statusShare <= 1) {
+                this.statusShare = statusShare;
+            }
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            if (retryAfter != null && !retryAfter.isNegative()) {
+                this.retryAfter = retryAfter;
+            }
+        }
+    }
+
+    /**
+     * 클라이언트별 요청 수 제한 (queue.api.rate-limit.*)
+     * Valkey 슬라이딩 윈도우 카운터로 pod 전체 합산을 제한하고, 각 pod 의 로컬 토큰 버킷이
+     * 혼자서 한도를 넘기는 클라이언트를 네트워크 호출 전에 먼저 거절한다.
+     */
+    public static class RateLimit {
+
+        private boolean enabled = false;
+
+        @Positive
+        private int localMaxKeys = 100_000;
+
+        @Valid
+        private final Rule entry = new Rule(Duration.ofSeconds(10), 20, 0);
+
+        @Valid
+        private final Rule status = new Rule(Duration.ofSeconds(10), 300, 20);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getLocalMaxKeys() {
+            return localMaxKeys;
+        }
+
+        public void setLocalMaxKeys(int localMaxKeys) {
+            if (localMaxKeys > 0) {
+                this.localMaxKeys = localMaxKeys;
+            }
+        }
+
+        public Rule getEntry() {
+            return entry;
+        }
+
+        public Rule getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * 엔드포인트별 한도. window 동안 IP 당 per-ip 회, userId 당 per-user 회 (0 이면 제한 없음)
+     * 진입 요청에는 userId 가 없으므로 entry 는 per-ip 만 적용된다.
+     */
+    public static class Rule {
+
+        @DurationUnit(ChronoUnit.SECONDS)
+        private Duration window;
+
+        private int perIp;
+
+        private int perUser;
+
+        Rule(Duration window, int perIp, int perUser) {
+            this.window = window;
+            this.perIp = perIp;
+            this.perUser = perUser;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            if (window != null && window.toMillis() > 0) {
+                this.window = window;
+            }
+        }
+
+        public int getPerIp() {
+            return perIp;
+        }
+
+        public void setPerIp(int perIp) {
+            if (perIp >= 0) {
+                this.perIp = perIp;
+            }
+        }
+
+        public int getPerUser() {
+            return perUser;
+        }
+
+        public void setPerUser(int perUser) {
+            if (perUser >= 0) {
+                this.perUser = perUser;
+            }
+        }
+    }
+
+    /**
+     * 대기 메타 로컬 캐시 (queue.api.meta-cache.*)
+     * 발급 알림(queue:promotions)으로 갱신하며, 대기 중 항목은 waiting-meta-ttl 동안 조회가 없으면,
+     * 발급 항목은 티켓 만료 시각에 만료된다.
+     */
+    public static class MetaCache {
+
+        private boolean enabled = true;
+
+        @Positive
+        private int maxSize = 100_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            if (maxSize > 0) {
+                this.maxSize = maxSize;
+            }
+        }
+    }
 }
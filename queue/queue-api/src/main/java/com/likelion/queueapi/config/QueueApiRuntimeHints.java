@@ -0,0 +1,24 @@
+package com.likelion.queueapi.config;
+
+import com.likelion.queueapi.dto.QueueEntryRequest;
+import com.likelion.queueapi.dto.QueueEntryResponse;
+import com.likelion.queueapi.dto.QueueStatusResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * AOT 처리(빠른 기동 모드)에서 자동으로 잡히지 않는 런타임 힌트.
+ * - DTO record: SSE 이벤트 데이터로 직접 직렬화되는 경로는 컨트롤러 시그니처 스캔에 걸리지 않는다
+ * - OpenTelemetry autoconfigure 는 ServiceLoader 로 exporter/propagator 를 찾는다
+ * Lua 스크립트는 클래스 안의 문자열이라 리소스 힌트가 필요 없다.
+ */
+public class QueueApiRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                QueueEntryRequest.class, QueueEntryResponse.class, QueueStatusResponse.class);
+        hints.resources().registerPattern("META-INF/services/io.opentelemetry.*");
+    }
+}
@@ -0,0 +1,21 @@
+package com.likelion.queueapi.config;
+
+import com.likelion.queue.common.QueueShards;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 대기열 샤드 수 설정. 샤드 키와 userId 형식이 compact 레이아웃에 맞춰져 있어 legacy 와는 함께 쓸 수 없다.
+ */
+@Configuration
+public class QueueShardConfig {
+
+    @Bean
+    public QueueShards queueShards(QueueApiProperties properties) {
+        if (properties.getShardCount() > 1
+                && properties.getStorageLayout() != QueueApiProperties.StorageLayout.COMPACT) {
+            throw new IllegalStateException("queue.api.shard-count > 1 requires queue.api.storage-layout=compact");
+        }
+        return new QueueShards(properties.getShardCount());
+    }
+}
@@ -1,6 +1,10 @@
 package com.likelion.queueapi.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 
-public record QueueEntryRequest(@NotBlank String nickname) {
+/**
+ * idempotencyKey: 재시도/재접속 시 같은 닉네임으로 같은 값을 보내면 새로 줄을 서지 않고 기존 userId 와 순번을 돌려받는다 (기기 ID 등)
+ */
+public record QueueEntryRequest(@NotBlank String nickname, @Size(max = 128) String idempotencyKey) {
 }
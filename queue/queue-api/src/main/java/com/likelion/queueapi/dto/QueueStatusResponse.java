@@ -2,5 +2,17 @@ package com.likelion.queueapi.dto;
 
 import com.likelion.queueapi.model.QueueStatus;
 
-public record QueueStatusResponse(QueueStatus status, Long rank, String ticketId) {
+public record QueueStatusResponse(QueueStatus status,
+                                  Long rank,
+                                  String ticketId,
+                                  String target,
+                                  Long estimatedWaitMs,
+                                  Long nextPollAfterMs) {
+
+    /**
+     * target: 티켓을 배정받은 게임 서버 인스턴스 id (레지스트리를 쓰지 않으면 null)
+     */
+    public static QueueStatusResponse promoted(String ticketId, String target) {
+        return new QueueStatusResponse(QueueStatus.PROMOTED, 0L, ticketId, target, 0L, null);
+    }
 }
@@ -0,0 +1,16 @@
+package com.likelion.queueapi.model;
+
+/**
+ * ENTRY_SCRIPT 결과. 같은 멱등 키로 이미 등록된 유저가 있으면 그 userId 와 현재 순번이다
+ * waiting 이 false 면 멱등 키가 가리키는 유저가 대기열에 없다. (발급됐거나 사라짐, rank 는 의미 없음)
+ */
+public record EntryResult(String userId, long rank, boolean waiting) {
+
+    public static EntryResult waiting(String userId, long rank) {
+        return new EntryResult(userId, rank, true);
+    }
+
+    public static EntryResult notWaiting(String userId) {
+        return new EntryResult(userId, 0, false);
+    }
+}
@@ -0,0 +1,35 @@
+package com.likelion.queueapi.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PROMOTION_CHANNEL 메시지 한 줄 ("userId ticketId [target]")
+ * 메시지 첫 줄 "@expireAt" 은 뒤따르는 티켓의 만료 시각(epoch millis)이다. 없으면 expireAtMillis 는 0
+ */
+public record PromotionNotice(String userId, String ticketId, String target, long expireAtMillis) {
+
+    public static List<PromotionNotice> parse(String payload) {
+        List<PromotionNotice> notices = new ArrayList<>();
+        long expireAtMillis = 0;
+        for (String line : payload.split("\n")) {
+            if (line.startsWith("@")) {
+                expireAtMillis = StatusSnapshot.parseExpireAt(line.substring(1));
+                continue;
+            }
+            int separator = line.indexOf(' ');
+            if (separator <= 0) {
+                continue;
+            }
+            String ticketId = line.substring(separator + 1);
+            String target = null;
+            int targetSeparator = ticketId.indexOf(' ');
+            if (targetSeparator > 0) {
+                target = ticketId.substring(targetSeparator + 1);
+                ticketId = ticketId.substring(0, targetSeparator);
+            }
+            notices.add(new PromotionNotice(line.substring(0, separator), ticketId, target, expireAtMillis));
+        }
+        return notices;
+    }
+}
@@ -0,0 +1,39 @@
+package com.likelion.queueapi.model;
+
+/**
+ * STATUS_SCRIPT 결과를 그대로 옮긴 값. expireAtMillis 는 PROMOTED 일 때 티켓 만료 시각 (모르면 0)
+ */
+public record StatusSnapshot(State state, long rank, String ticketId, String target, long expireAtMillis) {
+
+    public static final StatusSnapshot NOT_FOUND = new StatusSnapshot(State.NOT_FOUND, 0, null, null, 0);
+    public static final StatusSnapshot GONE = new StatusSnapshot(State.GONE, 0, null, null, 0);
+
+    public static StatusSnapshot waiting(long rank) {
+        return new StatusSnapshot(State.WAITING, rank, null, null, 0);
+    }
+
+    public static StatusSnapshot promoted(String ticketId, String target, long expireAtMillis) {
+        return new StatusSnapshot(State.PROMOTED, 0, ticketId, target, expireAtMillis);
+    }
+
+    /**
+     * 메타/발급 알림의 expireAt (epoch millis). 없거나 형식이 틀리면 0
+     */
+    public static long parseExpireAt(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    public enum State {
+        NOT_FOUND,
+        WAITING,
+        PROMOTED,
+        GONE
+    }
+}
@@ -0,0 +1,7 @@
+package com.likelion.queueapi.model;
+
+/**
+ * 대기열 진입 한 건 (ENTRY_SCRIPT 인자). traceparent 는 샘플링된 진입만, idempotencyKey 는 클라이언트가 보낸 경우만 값이 있다
+ */
+public record WaitingEntry(String userId, String nickname, String traceparent, String idempotencyKey, long score) {
+}
@@ -0,0 +1,192 @@
+package com.likelion.queueapi.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * 여러 요청 스레드의 호출을 모아 flusher 한 번으로 처리하고 각 호출자에게 결과를 돌려준다.
+ * 수집 스레드 하나가 묶음을 만들고, flush 는 flush-threads 개 스레드에서 병렬로 실행된다.
+ * 진행 중인 flush 가 없으면 모인 만큼 바로 보내고, 있을 때만 첫 요청 기준 max-delay 까지 더 기다린다.
+ * 대기 큐가 가득 차면 호출 스레드에서 단건으로 실행해 지연이 끝없이 늘어나지 않게 한다.
+ * 호출자는 call-timeout 까지만 기다리고, 종료 중이라 flush 스레드에 넘길 수 없는 묶음은 수집 스레드가 직접 보낸다.
+ */
+final class MicroBatcher<T, R> {
+
+    private static final Logger log = LoggerFactory.getLogger(MicroBatcher.class);
+    private static final int QUEUE_CAPACITY_PER_BATCH = 64;
+
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long callTimeoutNanos;
+    private final String name;
+    private final Function<List<T>, List<R>> flusher;
+    private final IntConsumer batchSizeRecorder;
+    private final BlockingQueue<Pending<T, R>> queue;
+    private final ExecutorService flushExecutor;
+    private final Thread collector;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean running = true;
+
+    MicroBatcher(String name,
+                 int maxBatchSize,
+                 Duration maxDelay,
+                 int flushThreads,
+                 Duration callTimeout,
+                 Function<List<T>, List<R>> flusher,
+                 IntConsumer batchSizeRecorder) {
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.callTimeoutNanos = callTimeout.toNanos();
+        this.flusher = flusher;
+        this.batchSizeRecorder = batchSizeRecorder;
+        this.queue = new LinkedBlockingQueue<>(maxBatchSize * QUEUE_CAPACITY_PER_BATCH);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.flushExecutor = Executors.newFixedThreadPool(flushThreads, runnable -> {
+            Thread thread = new Thread(runnable, "queue-batch-" + name + "-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.collector = new Thread(this::collect, "queue-batch-" + name);
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    R call(T item) {
+        Pending<T, R> pending = new Pending<>(item, System.nanoTime());
+        if (!running || !queue.offer(pending)) {
+            return flusher.apply(List.of(item)).get(0);
+        }
+        // shutdown 이 큐를 비운 뒤에 들어갔으면 아무도 꺼내지 않으므로 직접 실행한다.
+        if (!running && queue.remove(pending)) {
+            return flusher.apply(List.of(item)).get(0);
+        }
+        try {
+            return pending.future.get(callTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(ex.getCause());
+        } catch (TimeoutException ex) {
+            queue.remove(pending);
+            throw new QueryTimeoutException("Batched " + name + " call timed out after "
+                    + TimeUnit.NANOSECONDS.toMillis(callTimeoutNanos) + "ms", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            queue.remove(pending);
+            throw new CompletionException(ex);
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        collector.interrupt();
+        List<Pending<T, R>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            inFlight.incrementAndGet();
+            flush(remaining);
+        }
+        flushExecutor.shutdown();
+    }
+
+    private void collect() {
+        while (running) {
+            List<Pending<T, R>> batch = new ArrayList<>(maxBatchSize);
+            try {
+                Pending<T, R> first = queue.take();
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                if (inFlight.get() > 0) {
+                    long deadline = first.enqueuedAt + maxDelayNanos;
+                    while (batch.size() < maxBatchSize) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        Pending<T, R> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                    }
+                }
+            } catch (InterruptedException ex) {
+                // shutdown 으로 깨어났으면 모으던 묶음을 이 스레드에서 보내고 끝낸다. (인터럽트 상태면 Valkey 호출이 실패한다)
+                if (!batch.isEmpty()) {
+                    inFlight.incrementAndGet();
+                    flush(batch);
+                }
+                return;
+            }
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(List<Pending<T, R>> batch) {
+        inFlight.incrementAndGet();
+        try {
+            flushExecutor.execute(() -> flush(batch));
+        } catch (RejectedExecutionException ex) {
+            // flush 스레드가 이미 종료됐으면 호출자가 기다리지 않도록 직접 보낸다.
+            flush(batch);
+        } catch (RuntimeException ex) {
+            log.error("Batch collector failed", ex);
+            inFlight.decrementAndGet();
+            for (Pending<T, R> pending : batch) {
+                pending.future.completeExceptionally(ex);
+            }
+        }
+    }
+
+    private void flush(List<Pending<T, R>> batch) {
+        try {
+            List<T> items = new ArrayList<>(batch.size());
+            for (Pending<T, R> pending : batch) {
+                items.add(pending.item);
+            }
+            List<R> results = flusher.apply(items);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(i < results.size() ? results.get(i) : null);
+            }
+        } catch (RuntimeException ex) {
+            for (Pending<T, R> pending : batch) {
+                pending.future.completeExceptionally(ex);
+            }
+        } finally {
+            inFlight.decrementAndGet();
+            batchSizeRecorder.accept(batch.size());
+        }
+    }
+
+    private static final class Pending<T, R> {
+        private final T item;
+        private final long enqueuedAt;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+
+        private Pending(T item, long enqueuedAt) {
+            this.item = item;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
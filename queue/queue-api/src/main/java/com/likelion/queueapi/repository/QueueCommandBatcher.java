@@ -0,0 +1,109 @@
+package com.likelion.queueapi.repository;
+
+import com.likelion.queueapi.config.QueueApiProperties;
+import com.likelion.queueapi.model.EntryResult;
+import com.likelion.queueapi.model.StatusSnapshot;
+import com.likelion.queueapi.model.WaitingEntry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 진입/상태 조회 스크립트 호출을 요청 간에 묶어 파이프라인으로 보낸다. (queue.api.batching.*)
+ * 비활성화하면 QueueRepository 를 그대로 호출한다.
+ */
+@Component
+public class QueueCommandBatcher {
+
+    private final QueueRepository redisRepository;
+    private final QueueApiProperties properties;
+    private final MicroBatcher<WaitingEntry, EntryResult> entryBatcher;
+    private final MicroBatcher<StatusQuery, StatusSnapshot> statusBatcher;
+
+    public QueueCommandBatcher(QueueRepository redisRepository,
+                               QueueApiProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.redisRepository = redisRepository;
+        this.properties = properties;
+        QueueApiProperties.Batching batching = properties.getBatching();
+        if (!batching.isEnabled()) {
+            this.entryBatcher = null;
+            this.statusBatcher = null;
+            return;
+        }
+        this.entryBatcher = new MicroBatcher<>("entry",
+                batching.getMaxBatchSize(),
+                batching.getMaxDelay(),
+                batching.getFlushThreads(),
+                batching.getCallTimeout(),
+                entries -> redisRepository.enterWaitingQueueBatch(
+                        entries, properties.getWaitingMetaTtl(), properties.getEntryKeyTtl()),
+                batchSize(meterRegistry, "entry")::record);
+        this.statusBatcher = new MicroBatcher<>("status",
+                batching.getMaxBatchSize(),
+                batching.getMaxDelay(),
+                batching.getFlushThreads(),
+                batching.getCallTimeout(),
+                this::fetchStatuses,
+                batchSize(meterRegistry, "status")::record);
+    }
+
+    /**
+     * QueueRepository#enterWaitingQueue 와 같은 결과 (이미 등록된 userId 면 null)
+     */
+    public EntryResult enterWaitingQueue(WaitingEntry entry) {
+        if (entryBatcher == null) {
+            return redisRepository.enterWaitingQueue(
+                    entry, properties.getWaitingMetaTtl(), properties.getEntryKeyTtl());
+        }
+        return entryBatcher.call(entry);
+    }
+
+    /**
+     * knownWaiting: 로컬 캐시에 대기 중으로 남아 있는 유저 (QueueRepository#fetchStatus 참고)
+     */
+    public StatusSnapshot fetchStatus(String userId, boolean knownWaiting) {
+        if (statusBatcher == null) {
+            return redisRepository.fetchStatus(userId, knownWaiting, properties.getWaitingMetaTtl());
+        }
+        return statusBatcher.call(new StatusQuery(userId, knownWaiting));
+    }
+
+    private List<StatusSnapshot> fetchStatuses(List<StatusQuery> queries) {
+        List<String> userIds = new ArrayList<>(queries.size());
+        Set<String> knownWaiting = new HashSet<>();
+        for (StatusQuery query : queries) {
+            userIds.add(query.userId());
+            if (query.knownWaiting()) {
+                knownWaiting.add(query.userId());
+            }
+        }
+        return redisRepository.fetchStatuses(userIds, knownWaiting::contains, properties.getWaitingMetaTtl());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (entryBatcher != null) {
+            entryBatcher.shutdown();
+        }
+        if (statusBatcher != null) {
+            statusBatcher.shutdown();
+        }
+    }
+
+    private static DistributionSummary batchSize(MeterRegistry meterRegistry, String operation) {
+        return DistributionSummary.builder("queue.redis_batch_size")
+                .description("Number of script calls flushed in one pipeline")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private record StatusQuery(String userId, boolean knownWaiting) {
+    }
+}
@@ -1,30 +1,202 @@
 package com.likelion.queueapi.repository;
 
+import com.likelion.queue.common.CompactLayout;
 import com.likelion.queue.common.QueueRedisKeys;
+import com.likelion.queue.common.QueueShards;
+import com.likelion.queueapi.model.EntryResult;
+import com.likelion.queueapi.model.StatusSnapshot;
+import com.likelion.queueapi.model.WaitingEntry;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
 import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Repository;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 @Repository
 public class QueueRepository {
 
     private static final String WAITING_QUEUE_KEY = QueueRedisKeys.WAITING_QUEUE;
     private static final String WAITING_META_PREFIX = QueueRedisKeys.WAITING_META_PREFIX;
+    private static final String WAITING_LAST_SEEN_KEY = QueueRedisKeys.WAITING_LAST_SEEN;
+    private static final String ADMISSION_RATE_KEY = QueueRedisKeys.ADMISSION_RATE;
+    private static final String CAPACITY_CHANNEL = QueueRedisKeys.CAPACITY_CHANNEL;
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> ENTRY_SCRIPT;
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> STATUS_SCRIPT;
+    private static final DefaultRedisScript<Long> TOUCH_META_SCRIPT;
+
+    static {
+        // ZADD + 메타 HSET + TTL + ZRANK 를 한 번의 왕복으로 처리한다. {rank, userId, score}, 이미 존재하는 멤버면 {-1}
+        // 빈 대기열의 첫 유저면 queue-manager 가 바로 사이클을 돌 수 있도록 신호를 보낸다.
+        // compact 유저는 metaKey 가 버킷 해시이고 닉네임만 필드로 저장한다. (TTL 대신 reaper 가 정리)
+        // 샘플링된 진입이면 traceparent(ARGV[7])를 legacy 는 필드로, compact 는 닉네임 뒤에 0x1f 로 붙여 남긴다.
+        // 멱등 키(KEYS[4])가 있으면 새로 넣지 않고 그 키가 가리키는 유저를 돌려준다. 대기 중이면 순번을,
+        // 대기열에 없으면(발급됐거나 사라짐) {-2, userId} 를 돌려주고 호출 측이 상태를 확인한다.
+        // 사라진 유저로 확인되면 ARGV[9] 에 그 userId 를 넘겨 다시 호출한다. (그 유저를 가리킬 때만 새 유저로 바꾼다)
+        ENTRY_SCRIPT = new DefaultRedisScript<>();
+        ENTRY_SCRIPT.setResultType(List.class);
+        ENTRY_SCRIPT.setScriptText(CompactLayout.LUA_FUNCTIONS +
+            """
+                local waitingKey = KEYS[1]
+                local metaKey = KEYS[2]
+                local lastSeenKey = KEYS[3]
+                local entryKey = KEYS[4]
+                local userId = ARGV[1]
+                local score = ARGV[2]
+                local nickname = ARGV[3]
+                local lastSeenAt = ARGV[4]
+                local ttlMillis = tonumber(ARGV[5])
+                local capacityChannel = ARGV[6]
+                local traceparent = ARGV[7]
+                local entryKeyTtlMillis = tonumber(ARGV[8])
+                if entryKey then
+                  local existing = redis.call('GET', entryKey)
+                  if existing and existing ~= ARGV[9] then
+                    local existingRank = redis.call('ZRANK', waitingKey, existing)
+                    if not existingRank then
+                      return {-2, existing}
+                    end
+                    redis.call('PEXPIRE', entryKey, entryKeyTtlMillis)
+                    return {existingRank, existing, redis.call('ZSCORE', waitingKey, existing)}
+                  end
+                end
+                if redis.call('ZADD', waitingKey, 'NX', score, userId) == 0 then
+                  return {-1}
+                end
+                if isCompact(userId) then
+                  if traceparent ~= '' then
+                    nickname = string.gsub(nickname, '\\31', ' ') .. '\\31' .. traceparent
+                  end
+                  redis.call('HSET', metaKey, userId, nickname)
+                else
+                  redis.call('HSET', metaKey,
+                    'userId', userId,
+                    'nickname', nickname,
+                    'ticketId', '',
+                    'lastSeenAt', lastSeenAt)
+                  if traceparent ~= '' then
+                    redis.call('HSET', metaKey, 'traceparent', traceparent)
+                  end
+                  if ttlMillis > 0 then
+                    redis.call('PEXPIRE', metaKey, ttlMillis)
+                  end
+                end
+                redis.call('ZADD', lastSeenKey, score, userId)
+                if entryKey then
+                  redis.call('SET', entryKey, userId, 'PX', entryKeyTtlMillis)
+                end
+                local rank = redis.call('ZRANK', waitingKey, userId)
+                if rank == 0 then
+                  redis.call('PUBLISH', capacityChannel, 'entry')
+                end
+                return {rank, userId, score}"""
+        );
+
+        // 메타 조회 + lastSeenAt/TTL 갱신 + ZRANK 를 한 번에 처리한다.
+        // 대기 중이면 last-seen 인덱스도 갱신해 queue-manager reaper 가 비활성 유저를 찾을 수 있게 한다.
+        // compact 유저는 queue:granted:{userId} 로 발급 여부를, 버킷 필드로 존재 여부를 판단한다.
+        // 로컬 캐시에 대기 중으로 남아 있는 유저(ARGV[5] = 1)는 순번부터 보고, 대기열에 있으면 메타 읽기를 건너뛴다.
+        // {0}: 없음, {1, rank, score}: 대기 중(샤드 내 순번), {2, ticketId, target, expireAt}: 발급됨, {3}: 대기열에서 제거됨
+        STATUS_SCRIPT = new DefaultRedisScript<>();
+        STATUS_SCRIPT.setResultType(List.class);
+        STATUS_SCRIPT.setScriptText(CompactLayout.LUA_FUNCTIONS +
+            """
+                local metaKey = KEYS[1]
+                local waitingKey = KEYS[2]
+                local lastSeenKey = KEYS[3]
+                local grantedKey = KEYS[4]
+                local userId = ARGV[1]
+                local lastSeenAt = ARGV[2]
+                local ttlMillis = tonumber(ARGV[3])
+                local nowMillis = ARGV[4]
+                if ARGV[5] == '1' then
+                  local rank = redis.call('ZRANK', waitingKey, userId)
+                  if rank then
+                    if not isCompact(userId) then
+                      redis.call('HSET', metaKey, 'lastSeenAt', lastSeenAt)
+                      if ttlMillis > 0 then
+                        redis.call('PEXPIRE', metaKey, ttlMillis)
+                      end
+                    end
+                    redis.call('ZADD', lastSeenKey, nowMillis, userId)
+                    return {1, rank, redis.call('ZSCORE', waitingKey, userId)}
+                  end
+                end
+                if isCompact(userId) then
+                  local grant = redis.call('GET', grantedKey)
+                  if grant then
+                    local ticketId, target = string.match(grant, '^(%S+) ?(%S*)$')
+                    local remaining = redis.call('PTTL', grantedKey)
+                    local expireAt = remaining > 0 and tonumber(nowMillis) + remaining or 0
+                    return {2, ticketId or grant, target or '', tostring(expireAt)}
+                  end
+                  if redis.call('HEXISTS', metaKey, userId) == 0 then
+                    return {0}
+                  end
+                else
+                  if redis.call('EXISTS', metaKey) == 0 then
+                    return {0}
+                  end
+                  redis.call('HSET', metaKey, 'lastSeenAt', lastSeenAt)
+                  if ttlMillis > 0 then
+                    redis.call('PEXPIRE', metaKey, ttlMillis)
+                  end
+                  local ticket = redis.call('HMGET', metaKey, 'ticketId', 'target', 'expireAt')
+                  if ticket[1] and ticket[1] ~= '' then
+                    return {2, ticket[1], ticket[2] or '', ticket[3] or ''}
+                  end
+                end
+                local rank = redis.call('ZRANK', waitingKey, userId)
+                if not rank then
+                  return {3}
+                end
+                redis.call('ZADD', lastSeenKey, nowMillis, userId)
+                return {1, rank, redis.call('ZSCORE', waitingKey, userId)}"""
+        );
+
+        // 메타가 남아 있을 때만 lastSeenAt/TTL 을 갱신한다. 만료된 키에 HSET 하면 lastSeenAt 만 있는 메타가 다시 생겨
+        // reaper 가 메타 만료 유저를 대기열에서 지우지 못한다. 반환값: 갱신했으면 1
+        TOUCH_META_SCRIPT = new DefaultRedisScript<>();
+        TOUCH_META_SCRIPT.setResultType(Long.class);
+        TOUCH_META_SCRIPT.setScriptText(
+            """
+                if redis.call('EXISTS', KEYS[1]) == 0 then
+                  return 0
+                end
+                redis.call('HSET', KEYS[1], 'lastSeenAt', ARGV[1])
+                if tonumber(ARGV[2]) > 0 then
+                  redis.call('PEXPIRE', KEYS[1], ARGV[2])
+                end
+                return 1"""
+        );
+    }
 
     private final StringRedisTemplate stringRedisTemplate;
     private final ZSetOperations<String, String> zSetOperations;
     private final HashOperations<String, String, String> hashOperations;
+    private final QueueShards shards;
 
-    public QueueRepository(StringRedisTemplate stringRedisTemplate) {
+    public QueueRepository(StringRedisTemplate stringRedisTemplate, QueueShards shards) {
         this.stringRedisTemplate = stringRedisTemplate;
+        this.shards = shards;
         this.zSetOperations = stringRedisTemplate.opsForZSet();
         this.hashOperations = stringRedisTemplate.opsForHash();
     }
@@ -36,17 +208,127 @@ public class QueueRepository {
         return Boolean.TRUE.equals(result);
     }
 
-    public void upsertWaitingMeta(String userId, String nickname, Duration ttl) {
+    /**
+     * 대기열 등록과 메타 저장을 원자적으로 수행하고 userId 와 현재 순번을 반환한다.
+     * 샤드가 여러 개면 다른 샤드에서 앞선 유저 수를 더한 전체 순번이다. 이미 등록된 userId면 null
+     * 멱등 키가 가리키는 유저가 아직 대기 중이면 새로 넣지 않고 그 유저의 userId 와 순번을 돌려준다.
+     */
+    public EntryResult enterWaitingQueue(WaitingEntry entry, Duration ttl, Duration entryKeyTtl) {
+        return enterWaitingQueue(entry, ttl, entryKeyTtl, "");
+    }
+
+    /**
+     * staleUserId: 멱등 키가 가리키지만 사라진 것으로 확인된 유저. 키가 아직 그 유저를 가리키면 entry 로 바꾼다
+     */
+    public EntryResult enterWaitingQueue(WaitingEntry entry, Duration ttl, Duration entryKeyTtl, String staleUserId) {
+        String userId = Objects.requireNonNull(entry.userId(), "userId must not be null");
+        List<String> keys = new ArrayList<>(4);
+        keys.add(shards.waitingKey(userId));
+        keys.add(metaKey(userId));
+        keys.add(shards.lastSeenKey(userId));
+        if (entry.idempotencyKey() != null) {
+            keys.add(shards.entryKey(userId, entry.idempotencyKey()));
+        }
+        List<?> result = stringRedisTemplate.execute(
+                ENTRY_SCRIPT,
+                keys,
+                userId,
+                String.valueOf(entry.score()),
+                entry.nickname(),
+                Instant.now().toString(),
+                String.valueOf(toTtlMillis(ttl)),
+                CAPACITY_CHANNEL,
+                entry.traceparent() != null ? entry.traceparent() : "",
+                String.valueOf(toTtlMillis(entryKeyTtl)),
+                staleUserId);
+        return toEntryResults(Collections.singletonList(result)).get(0);
+    }
+
+    /**
+     * 여러 진입 요청을 ENTRY_SCRIPT 파이프라인 한 번으로 처리한다. 결과 순서는 entries 와 같고 이미 등록된 항목은 null
+     */
+    public List<EntryResult> enterWaitingQueueBatch(List<WaitingEntry> entries, Duration ttl, Duration entryKeyTtl) {
+        if (entries == null || entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        byte[] sha = bytes(ENTRY_SCRIPT.getSha1());
+        byte[] lastSeenAt = bytes(Instant.now().toString());
+        byte[] ttlMillis = bytes(String.valueOf(toTtlMillis(ttl)));
+        byte[] capacityChannel = bytes(CAPACITY_CHANNEL);
+        byte[] entryKeyTtlMillis = bytes(String.valueOf(toTtlMillis(entryKeyTtl)));
+        ScriptPipelines.ScriptCall call = (connection, index) -> {
+            WaitingEntry entry = entries.get(index);
+            String userId = entry.userId();
+            byte[] waitingKey = bytes(shards.waitingKey(userId));
+            byte[] metaKey = bytes(metaKey(userId));
+            byte[] lastSeenKey = bytes(shards.lastSeenKey(userId));
+            byte[][] args = {bytes(userId), bytes(String.valueOf(entry.score())), bytes(entry.nickname()),
+                    lastSeenAt, ttlMillis, capacityChannel,
+                    bytes(entry.traceparent() != null ? entry.traceparent() : ""), entryKeyTtlMillis};
+            if (entry.idempotencyKey() != null) {
+                connection.scriptingCommands().evalSha(sha, ReturnType.MULTI, 4,
+                        concat(new byte[][] {waitingKey, metaKey, lastSeenKey,
+                                bytes(shards.entryKey(userId, entry.idempotencyKey()))}, args));
+            } else {
+                connection.scriptingCommands().evalSha(sha, ReturnType.MULTI, 3,
+                        concat(new byte[][] {waitingKey, metaKey, lastSeenKey}, args));
+            }
+        };
+        List<Object> raw = ScriptPipelines.evalShaPipelined(stringRedisTemplate, ENTRY_SCRIPT, entries.size(), call);
+        return toEntryResults(raw);
+    }
+
+    /**
+     * ENTRY_SCRIPT 결과를 EntryResult 로 바꾼다. 샤드가 여러 개면 다른 샤드의 앞선 유저 수를 더한다.
+     */
+    private List<EntryResult> toEntryResults(List<?> raw) {
+        List<EntryResult> results = new ArrayList<>(raw.size());
+        List<Integer> enteredIndexes = new ArrayList<>();
+        List<String> userIds = new ArrayList<>();
+        List<Double> scores = new ArrayList<>();
+        for (int i = 0; i < raw.size(); i++) {
+            if (raw.get(i) instanceof List<?> values && values.size() == 2 && asLong(values.get(0)) == -2) {
+                results.add(EntryResult.notWaiting(asString(values.get(1))));
+                continue;
+            }
+            if (!(raw.get(i) instanceof List<?> values) || values.size() < 3 || asLong(values.get(0)) < 0) {
+                results.add(null);
+                continue;
+            }
+            String userId = asString(values.get(1));
+            results.add(EntryResult.waiting(userId, asLong(values.get(0))));
+            enteredIndexes.add(i);
+            userIds.add(userId);
+            scores.add(Double.parseDouble(asString(values.get(2))));
+        }
+        if (!shards.enabled() || enteredIndexes.isEmpty()) {
+            return results;
+        }
+        List<Long> ahead = countAheadInOtherShards(userIds, scores);
+        for (int i = 0; i < enteredIndexes.size(); i++) {
+            int index = enteredIndexes.get(i);
+            EntryResult result = results.get(index);
+            results.set(index, EntryResult.waiting(result.userId(), result.rank() + ahead.get(i)));
+        }
+        return results;
+    }
+
+    public void upsertWaitingMeta(String userId, String nickname, String traceparent, Duration ttl) {
         String metaKey = WAITING_META_PREFIX + userId;
         Map<String, String> payload = new HashMap<>();
         payload.put("userId", userId);
         payload.put("nickname", nickname);
         payload.put("ticketId", "");
-        payload.put("lastSeenAt", Instant.now().toString());
+        if (traceparent != null) {
+            payload.put("traceparent", traceparent);
+        }
+        Instant now = Instant.now();
+        payload.put("lastSeenAt", now.toString());
         hashOperations.putAll(metaKey, payload);
         if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
             stringRedisTemplate.expire(metaKey, ttl);
         }
+        touchLastSeen(userId, now.toEpochMilli());
     }
 
     public Optional<Map<String, String>> findWaitingMeta(String userId) {
@@ -58,15 +340,207 @@ public class QueueRepository {
     }
 
     public void touchWaitingMeta(String userId, Duration ttl) {
-        String metaKey = WAITING_META_PREFIX + userId;
-        hashOperations.put(metaKey, "lastSeenAt", Instant.now().toString());
-        if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
-            stringRedisTemplate.expire(metaKey, ttl);
-        }
+        stringRedisTemplate.execute(
+                TOUCH_META_SCRIPT,
+                Collections.singletonList(WAITING_META_PREFIX + userId),
+                Instant.now().toString(),
+                String.valueOf(toTtlMillis(ttl)));
+    }
+
+    public void touchLastSeen(String userId, long epochMillis) {
+        zSetOperations.add(WAITING_LAST_SEEN_KEY, userId, epochMillis);
+    }
+
+    public void signalQueueHead() {
+        stringRedisTemplate.convertAndSend(CAPACITY_CHANNEL, "entry");
     }
 
     public Long getWaitingRank(String userId) {
         return zSetOperations.rank(WAITING_QUEUE_KEY,
                 (String) Objects.requireNonNull(userId, "userId must not be null"));
     }
+
+    /**
+     * queue-manager 가 게시한 초당 입장률. 게시된 값이 없으면 null
+     */
+    public Double findAdmissionRate() {
+        String value = stringRedisTemplate.opsForValue().get(ADMISSION_RATE_KEY);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * knownWaiting 은 로컬 캐시에 대기 중으로 남아 있는 유저. 대기열에서 빠졌으면 메타를 읽는 경로로 넘어간다.
+     */
+    public StatusSnapshot fetchStatus(String userId, boolean knownWaiting, Duration ttl) {
+        Objects.requireNonNull(userId, "userId must not be null");
+        List<?> result = stringRedisTemplate.execute(
+                STATUS_SCRIPT,
+                Arrays.asList(metaKey(userId), shards.waitingKey(userId), shards.lastSeenKey(userId),
+                        shards.grantedKey(userId)),
+                userId,
+                Instant.now().toString(),
+                String.valueOf(toTtlMillis(ttl)),
+                String.valueOf(System.currentTimeMillis()),
+                knownWaiting ? "1" : "0");
+        return toGlobalRanks(List.of(userId), Collections.singletonList(result)).get(0);
+    }
+
+    /**
+     * 여러 유저에 대해 STATUS_SCRIPT 를 파이프라인으로 실행한다. 결과 순서는 userIds 와 같다.
+     */
+    public List<StatusSnapshot> fetchStatuses(List<String> userIds, Predicate<String> knownWaiting, Duration ttl) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        byte[] sha = bytes(STATUS_SCRIPT.getSha1());
+        Instant now = Instant.now();
+        byte[] lastSeenAt = bytes(now.toString());
+        byte[] ttlMillis = bytes(String.valueOf(toTtlMillis(ttl)));
+        byte[] nowMillis = bytes(String.valueOf(now.toEpochMilli()));
+        byte[] waitingHint = bytes("1");
+        byte[] noHint = bytes("0");
+
+        ScriptPipelines.ScriptCall call = (connection, index) -> {
+            String userId = userIds.get(index);
+            connection.scriptingCommands().evalSha(sha, ReturnType.MULTI, 4,
+                    bytes(metaKey(userId)), bytes(shards.waitingKey(userId)),
+                    bytes(shards.lastSeenKey(userId)), bytes(shards.grantedKey(userId)),
+                    bytes(userId), lastSeenAt, ttlMillis, nowMillis,
+                    knownWaiting.test(userId) ? waitingHint : noHint);
+        };
+        List<Object> raw = ScriptPipelines.evalShaPipelined(stringRedisTemplate, STATUS_SCRIPT, userIds.size(), call);
+        return toGlobalRanks(userIds, raw);
+    }
+
+    /**
+     * STATUS_SCRIPT 결과를 스냅샷으로 바꾼다. 샤드가 여러 개면 대기 중인 유저의 샤드 내 순번에
+     * 다른 샤드의 앞선 유저 수를 파이프라인 ZCOUNT 로 더한다.
+     */
+    private List<StatusSnapshot> toGlobalRanks(List<String> userIds, List<?> raw) {
+        List<StatusSnapshot> snapshots = new ArrayList<>(userIds.size());
+        List<Integer> waitingIndexes = new ArrayList<>();
+        List<String> waitingUsers = new ArrayList<>();
+        List<Double> waitingScores = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            Object result = i < raw.size() ? raw.get(i) : null;
+            StatusSnapshot snapshot = toSnapshot(result);
+            snapshots.add(snapshot);
+            if (shards.enabled() && snapshot.state() == StatusSnapshot.State.WAITING
+                    && result instanceof List<?> values && values.size() > 2) {
+                waitingIndexes.add(i);
+                waitingUsers.add(userIds.get(i));
+                waitingScores.add(Double.parseDouble(asString(values.get(2))));
+            }
+        }
+        if (waitingUsers.isEmpty()) {
+            return snapshots;
+        }
+        List<Long> ahead = countAheadInOtherShards(waitingUsers, waitingScores);
+        for (int i = 0; i < waitingIndexes.size(); i++) {
+            int index = waitingIndexes.get(i);
+            snapshots.set(index, StatusSnapshot.waiting(snapshots.get(index).rank() + ahead.get(i)));
+        }
+        return snapshots;
+    }
+
+    /**
+     * 다른 샤드에서 score 보다 앞선 유저 수. queue-manager 는 같은 score 면 샤드 번호가 작은 쪽을 먼저 꺼내므로
+     * 앞 번호 샤드는 score 이하, 뒷 번호 샤드는 score 미만(밀리초 정수)을 센다.
+     */
+    private List<Long> countAheadInOtherShards(List<String> userIds, List<Double> scores) {
+        List<Object> counts = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (int i = 0; i < userIds.size(); i++) {
+                int own = shards.shardOf(userIds.get(i));
+                double score = scores.get(i);
+                for (int shard = 0; shard < shards.count(); shard++) {
+                    if (shard != own) {
+                        redis.zCount(shards.waitingKey(shard), Double.NEGATIVE_INFINITY,
+                                shard < own ? score : score - 1);
+                    }
+                }
+            }
+            return null;
+        });
+        List<Long> ahead = new ArrayList<>(userIds.size());
+        int position = 0;
+        for (int i = 0; i < userIds.size(); i++) {
+            long sum = 0;
+            for (int shard = 1; shard < shards.count(); shard++) {
+                Object count = position < counts.size() ? counts.get(position) : null;
+                sum += count instanceof Number number ? number.longValue() : 0;
+                position++;
+            }
+            ahead.add(sum);
+        }
+        return ahead;
+    }
+
+    /**
+     * userId 형식에 따라 legacy 유저별 해시 또는 compact 버킷 해시 키를 돌려준다.
+     */
+    private String metaKey(String userId) {
+        return CompactLayout.isCompact(userId)
+                ? shards.metaBucketKey(userId)
+                : WAITING_META_PREFIX + userId;
+    }
+
+    private static StatusSnapshot toSnapshot(Object raw) {
+        if (!(raw instanceof List<?> result) || result.isEmpty()) {
+            return StatusSnapshot.NOT_FOUND;
+        }
+        return switch ((int) asLong(result.get(0))) {
+            case 1 -> StatusSnapshot.waiting(asLong(result.get(1)));
+            case 2 -> StatusSnapshot.promoted(asString(result.get(1)), asTarget(result), asExpireAt(result));
+            case 3 -> StatusSnapshot.GONE;
+            default -> StatusSnapshot.NOT_FOUND;
+        };
+    }
+
+    private static long asLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return Long.parseLong(asString(value));
+    }
+
+    private static String asTarget(List<?> result) {
+        if (result.size() < 3) {
+            return null;
+        }
+        String target = asString(result.get(2));
+        return target.isEmpty() ? null : target;
+    }
+
+    private static long asExpireAt(List<?> result) {
+        return result.size() < 4 ? 0 : StatusSnapshot.parseExpireAt(asString(result.get(3)));
+    }
+
+    private static String asString(Object value) {
+        if (value instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return String.valueOf(value);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[][] concat(byte[][] keys, byte[][] args) {
+        byte[][] keysAndArgs = Arrays.copyOf(keys, keys.length + args.length);
+        System.arraycopy(args, 0, keysAndArgs, keys.length, args.length);
+        return keysAndArgs;
+    }
+
+    private static long toTtlMillis(Duration ttl) {
+        return ttl != null && !ttl.isNegative() ? ttl.toMillis() : 0;
+    }
 }
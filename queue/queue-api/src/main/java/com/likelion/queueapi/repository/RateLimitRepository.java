@@ -0,0 +1,112 @@
+package com.likelion.queueapi.repository;
+
+import com.likelion.queue.common.QueueRedisKeys;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class RateLimitRepository {
+
+    private static final String RATE_LIMIT_PREFIX = QueueRedisKeys.RATE_LIMIT_PREFIX;
+
+    private static final DefaultRedisScript<Long> SLIDING_WINDOW_SCRIPT;
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT;
+
+    static {
+        // 슬라이딩 윈도우 카운터: 직전 고정 윈도우 카운트를 지나간 비율만큼 줄여 현재 윈도우 카운트에 더한다.
+        // 한도 안이면 현재 윈도우를 1 올리고 1, 넘으면 올리지 않고 0
+        // 두 키는 같은 해시 태그를 쓰므로 클러스터에서도 같은 슬롯에 있다.
+        SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>();
+        SLIDING_WINDOW_SCRIPT.setResultType(Long.class);
+        SLIDING_WINDOW_SCRIPT.setScriptText(
+            """
+                local currentKey = KEYS[1]
+                local previousKey = KEYS[2]
+                local limit = tonumber(ARGV[1])
+                local previousWeight = tonumber(ARGV[2])
+                local ttlMillis = tonumber(ARGV[3])
+                local current = tonumber(redis.call('GET', currentKey) or '0')
+                local previous = tonumber(redis.call('GET', previousKey) or '0')
+                if previous * previousWeight + current >= limit then
+                  return 0
+                end
+                redis.call('INCR', currentKey)
+                redis.call('PEXPIRE', currentKey, ttlMillis)
+                return 1"""
+        );
+
+        // tryAcquire 로 올린 현재 윈도우 카운트를 되돌린다. (키가 이미 만료됐으면 아무것도 하지 않음)
+        RELEASE_SCRIPT = new DefaultRedisScript<>();
+        RELEASE_SCRIPT.setResultType(Long.class);
+        RELEASE_SCRIPT.setScriptText(
+            """
+                if tonumber(redis.call('GET', KEYS[1]) or '0') > 0 then
+                  return redis.call('DECR', KEYS[1])
+                end
+                return 0"""
+        );
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public RateLimitRepository(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * subjects[i] 마다 window 동안 limits[i] 회 한도로 1회를 차감한다. 결과는 subjects 순서대로 허용 여부.
+     * 주체마다 키 슬롯이 다르므로 스크립트를 주체별로 나눠 파이프라인 한 번으로 보낸다.
+     */
+    public List<Boolean> tryAcquire(List<String> subjects, List<Integer> limits, Duration window, long nowMillis) {
+        long windowMillis = window.toMillis();
+        long windowIndex = nowMillis / windowMillis;
+        double previousWeight = 1.0 - (double) (nowMillis % windowMillis) / windowMillis;
+        byte[] weight = bytes(String.valueOf(previousWeight));
+        byte[] ttlMillis = bytes(String.valueOf(windowMillis * 2));
+        String sha = SLIDING_WINDOW_SCRIPT.getSha1();
+
+        List<Object> raw = ScriptPipelines.evalShaPipelined(stringRedisTemplate, SLIDING_WINDOW_SCRIPT,
+                subjects.size(), (connection, i) -> {
+                    String prefix = keyPrefix(subjects.get(i));
+                    connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 2,
+                            bytes(prefix + windowIndex), bytes(prefix + (windowIndex - 1)),
+                            bytes(String.valueOf(limits.get(i))), weight, ttlMillis);
+                });
+
+        List<Boolean> allowed = new ArrayList<>(subjects.size());
+        for (int i = 0; i < subjects.size(); i++) {
+            Object value = i < raw.size() ? raw.get(i) : null;
+            allowed.add(!(value instanceof Number number) || number.longValue() == 1);
+        }
+        return allowed;
+    }
+
+    /**
+     * 같은 nowMillis 로 tryAcquire 에서 허용된 subjects 의 차감을 되돌린다. (다른 주체가 거절됐을 때)
+     */
+    public void release(List<String> subjects, Duration window, long nowMillis) {
+        if (subjects.isEmpty()) {
+            return;
+        }
+        long windowIndex = nowMillis / window.toMillis();
+        String sha = RELEASE_SCRIPT.getSha1();
+        ScriptPipelines.evalShaPipelined(stringRedisTemplate, RELEASE_SCRIPT, subjects.size(), (connection, i) ->
+                connection.scriptingCommands().evalSha(sha, ReturnType.INTEGER, 1,
+                        bytes(keyPrefix(subjects.get(i)) + windowIndex)));
+    }
+
+    private static String keyPrefix(String subject) {
+        return RATE_LIMIT_PREFIX + "{" + subject + "}:";
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
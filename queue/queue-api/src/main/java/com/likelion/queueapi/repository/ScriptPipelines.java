@@ -0,0 +1,110 @@
+package com.likelion.queueapi.repository;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EVALSHA 파이프라인 실행. 스크립트가 아직 로드되지 않았으면(NOSCRIPT) 한 번 로드한 뒤 NOSCRIPT 로 실패한 호출만 다시 실행한다.
+ * 이미 성공한 호출(대기열 등록 등)을 다시 보내면 두 번 적용되므로 파이프라인 전체를 재전송하지 않는다.
+ * 매 호출마다 SCRIPT LOAD 왕복을 하지 않기 위해 SHA 는 로컬에서 계산한 값을 쓴다.
+ */
+final class ScriptPipelines {
+
+    private ScriptPipelines() {
+    }
+
+    /**
+     * 파이프라인의 index 번째 EVALSHA 호출을 connection 에 쓴다. 호출마다 결과가 하나씩 나와야 한다.
+     */
+    @FunctionalInterface
+    interface ScriptCall {
+        void write(RedisConnection connection, int index);
+    }
+
+    static List<Object> evalShaPipelined(StringRedisTemplate stringRedisTemplate,
+                                         DefaultRedisScript<?> script,
+                                         int count,
+                                         ScriptCall call) {
+        try {
+            return stringRedisTemplate.executePipelined(calls(call, indexes(count)));
+        } catch (RedisPipelineException ex) {
+            List<Object> results = ex.getPipelineResult();
+            if (results == null || results.size() != count) {
+                throw ex;
+            }
+            List<Integer> failed = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Object result = results.get(i);
+                if (result instanceof Throwable error) {
+                    if (!isNoScript(error)) {
+                        throw ex;
+                    }
+                    failed.add(i);
+                }
+            }
+            if (failed.isEmpty()) {
+                throw ex;
+            }
+            byte[] text = script.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+            stringRedisTemplate.execute(
+                    (RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(text));
+            List<Object> retried = stringRedisTemplate.executePipelined(calls(call, failed));
+            List<Object> merged = new ArrayList<>(count);
+            for (Object result : results) {
+                merged.add(deserialize(result));
+            }
+            for (int i = 0; i < failed.size(); i++) {
+                merged.set(failed.get(i), i < retried.size() ? retried.get(i) : null);
+            }
+            return merged;
+        }
+    }
+
+    private static RedisCallback<Object> calls(ScriptCall call, List<Integer> indexes) {
+        return connection -> {
+            for (int index : indexes) {
+                call.write(connection, index);
+            }
+            return null;
+        };
+    }
+
+    private static List<Integer> indexes(int count) {
+        List<Integer> indexes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    // 실패한 파이프라인의 결과는 템플릿 직렬화를 거치지 않았으므로 StringRedisTemplate 과 같게 문자열로 바꾼다.
+    private static Object deserialize(Object value) {
+        if (value instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (value instanceof List<?> values) {
+            List<Object> converted = new ArrayList<>(values.size());
+            for (Object element : values) {
+                converted.add(deserialize(element));
+            }
+            return converted;
+        }
+        return value;
+    }
+
+    private static boolean isNoScript(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
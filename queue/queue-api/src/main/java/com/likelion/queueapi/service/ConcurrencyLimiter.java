@@ -0,0 +1,134 @@
+package com.likelion.queueapi.service;
+
+import com.likelion.queueapi.config.QueueApiProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 진입/상태 조회의 동시 처리 한도를 응답 시간으로 조절한다 (gradient 방식).
+ * 처리 시간 대부분이 Valkey 왕복이므로 요청 처리 시간을 Valkey 지연의 대리 지표로 쓴다.
+ * window-size 개 표본마다 최근 평균(short)과 장기 평균(long)을 비교해
+ * limit = limit x clamp(long / short, 0.5, 1) + sqrt(limit) 로 새 한도를 정하고 smoothing 만큼만 반영한다.
+ * 상태 조회는 한도의 status-share 까지만 받아 부하가 오르면 진입보다 먼저 거절된다.
+ */
+@Component
+public class ConcurrencyLimiter {
+
+    private final QueueApiProperties.Limiter settings;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter entryAccepted;
+    private final Counter entryShed;
+    private final Counter statusAccepted;
+    private final Counter statusShed;
+
+    private volatile double limit;
+
+    // 아래 필드는 onSample 의 synchronized 블록 안에서만 갱신
+    private double longRttNanos;
+    private long longSamples;
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+
+    public ConcurrencyLimiter(QueueApiProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getLimiter();
+        this.limit = clamp(settings.getInitialLimit());
+
+        this.entryAccepted = decisionCounter(meterRegistry, "entry", "accepted");
+        this.entryShed = decisionCounter(meterRegistry, "entry", "shed");
+        this.statusAccepted = decisionCounter(meterRegistry, "status", "accepted");
+        this.statusShed = decisionCounter(meterRegistry, "status", "shed");
+
+        Gauge.builder("queue.api_concurrency_limit", this, limiter -> limiter.limit)
+                .description("Current adaptive concurrency limit for entry/status requests")
+                .register(meterRegistry);
+        Gauge.builder("queue.api_in_flight_requests", inFlight, AtomicInteger::get)
+                .description("Entry/status requests currently being processed")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * 처리 슬롯을 얻으면 true. true 를 받은 호출자는 끝난 뒤 반드시 release 를 호출해야 한다.
+     */
+    public boolean tryAcquire(boolean statusPoll) {
+        double allowed = statusPoll ? limit * settings.getStatusShare() : limit;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                (statusPoll ? statusShed : entryShed).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                (statusPoll ? statusAccepted : entryAccepted).increment();
+                return true;
+            }
+        }
+    }
+
+    public void release(long startedAtNanos) {
+        int current = inFlight.getAndDecrement();
+        onSample(System.nanoTime() - startedAtNanos, current);
+    }
+
+    public long retryAfterSeconds() {
+        return Math.max(1, settings.getRetryAfter().toSeconds());
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtFinish) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtFinish);
+        if (windowSamples < settings.getWindowSize()) {
+            return;
+        }
+
+        double shortRtt = (double) windowRttSum / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+
+        // 장기 평균: 처음 long-window-size 개 표본은 단순 평균, 이후 EWMA
+        longSamples += settings.getWindowSize();
+        if (longRttNanos == 0) {
+            longRttNanos = shortRtt;
+        } else {
+            double factor = Math.min(1.0, (double) settings.getWindowSize()
+                    / Math.min(longSamples, settings.getLongWindowSize()));
+            longRttNanos += (shortRtt - longRttNanos) * factor;
+        }
+        // 지연이 오래 높게 유지되면 기준선도 따라 내려와 한도가 바닥에 갇히지 않게 한다
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        // 한도의 절반도 쓰지 않았다면 응답 시간이 좋아도 한도를 늘리지 않는다 (근거 없는 증가 방지)
+        if (maxInFlight < current / 2) {
+            target = Math.min(target, current);
+        }
+        limit = clamp(current * (1 - settings.getSmoothing()) + target * settings.getSmoothing());
+    }
+
+    private double clamp(double value) {
+        return Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), value));
+    }
+
+    private static Counter decisionCounter(MeterRegistry meterRegistry, String endpoint, String outcome) {
+        return Counter.builder("queue.api_limiter_decisions_total")
+                .description("Concurrency limiter decisions for entry/status requests")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
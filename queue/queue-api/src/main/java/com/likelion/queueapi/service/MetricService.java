@@ -1,7 +1,9 @@
 package com.likelion.queueapi.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.stereotype.Component;
 
 /**
@@ -13,8 +15,11 @@ public class MetricService {
     private final Counter entryRequestsTotal;
     private final Counter statusRequestsTotal;
     private final Counter promotedUsersTotal;
+    private final Counter reusedEntriesTotal;
+    private final MeterRegistry meterRegistry;
 
     public MetricService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
         this.entryRequestsTotal = Counter.builder("queue.entry_requests_total")
                 .description("Total number of queue entry requests")
                 .register(meterRegistry);
@@ -26,12 +31,20 @@ public class MetricService {
         this.promotedUsersTotal = Counter.builder("queue.promoted_users_total")
                 .description("Total number of users promoted (received ticket)")
                 .register(meterRegistry);
+
+        this.reusedEntriesTotal = Counter.builder("queue.entry_reused_total")
+                .description("Entry requests answered with the existing waiter of the same idempotency key")
+                .register(meterRegistry);
     }
 
     public void recordEntryRequest() {
         entryRequestsTotal.increment();
     }
 
+    public void recordReusedEntry() {
+        reusedEntriesTotal.increment();
+    }
+
     public void recordStatusRequest() {
         statusRequestsTotal.increment();
     }
@@ -39,4 +52,11 @@ public class MetricService {
     public void recordPromotedUser() {
         promotedUsersTotal.increment();
     }
+
+    /**
+     * 로컬 캐시의 hit/miss/eviction 을 cache.* 메트릭으로 노출 (cache 태그 = name)
+     */
+    public void monitorCache(Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
 }
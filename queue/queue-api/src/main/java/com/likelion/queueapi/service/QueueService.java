@@ -1,20 +1,39 @@
 package com.likelion.queueapi.service;
 
+import com.likelion.queue.common.CompactLayout;
+import com.likelion.queue.common.QueueShards;
 import com.likelion.queueapi.config.QueueApiProperties;
 import com.likelion.queueapi.dto.QueueEntryRequest;
 import com.likelion.queueapi.dto.QueueEntryResponse;
 import com.likelion.queueapi.dto.QueueStatusResponse;
+import com.likelion.queueapi.model.EntryResult;
 import com.likelion.queueapi.model.QueueStatus;
+import com.likelion.queueapi.model.StatusSnapshot;
+import com.likelion.queueapi.model.WaitingEntry;
+import com.likelion.queueapi.repository.QueueCommandBatcher;
 import com.likelion.queueapi.repository.QueueRepository;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class QueueService {
@@ -22,52 +41,218 @@ public class QueueService {
     private static final Logger log = LoggerFactory.getLogger(QueueService.class);
 
     private final QueueRepository redisRepository;
+    private final QueueCommandBatcher commandBatcher;
     private final QueueApiProperties properties;
     private final MetricService metrics;
+    private final WaitEstimator waitEstimator;
+    private final QueueShards shards;
+    private final WaitingMetaCache metaCache;
+    private final Tracer tracer;
+    private final AtomicLong arrivals = new AtomicLong();
 
-    public QueueService(QueueRepository redisRepository, QueueApiProperties properties, MetricService metrics) {
+    public QueueService(QueueRepository redisRepository,
+                        QueueCommandBatcher commandBatcher,
+                        QueueApiProperties properties,
+                        MetricService metrics,
+                        WaitEstimator waitEstimator,
+                        QueueShards shards,
+                        WaitingMetaCache metaCache,
+                        OpenTelemetry openTelemetry) {
         this.redisRepository = redisRepository;
+        this.commandBatcher = commandBatcher;
         this.properties = properties;
         this.metrics = metrics;
+        this.waitEstimator = waitEstimator;
+        this.shards = shards;
+        this.metaCache = metaCache;
+        this.tracer = openTelemetry.getTracer("queue-api");
     }
 
     public QueueEntryResponse enqueue(QueueEntryRequest request) {
         metrics.recordEntryRequest();
 
-        String userId = UUID.randomUUID().toString();
+        boolean compact = properties.getStorageLayout() == QueueApiProperties.StorageLayout.COMPACT;
+        String idempotencyKey = request.idempotencyKey() != null && !request.idempotencyKey().isBlank()
+                ? scopedIdempotencyKey(request.nickname(), request.idempotencyKey())
+                : null;
+        // 샤드는 도착 순서대로 돌아가며 배정한다. 멱등 키가 있으면 같은 키가 항상 같은 샤드에 가도록 키로 정한다
+        long shardSequence = idempotencyKey != null ? idempotencyKey.hashCode() : arrivals.getAndIncrement();
+        String userId = compact ? shards.newUserId(shardSequence) : UUID.randomUUID().toString();
         long score = Instant.now().toEpochMilli();
 
-        boolean added = redisRepository.addToWaitingQueue(userId, score);
+        // 유저 여정의 시작 span. 샘플링된 경우에만 traceparent 를 메타에 남겨 발급/입장 span 이 링크로 이어 붙인다.
+        Span span = tracer.spanBuilder("queue.enqueue").startSpan();
+        Scope scope = span.makeCurrent();
+        try {
+            String traceparent = traceparent(span);
+            WaitingEntry entry = new WaitingEntry(userId, request.nickname(), traceparent, idempotencyKey, score);
+            // 멱등 키 조회와 등록은 한 스크립트에서 해야 하므로 키가 있으면 항상 스크립트 경로를 탄다
+            EntryResult entered = properties.isAtomicEntry() || compact || idempotencyKey != null
+                    ? enterAtomically(entry)
+                    : enterWithCommands(entry);
+            if (!entered.userId().equals(userId)) {
+                metrics.recordReusedEntry();
+                span.setAttribute("queue.entry_reused", true);
+            }
+            span.setAttribute("queue.user_id", entered.userId());
+            if (!entered.waiting()) {
+                // 같은 멱등 키로 이미 티켓을 받은 유저. 티켓은 상태 조회로 가져간다
+                return new QueueEntryResponse(QueueStatus.PROMOTED, 0, entered.userId());
+            }
+            span.setAttribute("queue.rank", entered.rank());
+            metaCache.markWaiting(entered.userId());
+            return new QueueEntryResponse(QueueStatus.WAITING, entered.rank(), entered.userId());
+        } catch (RuntimeException ex) {
+            span.recordException(ex);
+            span.setStatus(StatusCode.ERROR);
+            throw ex;
+        } finally {
+            scope.close();
+            span.end();
+        }
+    }
+
+    /**
+     * 멱등 키는 닉네임별로 나눈다. 다른 닉네임이 같은 키를 보내도 남의 자리(와 티켓)를 돌려받지 않는다.
+     * 닉네임은 길이가 정해지지 않았으므로 SHA-256 으로 줄여 키 앞에 붙인다.
+     */
+    static String scopedIdempotencyKey(String nickname, String idempotencyKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(nickname.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + ':' + idempotencyKey;
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private static String traceparent(Span span) {
+        if (!span.getSpanContext().isSampled()) {
+            return null;
+        }
+        Map<String, String> carrier = new HashMap<>(2);
+        W3CTraceContextPropagator.getInstance().inject(Context.current().with(span), carrier, Map::put);
+        return carrier.get("traceparent");
+    }
+
+    private EntryResult enterAtomically(WaitingEntry entry) {
+        EntryResult entered = commandBatcher.enterWaitingQueue(entry);
+        if (entered != null && !entered.waiting()) {
+            entered = resolveExistingEntry(entry, entered.userId());
+        }
+        if (entered == null) {
+            log.error("Failed to add user {} to waiting queue", entry.userId());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to register queue entry");
+        }
+        return entered;
+    }
+
+    /**
+     * 멱등 키가 가리키는 유저가 대기열에 없을 때. 발급된 유저면 그 유저를 돌려주고,
+     * 이미 사라진 유저(메타 없음/대기열에서 제거됨)면 멱등 키를 새 유저로 바꿔 다시 넣는다.
+     */
+    private EntryResult resolveExistingEntry(WaitingEntry entry, String existingUserId) {
+        StatusSnapshot existing = commandBatcher.fetchStatus(existingUserId, false);
+        remember(existingUserId, existing);
+        return switch (existing.state()) {
+            case WAITING -> EntryResult.waiting(existingUserId, existing.rank());
+            case PROMOTED -> EntryResult.notWaiting(existingUserId);
+            case NOT_FOUND, GONE -> {
+                EntryResult replaced = redisRepository.enterWaitingQueue(entry,
+                        properties.getWaitingMetaTtl(), properties.getEntryKeyTtl(), existingUserId);
+                // 그 사이 다른 요청이 키를 바꿨으면 그 결과를 따른다 (대기 중이 아니면 실패로 처리)
+                yield replaced != null && replaced.waiting() ? replaced : null;
+            }
+        };
+    }
+
+    private EntryResult enterWithCommands(WaitingEntry entry) {
+        String userId = entry.userId();
+        boolean added = redisRepository.addToWaitingQueue(userId, entry.score());
         if (!added) {
             log.error("Failed to add user {} to waiting queue", userId);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to register queue entry");
         }
 
-        redisRepository.upsertWaitingMeta(userId, request.nickname(), properties.getWaitingMetaTtl());
+        redisRepository.upsertWaitingMeta(userId, entry.nickname(), entry.traceparent(), properties.getWaitingMetaTtl());
         Long rank = redisRepository.getWaitingRank(userId);
-        long normalizedRank = rank != null ? rank : 0L;
-
-        return new QueueEntryResponse(QueueStatus.WAITING, normalizedRank, userId);
+        if (rank != null && rank == 0) {
+            redisRepository.signalQueueHead();
+        }
+        return EntryResult.waiting(userId, rank != null ? rank : 0L);
     }
 
     public QueueStatusResponse getStatus(String userId) {
         metrics.recordStatusRequest();
 
+        // 발급 알림을 이미 받은 유저는 Valkey 를 거치지 않고 티켓을 돌려준다
+        StatusSnapshot cached = metaCache.find(userId);
+        if (cached != null && cached.state() == StatusSnapshot.State.PROMOTED) {
+            return toResponse(cached);
+        }
+
+        if (properties.isAtomicStatus() || CompactLayout.isCompact(userId)) {
+            // 대기 중으로 캐시된 유저는 스크립트가 메타를 읽지 않고 순번부터 본다
+            StatusSnapshot snapshot = commandBatcher.fetchStatus(userId, cached != null);
+            remember(userId, snapshot);
+            return toResponse(snapshot);
+        }
+
+        // 대기 중인 것으로 캐시된 유저는 메타 HGETALL 을 건너뛰고 순번만 조회한다
+        if (cached != null) {
+            redisRepository.touchWaitingMeta(userId, properties.getWaitingMetaTtl());
+            Long rank = redisRepository.getWaitingRank(userId);
+            if (rank != null) {
+                redisRepository.touchLastSeen(userId, System.currentTimeMillis());
+                return waitEstimator.waiting(rank);
+            }
+            // 대기열에 없으면 발급 알림을 놓쳤을 수 있으므로 메타를 다시 읽는다
+        }
+
         Map<String, String> meta = redisRepository.findWaitingMeta(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found in queue"));
+                .orElseThrow(() -> {
+                    metaCache.evict(userId);
+                    return new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found in queue");
+                });
 
         redisRepository.touchWaitingMeta(userId, properties.getWaitingMetaTtl());
 
         String ticketId = meta.get("ticketId");
         if (ticketId != null && !ticketId.isBlank()) {
             metrics.recordPromotedUser();
-            return new QueueStatusResponse(QueueStatus.PROMOTED, 0L, ticketId);
+            String target = meta.get("target");
+            target = target != null && !target.isBlank() ? target : null;
+            metaCache.markPromoted(userId, ticketId, target, StatusSnapshot.parseExpireAt(meta.get("expireAt")));
+            return QueueStatusResponse.promoted(ticketId, target);
         }
 
         Long rank = redisRepository.getWaitingRank(userId);
         if (rank == null) {
+            metaCache.evict(userId);
             throw new ResponseStatusException(HttpStatus.GONE, "User is no longer waiting");
         }
-        return new QueueStatusResponse(QueueStatus.WAITING, rank, null);
+        metaCache.markWaiting(userId);
+        redisRepository.touchLastSeen(userId, System.currentTimeMillis());
+        return waitEstimator.waiting(rank);
+    }
+
+    private void remember(String userId, StatusSnapshot snapshot) {
+        switch (snapshot.state()) {
+            case WAITING -> metaCache.markWaiting(userId);
+            case PROMOTED -> metaCache.markPromoted(
+                    userId, snapshot.ticketId(), snapshot.target(), snapshot.expireAtMillis());
+            case NOT_FOUND, GONE -> metaCache.evict(userId);
+        }
+    }
+
+    private QueueStatusResponse toResponse(StatusSnapshot snapshot) {
+        return switch (snapshot.state()) {
+            case NOT_FOUND -> throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found in queue");
+            case GONE -> throw new ResponseStatusException(HttpStatus.GONE, "User is no longer waiting");
+            case PROMOTED -> {
+                metrics.recordPromotedUser();
+                yield QueueStatusResponse.promoted(snapshot.ticketId(), snapshot.target());
+            }
+            case WAITING -> waitEstimator.waiting(snapshot.rank());
+        };
     }
 }
@@ -0,0 +1,184 @@
+package com.likelion.queueapi.service;
+
+import com.likelion.queueapi.config.QueueApiProperties;
+import com.likelion.queueapi.dto.QueueStatusResponse;
+import com.likelion.queueapi.model.PromotionNotice;
+import com.likelion.queueapi.model.QueueStatus;
+import com.likelion.queueapi.model.StatusSnapshot;
+import com.likelion.queueapi.repository.QueueRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대기 상태 SSE 스트림
+ * 연결은 서블릿 비동기 요청으로 유지되어 클라이언트마다 스레드를 점유하지 않는다.
+ * 순번은 rank-interval 주기로 파이프라인 조회해 보내고, 티켓은 발급 알림을 받는 즉시 보낸다.
+ */
+@Service
+public class QueueStatusStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(QueueStatusStreamService.class);
+
+    private static final String STATUS_EVENT = "status";
+    private static final String CLOSED_EVENT = "closed";
+
+    private final QueueService queueService;
+    private final QueueRepository redisRepository;
+    private final QueueApiProperties properties;
+    private final MetricService metrics;
+    private final WaitEstimator waitEstimator;
+    private final Map<String, SseEmitter> subscribers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService rankPublisher;
+
+    public QueueStatusStreamService(QueueService queueService,
+                                    QueueRepository redisRepository,
+                                    QueueApiProperties properties,
+                                    MetricService metrics,
+                                    WaitEstimator waitEstimator) {
+        this.queueService = queueService;
+        this.redisRepository = redisRepository;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.waitEstimator = waitEstimator;
+        this.rankPublisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "queue-status-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getStream().getRankInterval().toMillis();
+        rankPublisher.scheduleWithFixedDelay(this::publishRanks, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(properties.getStream().getTimeout().toMillis());
+        emitter.onCompletion(() -> subscribers.remove(userId, emitter));
+        emitter.onTimeout(() -> {
+            subscribers.remove(userId, emitter);
+            emitter.complete();
+        });
+        emitter.onError(ex -> subscribers.remove(userId, emitter));
+
+        SseEmitter previous = subscribers.put(userId, emitter);
+        if (previous != null) {
+            previous.complete();
+        }
+
+        // 등록 후에 현재 상태를 조회해야 그 사이에 발행된 발급 알림을 놓치지 않는다.
+        QueueStatusResponse status;
+        try {
+            status = queueService.getStatus(userId);
+        } catch (RuntimeException ex) {
+            subscribers.remove(userId, emitter);
+            throw ex;
+        }
+        if (status.status() == QueueStatus.PROMOTED) {
+            subscribers.remove(userId, emitter);
+            if (send(userId, emitter, STATUS_EVENT, status)) {
+                emitter.complete();
+            }
+        } else {
+            send(userId, emitter, STATUS_EVENT, status);
+        }
+        return emitter;
+    }
+
+    /**
+     * PROMOTION_CHANNEL 메시지 처리. 한 줄에 "userId ticketId [target]" (PromotionNotice 참고)
+     */
+    public void onPromotions(String payload) {
+        for (PromotionNotice notice : PromotionNotice.parse(payload)) {
+            SseEmitter emitter = subscribers.remove(notice.userId());
+            if (emitter == null) {
+                continue;
+            }
+            metrics.recordPromotedUser();
+            if (send(notice.userId(), emitter, STATUS_EVENT,
+                    QueueStatusResponse.promoted(notice.ticketId(), notice.target()))) {
+                emitter.complete();
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void publishRanks() {
+        try {
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            List<String> userIds = new ArrayList<>(subscribers.keySet());
+            int batchSize = properties.getStream().getBatchSize();
+            for (int from = 0; from < userIds.size(); from += batchSize) {
+                List<String> chunk = userIds.subList(from, Math.min(from + batchSize, userIds.size()));
+                // 구독자는 대기 중으로 확인된 유저이므로 순번부터 본다
+                List<StatusSnapshot> snapshots = redisRepository.fetchStatuses(
+                        chunk, userId -> true, properties.getWaitingMetaTtl());
+                for (int i = 0; i < chunk.size(); i++) {
+                    dispatch(chunk.get(i), snapshots.get(i));
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Failed to publish queue ranks to {} subscribers", subscribers.size(), ex);
+        }
+    }
+
+    private void dispatch(String userId, StatusSnapshot snapshot) {
+        SseEmitter emitter = subscribers.get(userId);
+        if (emitter == null) {
+            return;
+        }
+        switch (snapshot.state()) {
+            case WAITING -> send(userId, emitter, STATUS_EVENT,
+                    waitEstimator.waiting(snapshot.rank()));
+            case PROMOTED -> {
+                if (subscribers.remove(userId, emitter)) {
+                    metrics.recordPromotedUser();
+                    if (send(userId, emitter, STATUS_EVENT,
+                            QueueStatusResponse.promoted(snapshot.ticketId(), snapshot.target()))) {
+                        emitter.complete();
+                    }
+                }
+            }
+            case NOT_FOUND, GONE -> {
+                if (subscribers.remove(userId, emitter) && send(userId, emitter, CLOSED_EVENT, snapshot.state().name())) {
+                    emitter.complete();
+                }
+            }
+        }
+    }
+
+    private boolean send(String userId, SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            subscribers.remove(userId, emitter);
+            if (log.isDebugEnabled()) {
+                log.debug("Dropped status stream for userId={}: {}", userId, ex.getMessage());
+            }
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rankPublisher.shutdownNow();
+        subscribers.values().forEach(SseEmitter::complete);
+        subscribers.clear();
+    }
+}
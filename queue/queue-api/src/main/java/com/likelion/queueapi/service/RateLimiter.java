@@ -0,0 +1,180 @@
+package com.likelion.queueapi.service;
+
+import com.likelion.queueapi.config.QueueApiProperties;
+import com.likelion.queueapi.repository.RateLimitRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 클라이언트 IP / userId 별 요청 수 제한.
+ * 로컬 토큰 버킷(용량 = 한도, window 동안 한도만큼 충전)은 이 pod 혼자 받은 요청만으로 한도를 넘긴
+ * 클라이언트를 Valkey 호출 없이 거절하고, 통과한 요청은 Valkey 슬라이딩 윈도우로 pod 전체 합산을 확인한다.
+ * Valkey 호출이 실패하면 제한하지 않는다 (요청 처리 자체도 Valkey 에 의존하므로 여기서 막을 이유가 없다).
+ */
+@Component
+public class RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimiter.class);
+
+    private final RateLimitRepository repository;
+    private final QueueApiProperties.RateLimit settings;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TokenBucket> localBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+    private final Counter errors;
+
+    public RateLimiter(RateLimitRepository repository, QueueApiProperties properties, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.settings = properties.getRateLimit();
+        this.meterRegistry = meterRegistry;
+        this.errors = Counter.builder("queue.api_rate_limit_errors_total")
+                .description("Rate limit checks skipped because Valkey was unavailable")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * 허용되면 0, 거절되면 Retry-After 로 보낼 초
+     */
+    public long check(String endpoint, String clientIp, String userId) {
+        QueueApiProperties.Rule rule = "entry".equals(endpoint) ? settings.getEntry() : settings.getStatus();
+        List<String> subjects = new ArrayList<>(2);
+        List<Integer> limits = new ArrayList<>(2);
+        List<String> scopes = new ArrayList<>(2);
+        if (rule.getPerIp() > 0 && clientIp != null) {
+            subjects.add(endpoint + ":ip:" + clientIp);
+            limits.add(rule.getPerIp());
+            scopes.add("ip");
+        }
+        if (rule.getPerUser() > 0 && userId != null && !userId.isBlank()) {
+            subjects.add(endpoint + ":user:" + userId);
+            limits.add(rule.getPerUser());
+            scopes.add("user");
+        }
+        if (subjects.isEmpty()) {
+            return 0;
+        }
+
+        long now = System.currentTimeMillis();
+        Duration window = rule.getWindow();
+        List<TokenBucket> taken = new ArrayList<>(subjects.size());
+        for (int i = 0; i < subjects.size(); i++) {
+            TokenBucket bucket = localBucket(subjects.get(i), limits.get(i), window);
+            long waitMillis = bucket.tryTake(now);
+            if (waitMillis > 0) {
+                // 앞에서 뺀 다른 주체의 토큰은 돌려준다. 거절된 요청이 IP 한도까지 깎지 않도록
+                taken.forEach(TokenBucket::refund);
+                rejected(endpoint, "local").increment();
+                return toSeconds(waitMillis);
+            }
+            taken.add(bucket);
+        }
+
+        List<Boolean> allowed;
+        try {
+            allowed = repository.tryAcquire(subjects, limits, window, now);
+        } catch (DataAccessException ex) {
+            errors.increment();
+            log.debug("Rate limit check skipped", ex);
+            return 0;
+        }
+        int rejectedAt = allowed.indexOf(Boolean.FALSE);
+        if (rejectedAt < 0) {
+            return 0;
+        }
+        rejected(endpoint, scopes.get(rejectedAt)).increment();
+        taken.forEach(TokenBucket::refund);
+        releaseAllowed(subjects, allowed, window, now);
+        // 슬라이딩 윈도우는 현재 고정 윈도우가 끝나야 직전 카운트의 비중이 확실히 줄어든다
+        long windowMillis = window.toMillis();
+        return toSeconds(windowMillis - now % windowMillis);
+    }
+
+    /**
+     * 다른 주체 한도로 거절된 요청이 허용된 주체의 Valkey 카운트를 올려 둔 채 남지 않게 되돌린다.
+     * (per-user 로 거절된 폴링이 같은 IP 의 다른 유저 한도까지 깎지 않도록)
+     */
+    private void releaseAllowed(List<String> subjects, List<Boolean> allowed, Duration window, long now) {
+        List<String> counted = new ArrayList<>(subjects.size());
+        for (int i = 0; i < allowed.size(); i++) {
+            if (allowed.get(i)) {
+                counted.add(subjects.get(i));
+            }
+        }
+        try {
+            repository.release(counted, window, now);
+        } catch (DataAccessException ex) {
+            errors.increment();
+            log.debug("Rate limit release skipped", ex);
+        }
+    }
+
+    private TokenBucket localBucket(String subject, int limit, Duration window) {
+        if (localBuckets.size() >= settings.getLocalMaxKeys() && !localBuckets.containsKey(subject)) {
+            // 키가 너무 많아지면 통째로 비운다. 잠깐 동안 로컬 선거절이 느슨해질 뿐 Valkey 한도는 그대로다.
+            localBuckets.clear();
+        }
+        return localBuckets.computeIfAbsent(subject, key -> new TokenBucket(limit, window));
+    }
+
+    private Counter rejected(String endpoint, String scope) {
+        return rejectedCounters.computeIfAbsent(endpoint + ":" + scope, key -> Counter.builder("queue.api_rate_limited_total")
+                .description("Requests rejected by the per-client rate limit")
+                .tag("endpoint", endpoint)
+                .tag("scope", scope)
+                .register(meterRegistry));
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double refillPerMilli;
+        private double tokens;
+        private long updatedAt;
+
+        private TokenBucket(int limit, Duration window) {
+            this.capacity = limit;
+            this.refillPerMilli = (double) limit / window.toMillis();
+            this.tokens = limit;
+            this.updatedAt = System.currentTimeMillis();
+        }
+
+        /**
+         * 토큰을 하나 쓰면 0, 모자라면 다음 토큰까지 남은 밀리초
+         */
+        private synchronized long tryTake(long now) {
+            if (now > updatedAt) {
+                tokens = Math.min(capacity, tokens + (now - updatedAt) * refillPerMilli);
+                updatedAt = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / refillPerMilli);
+        }
+
+        /**
+         * tryTake 로 쓴 토큰을 돌려준다.
+         */
+        private synchronized void refund() {
+            tokens = Math.min(capacity, tokens + 1);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.likelion.queueapi.service;
+
+import com.likelion.queueapi.config.QueueApiProperties;
+import com.likelion.queueapi.dto.QueueStatusResponse;
+import com.likelion.queueapi.model.QueueStatus;
+import com.likelion.queueapi.repository.QueueRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * queue-manager 가 게시한 입장률로 예상 대기 시간과 다음 폴링 간격을 계산한다.
+ * 입장률은 Pod 단위로 rate-cache-ttl 동안 캐시해 폴링마다 Valkey 를 읽지 않는다.
+ */
+@Component
+public class WaitEstimator {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitEstimator.class);
+
+    private final QueueRepository redisRepository;
+    private final QueueApiProperties.Polling polling;
+    private final long maxPollMillis;
+
+    private volatile double cachedRate;
+    private volatile long cachedAt;
+
+    public WaitEstimator(QueueRepository redisRepository, QueueApiProperties properties) {
+        this.redisRepository = redisRepository;
+        this.polling = properties.getPolling();
+        this.maxPollMillis = polling.getEffectiveMaxInterval().toMillis();
+        if (polling.getMaxInterval().toMillis() > maxPollMillis) {
+            log.warn("polling.max-interval {} exceeds inactivity-grace / 3, clamping poll hints to {}ms",
+                    polling.getMaxInterval(), maxPollMillis);
+        }
+        if (polling.getMinInterval().compareTo(polling.getInactivityGrace().dividedBy(3)) > 0) {
+            throw new IllegalStateException("queue.api.polling.min-interval must be at most inactivity-grace / 3");
+        }
+    }
+
+    public QueueStatusResponse waiting(long rank) {
+        double rate = admissionRate();
+        Long estimatedWaitMs = rate > 0 ? (long) ((rank + 1) * 1000 / rate) : null;
+        return new QueueStatusResponse(QueueStatus.WAITING, rank, null, null, estimatedWaitMs,
+                nextPollAfterMs(rank, estimatedWaitMs));
+    }
+
+    private long nextPollAfterMs(long rank, Long estimatedWaitMs) {
+        long delay = estimatedWaitMs != null
+                ? (long) (estimatedWaitMs * polling.getWaitFraction())
+                : rank * polling.getRankStep().toMillis();
+        long min = polling.getMinInterval().toMillis();
+        return Math.min(maxPollMillis, Math.max(min, delay));
+    }
+
+    private double admissionRate() {
+        long now = System.currentTimeMillis();
+        if (now - cachedAt < polling.getRateCacheTtl().toMillis()) {
+            return cachedRate;
+        }
+        synchronized (this) {
+            if (now - cachedAt < polling.getRateCacheTtl().toMillis()) {
+                return cachedRate;
+            }
+            try {
+                Double rate = redisRepository.findAdmissionRate();
+                cachedRate = rate != null ? rate : 0;
+            } catch (RuntimeException ex) {
+                log.warn("Failed to read admission rate", ex);
+            }
+            cachedAt = now;
+            return cachedRate;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.likelion.queueapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.likelion.queueapi.config.QueueApiProperties;
+import com.likelion.queueapi.model.PromotionNotice;
+import com.likelion.queueapi.model.StatusSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대기 메타의 로컬 사본. 값은 "대기 중"(WAITING) 또는 발급된 티켓(PROMOTED) 두 가지뿐이다.
+ * 메타가 바뀌는 경우는 티켓 발급 하나이고 queue-manager 가 발급마다 PROMOTION_CHANNEL 로 알리므로,
+ * 그 알림으로 항목을 PROMOTED 로 바꾸는 것이 무효화 역할을 한다.
+ * 알림을 놓쳐도 WAITING 항목은 순번 조회에서 대기열에 없음이 드러나 Valkey 메타를 다시 읽게 된다.
+ * PROMOTED 항목은 조회로 연장되지 않고 티켓 만료 시각에 사라진다. (만료 시각을 모르면 WAITING 과 같은 규칙)
+ */
+@Component
+public class WaitingMetaCache {
+
+    private final boolean enabled;
+    private final Cache<String, StatusSnapshot> cache;
+
+    public WaitingMetaCache(QueueApiProperties properties, MetricService metrics) {
+        QueueApiProperties.MetaCache settings = properties.getMetaCache();
+        this.enabled = settings.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfter(new SnapshotExpiry(properties.getWaitingMetaTtl().toNanos()))
+                .recordStats()
+                .build();
+        if (enabled) {
+            metrics.monitorCache(cache, "queue.waiting_meta");
+        }
+    }
+
+    /**
+     * 진입 직후 또는 Valkey 에서 대기 중임을 확인했을 때. 이미 발급 알림을 받은 항목은 되돌리지 않는다.
+     */
+    public void markWaiting(String userId) {
+        if (!enabled) {
+            return;
+        }
+        cache.asMap().compute(userId, (key, current) ->
+                current != null && current.state() == StatusSnapshot.State.PROMOTED
+                        ? current
+                        : StatusSnapshot.waiting(0));
+    }
+
+    public void markPromoted(String userId, String ticketId, String target, long expireAtMillis) {
+        if (enabled) {
+            cache.put(userId, StatusSnapshot.promoted(ticketId, target, expireAtMillis));
+        }
+    }
+
+    public void evict(String userId) {
+        if (enabled) {
+            cache.invalidate(userId);
+        }
+    }
+
+    /**
+     * 캐시된 상태. 없으면 null
+     */
+    public StatusSnapshot find(String userId) {
+        return enabled ? cache.getIfPresent(userId) : null;
+    }
+
+    /**
+     * PROMOTION_CHANNEL 메시지 처리. 이 Pod 에서 본 적 있는 유저만 갱신한다.
+     */
+    public void onPromotions(String payload) {
+        if (!enabled) {
+            return;
+        }
+        for (PromotionNotice notice : PromotionNotice.parse(payload)) {
+            cache.asMap().computeIfPresent(notice.userId(),
+                    (key, current) -> StatusSnapshot.promoted(
+                            notice.ticketId(), notice.target(), notice.expireAtMillis()));
+        }
+    }
+
+    /**
+     * WAITING 은 조회마다 메타 TTL 을 연장하는 것과 같게 마지막 조회 후 waiting-meta-ttl 이 지나면 만료,
+     * PROMOTED 는 티켓 expireAt 에 만료한다.
+     */
+    private record SnapshotExpiry(long idleNanos) implements Expiry<String, StatusSnapshot> {
+
+        @Override
+        public long expireAfterCreate(String key, StatusSnapshot value, long currentTime) {
+            if (value.state() == StatusSnapshot.State.PROMOTED && value.expireAtMillis() > 0) {
+                long remainingMillis = value.expireAtMillis() - System.currentTimeMillis();
+                return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+            }
+            return idleNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, StatusSnapshot value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, StatusSnapshot value, long currentTime, long currentDuration) {
+            if (value.state() == StatusSnapshot.State.PROMOTED && value.expireAtMillis() > 0) {
+                return currentDuration;
+            }
+            return idleNanos;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.likelion.queueapi.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MicroBatcherTest {
+
+    private final Queue<Integer> batchSizes = new ConcurrentLinkedQueue<>();
+    private MicroBatcher<Integer, String> batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    void returnsFlusherResultToEachCaller() {
+        batcher = newBatcher(Duration.ofMillis(5), Duration.ofSeconds(5), MicroBatcherTest::echo);
+
+        assertThat(batcher.call(1)).isEqualTo("r1");
+        assertThat(batcher.call(2)).isEqualTo("r2");
+    }
+
+    @Test
+    void coalescesCallsWhileFlushIsInFlight() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        batcher = newBatcher(Duration.ofMillis(200), Duration.ofSeconds(5), items -> {
+            if (items.contains(0)) {
+                firstStarted.countDown();
+                await(release);
+            }
+            return echo(items);
+        });
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> batcher.call(0));
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<CompletableFuture<String>> rest = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            int item = i;
+            rest.add(CompletableFuture.supplyAsync(() -> batcher.call(item)));
+        }
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("r0");
+        for (int i = 0; i < rest.size(); i++) {
+            assertThat(rest.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("r" + (i + 1));
+        }
+        assertThat(batchSizes).anyMatch(size -> size > 1);
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(9);
+    }
+
+    @Test
+    void propagatesFlusherFailureToCallers() {
+        batcher = newBatcher(Duration.ofMillis(5), Duration.ofSeconds(5), items -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThatThrownBy(() -> batcher.call(1)).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+    }
+
+    @Test
+    void callTimesOutWhenFlushIsSlow() {
+        CountDownLatch release = new CountDownLatch(1);
+        batcher = newBatcher(Duration.ofMillis(5), Duration.ofMillis(50), items -> {
+            await(release);
+            return echo(items);
+        });
+
+        try {
+            assertThatThrownBy(() -> batcher.call(1)).isInstanceOf(QueryTimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void shutdownFlushesCollectedBatch() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // flush 스레드 하나가 막혀 있고 max-delay 가 길어 두 번째 호출은 수집 스레드에 묶인 채로 남는다
+        batcher = newBatcher(Duration.ofSeconds(30), Duration.ofSeconds(30), items -> {
+            if (items.contains(0)) {
+                firstStarted.countDown();
+                await(release);
+            }
+            return echo(items);
+        });
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> batcher.call(0));
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> batcher.call(1));
+        Thread.sleep(100);
+
+        batcher.shutdown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("r1");
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("r0");
+    }
+
+    @Test
+    void runsInlineAfterShutdown() {
+        batcher = newBatcher(Duration.ofMillis(5), Duration.ofSeconds(5), MicroBatcherTest::echo);
+        batcher.shutdown();
+
+        assertThat(batcher.call(3)).isEqualTo("r3");
+    }
+
+    private MicroBatcher<Integer, String> newBatcher(Duration maxDelay,
+                                                    Duration callTimeout,
+                                                    Function<List<Integer>, List<String>> flusher) {
+        return new MicroBatcher<>("test", 16, maxDelay, 1, callTimeout, flusher, batchSizes::add);
+    }
+
+    private static List<String> echo(List<Integer> items) {
+        List<String> results = new ArrayList<>(items.size());
+        for (Integer item : items) {
+            results.add("r" + item);
+        }
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
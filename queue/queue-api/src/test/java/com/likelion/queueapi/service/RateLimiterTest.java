@@ -0,0 +1,105 @@
+package com.likelion.queueapi.service;
+
+import com.likelion.queueapi.config.QueueApiProperties;
+import com.likelion.queueapi.repository.RateLimitRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateLimiterTest {
+
+    private static final Duration WINDOW = Duration.ofHours(1);
+
+    private final RateLimitRepository repository = mock(RateLimitRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        QueueApiProperties properties = new QueueApiProperties();
+        properties.getRateLimit().setEnabled(true);
+        QueueApiProperties.Rule status = properties.getRateLimit().getStatus();
+        status.setWindow(WINDOW);
+        status.setPerIp(2);
+        status.setPerUser(1);
+        rateLimiter = new RateLimiter(repository, properties, meterRegistry);
+    }
+
+    @Test
+    void allowsRequestAcceptedByValkey() {
+        when(repository.tryAcquire(anyList(), anyList(), any(), anyLong())).thenReturn(List.of(true, true));
+
+        assertThat(rateLimiter.check("status", "10.0.0.1", "u1")).isZero();
+        verify(repository).tryAcquire(eq(List.of("status:ip:10.0.0.1", "status:user:u1")), eq(List.of(2, 1)),
+                eq(WINDOW), anyLong());
+    }
+
+    @Test
+    void localBucketRejectsWithoutCallingValkey() {
+        when(repository.tryAcquire(anyList(), anyList(), any(), anyLong())).thenReturn(List.of(true));
+
+        assertThat(rateLimiter.check("status", "10.0.0.1", null)).isZero();
+        assertThat(rateLimiter.check("status", "10.0.0.1", null)).isZero();
+        assertThat(rateLimiter.check("status", "10.0.0.1", null)).isPositive();
+
+        verify(repository, times(2)).tryAcquire(anyList(), anyList(), any(), anyLong());
+        assertThat(rejectedCount("local")).isEqualTo(1);
+    }
+
+    @Test
+    void localUserRejectionRefundsIpToken() {
+        when(repository.tryAcquire(anyList(), anyList(), any(), anyLong())).thenReturn(List.of(true, true));
+
+        assertThat(rateLimiter.check("status", "10.0.0.1", "u1")).isZero();
+        assertThat(rateLimiter.check("status", "10.0.0.1", "u1")).isPositive();
+        assertThat(rateLimiter.check("status", "10.0.0.1", "u2")).isZero();
+    }
+
+    @Test
+    void valkeyRejectionReleasesAllowedSubjects() {
+        when(repository.tryAcquire(anyList(), anyList(), any(), anyLong())).thenReturn(List.of(true, false));
+
+        assertThat(rateLimiter.check("status", "10.0.0.1", "u1")).isPositive();
+
+        verify(repository).release(eq(List.of("status:ip:10.0.0.1")), eq(WINDOW), anyLong());
+        assertThat(rejectedCount("user")).isEqualTo(1);
+    }
+
+    @Test
+    void valkeyFailureAllowsRequest() {
+        when(repository.tryAcquire(anyList(), anyList(), any(), anyLong()))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThat(rateLimiter.check("status", "10.0.0.1", "u1")).isZero();
+
+        verify(repository, never()).release(anyList(), any(), anyLong());
+        assertThat(meterRegistry.get("queue.api_rate_limit_errors_total").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void skipsSubjectsWithoutLimit() {
+        assertThat(rateLimiter.check("entry", "10.0.0.1", "u1")).isZero();
+        assertThat(rateLimiter.check("status", null, " ")).isZero();
+
+        verify(repository).tryAcquire(eq(List.of("entry:ip:10.0.0.1")), eq(List.of(20)), any(), anyLong());
+    }
+
+    private double rejectedCount(String scope) {
+        return meterRegistry.get("queue.api_rate_limited_total").tag("scope", scope).counter().count();
+    }
+}
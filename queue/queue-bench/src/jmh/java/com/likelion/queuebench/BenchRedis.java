@@ -0,0 +1,109 @@
+package com.likelion.queuebench;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 벤치마크용 Valkey 연결.
+ * 기본은 bench.redis.host/port 의 기존 서버를 쓰고, bench.redis.binary 가 지정되면 해당 바이너리를
+ * 임시 포트로 직접 띄운다. Lua 스크립트를 그대로 실행해야 하므로 in-memory 대체 구현은 쓰지 않는다.
+ * 키 이름이 운영과 같으므로 bench.redis.database (기본 15) 를 FLUSHDB 하고 시작한다.
+ */
+final class BenchRedis implements AutoCloseable {
+
+    private final Process process;
+    private final LettuceConnectionFactory connectionFactory;
+    private final StringRedisTemplate template;
+
+    private BenchRedis(Process process, LettuceConnectionFactory connectionFactory) {
+        this.process = process;
+        this.connectionFactory = connectionFactory;
+        this.template = new StringRedisTemplate(connectionFactory);
+        this.template.afterPropertiesSet();
+    }
+
+    static BenchRedis start() {
+        String host = System.getProperty("bench.redis.host", "localhost");
+        int port = Integer.getInteger("bench.redis.port", 6379);
+        int database = Integer.getInteger("bench.redis.database", 15);
+        String binary = System.getProperty("bench.redis.binary");
+
+        Process process = null;
+        if (binary != null && !binary.isBlank()) {
+            host = "127.0.0.1";
+            port = Integer.getInteger("bench.redis.port", 6399);
+            process = launch(binary, port);
+        }
+
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(host, port);
+        configuration.setDatabase(database);
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(configuration);
+        factory.afterPropertiesSet();
+        factory.start();
+
+        BenchRedis redis = new BenchRedis(process, factory);
+        redis.flush();
+        return redis;
+    }
+
+    StringRedisTemplate template() {
+        return template;
+    }
+
+    void flush() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushDb();
+        }
+    }
+
+    @Override
+    public void close() {
+        connectionFactory.destroy();
+        if (process != null) {
+            process.destroy();
+            try {
+                process.waitFor(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Process launch(String binary, int port) {
+        List<String> command = new ArrayList<>();
+        command.add(binary);
+        command.add("--port");
+        command.add(String.valueOf(port));
+        command.add("--save");
+        command.add("");
+        command.add("--appendonly");
+        command.add("no");
+        try {
+            Path log = Files.createTempFile("queue-bench-valkey", ".log");
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start();
+            // 포트가 열릴 때까지 잠시 대기
+            TimeUnit.MILLISECONDS.sleep(300);
+            if (!process.isAlive()) {
+                throw new IllegalStateException("valkey-server exited early, see " + log);
+            }
+            return process;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to launch " + binary, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while launching " + binary, e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.likelion.queuebench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QueueScheduler.isInactive 의 lastSeenAt 판단 비용 비교.
+ * isoString: 메타 해시의 ISO-8601 문자열을 Instant.parse (PER_USER 경로)
+ * epochMillis: last-seen 인덱스 점수를 그대로 파싱
+ * Valkey 없이 실행된다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InactivityParseBenchmark {
+
+    private static final long GRACE_MILLIS = 30_000;
+
+    private String lastSeenIso;
+    private String lastSeenScore;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        now = System.currentTimeMillis();
+        long lastSeen = now - 10_000;
+        lastSeenIso = Instant.ofEpochMilli(lastSeen).toString();
+        lastSeenScore = String.valueOf(lastSeen);
+    }
+
+    @Benchmark
+    public boolean isoString() {
+        return now - Instant.parse(lastSeenIso).toEpochMilli() > GRACE_MILLIS;
+    }
+
+    @Benchmark
+    public boolean epochMillis() {
+        return now - Long.parseLong(lastSeenScore) > GRACE_MILLIS;
+    }
+}
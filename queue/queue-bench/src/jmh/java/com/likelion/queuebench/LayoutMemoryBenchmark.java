@@ -0,0 +1,60 @@
+package com.likelion.queuebench;
+
+import com.likelion.queue.common.CompactLayout;
+import com.likelion.queue.common.QueueShards;
+import com.likelion.queueapi.model.WaitingEntry;
+import com.likelion.queueapi.repository.QueueRepository;
+import org.springframework.data.redis.core.RedisCallback;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * legacy / compact 레이아웃의 대기 유저 1명당 Valkey 메모리 비교.
+ * 같은 QueueRepository.enterWaitingQueue 경로로 users 명을 넣고 used_memory 증가량을 잰다.
+ *
+ * 실행: ./gradlew :queue-bench:layoutMemory -Pbench.users=1000000
+ */
+public final class LayoutMemoryBenchmark {
+
+    private static final Duration META_TTL = Duration.ofMinutes(10);
+
+    private LayoutMemoryBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int users = Integer.getInteger("bench.users", 200_000);
+        try (BenchRedis redis = BenchRedis.start()) {
+            QueueRepository repository = new QueueRepository(redis.template(), new QueueShards(1));
+            long legacy = measure(redis, repository, users, () -> UUID.randomUUID().toString());
+            long compact = measure(redis, repository, users, CompactLayout::newUserId);
+
+            System.out.printf(Locale.ROOT, "users=%d%n", users);
+            System.out.printf(Locale.ROOT, "legacy : %,d bytes (%.1f bytes/user)%n", legacy, (double) legacy / users);
+            System.out.printf(Locale.ROOT, "compact: %,d bytes (%.1f bytes/user)%n", compact, (double) compact / users);
+            System.out.printf(Locale.ROOT, "saving : %.1f%%%n", 100.0 * (legacy - compact) / legacy);
+        }
+    }
+
+    private static long measure(BenchRedis redis, QueueRepository repository, int users, Supplier<String> ids) {
+        redis.flush();
+        long before = usedMemory(redis);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < users; i++) {
+            repository.enterWaitingQueue(
+                    new WaitingEntry(ids.get(), "nickname-" + (i % 10_000), null, null, now + i), META_TTL, null);
+        }
+        long after = usedMemory(redis);
+        redis.flush();
+        return after - before;
+    }
+
+    private static long usedMemory(BenchRedis redis) {
+        Properties info = redis.template().execute(
+                (RedisCallback<Properties>) connection -> connection.serverCommands().info("memory"));
+        return info != null ? Long.parseLong(info.getProperty("used_memory", "0")) : 0;
+    }
+}
@@ -0,0 +1,95 @@
+package com.likelion.queuebench;
+
+import com.likelion.queue.common.QueueShards;
+import com.likelion.queue.common.SignedTickets;
+import com.likelion.queuemanager.model.PromotionResult;
+import com.likelion.queuemanager.repository.QueueManagerRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 발급 Lua 스크립트 단독 처리량.
+ * promoteToJoining: 유저 1명당 PROMOTE_SCRIPT 1회, promoteBatch: batchSize 명을 BATCH_PROMOTE_SCRIPT 1회로 발급
+ * signedTickets=true 면 서명 티켓을 발급한다. (서명은 두 경로 모두 Java 에서 계산)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PromoteScriptBenchmark {
+
+    private static final Duration TICKET_TTL = Duration.ofSeconds(60);
+
+    @Param({"100"})
+    public int batchSize;
+
+    @Param({"false", "true"})
+    public boolean signedTickets;
+
+    private BenchRedis redis;
+    private QueueSeeder seeder;
+    private QueueManagerRepository repository;
+    private List<String> pending;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redis = BenchRedis.start();
+        seeder = new QueueSeeder(redis.template());
+        SignedTickets signing = signedTickets
+                ? new SignedTickets(List.of(new SignedTickets.SigningKey("bench",
+                        "bench-ticket-signing-secret".getBytes(StandardCharsets.UTF_8))))
+                : SignedTickets.disabled();
+        repository = new QueueManagerRepository(redis.template(), new QueueShards(1), signing);
+    }
+
+    @Setup(Level.Invocation)
+    public void seed() {
+        seeder.clearJoining();
+        pending = seeder.seedWaiting(batchSize, 0, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redis.flush();
+        redis.close();
+    }
+
+    @Benchmark
+    public int promoteToJoining() {
+        Instant expireAt = Instant.now().plus(TICKET_TTL);
+        int issued = 0;
+        for (String userId : pending) {
+            if (repository.promoteToJoining(userId, userId, "bench", UUID.randomUUID().toString(), null, expireAt,
+                    TICKET_TTL, QueueManagerRepository.UNFENCED) != null) {
+                issued++;
+            }
+        }
+        return issued;
+    }
+
+    @Benchmark
+    public List<PromotionResult> promoteBatch() {
+        List<String> ticketIds = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            ticketIds.add(UUID.randomUUID().toString());
+        }
+        return repository.promoteBatch(ticketIds, null, Instant.now().plus(TICKET_TTL), TICKET_TTL,
+                System.currentTimeMillis(), Duration.ofSeconds(30), batchSize,
+                QueueManagerRepository.UNFENCED);
+    }
+}
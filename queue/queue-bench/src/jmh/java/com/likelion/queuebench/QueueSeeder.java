@@ -0,0 +1,101 @@
+package com.likelion.queuebench;
+
+import com.likelion.queue.common.QueueRedisKeys;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * queue-api 가 만드는 것과 같은 모양의 대기 유저를 파이프라인으로 채운다.
+ * dropRatio 비율만큼은 메타 없이(고아) 또는 오래된 lastSeenAt(비활성)으로 넣어 탈락 경로를 태운다.
+ */
+final class QueueSeeder {
+
+    private static final int PIPELINE_CHUNK = 1000;
+
+    private final StringRedisTemplate template;
+
+    QueueSeeder(StringRedisTemplate template) {
+        this.template = template;
+    }
+
+    List<String> seedWaiting(int count, double dropRatio, long staleMillis) {
+        List<String> userIds = new ArrayList<>(count);
+        for (int offset = 0; offset < count; offset += PIPELINE_CHUNK) {
+            int size = Math.min(PIPELINE_CHUNK, count - offset);
+            List<String> chunk = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                chunk.add(UUID.randomUUID().toString());
+            }
+            writeChunk(chunk, dropRatio, staleMillis);
+            userIds.addAll(chunk);
+        }
+        return userIds;
+    }
+
+    void setServerStatus(long currentUsers, long softCap) {
+        template.opsForHash().put(QueueRedisKeys.SERVER_STATUS, "current_users", String.valueOf(currentUsers));
+        template.opsForHash().put(QueueRedisKeys.SERVER_STATUS, "soft_cap", String.valueOf(softCap));
+    }
+
+    long waitingSize() {
+        Long size = template.opsForZSet().zCard(QueueRedisKeys.WAITING_QUEUE);
+        return size != null ? size : 0;
+    }
+
+    void clearJoining() {
+        template.delete(QueueRedisKeys.JOINING_TICKETS);
+    }
+
+    /**
+     * queue-manager 가 발급한 것과 같은 모양의 티켓 해시 + JOINING_TICKETS 항목
+     */
+    List<String> seedTickets(int count, long expireAtMillis) {
+        List<String> ticketIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ticketIds.add(UUID.randomUUID().toString());
+        }
+        template.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (String ticketId : ticketIds) {
+                String userId = UUID.randomUUID().toString();
+                String ticketKey = QueueRedisKeys.JOINING_TICKET_PREFIX + ticketId;
+                redis.hSet(ticketKey, "ticketId", ticketId);
+                redis.hSet(ticketKey, "userId", userId);
+                redis.hSet(ticketKey, "nickname", "bench-" + userId.substring(0, 8));
+                redis.zAdd(QueueRedisKeys.JOINING_TICKETS, expireAtMillis, ticketId);
+            }
+            return null;
+        });
+        return ticketIds;
+    }
+
+    private void writeChunk(List<String> userIds, double dropRatio, long staleMillis) {
+        long now = System.currentTimeMillis();
+        template.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (String userId : userIds) {
+                redis.zAdd(QueueRedisKeys.WAITING_QUEUE, now, userId);
+                boolean drop = random.nextDouble() < dropRatio;
+                if (drop && random.nextBoolean()) {
+                    continue;
+                }
+                long lastSeen = drop ? now - staleMillis : now;
+                String metaKey = QueueRedisKeys.WAITING_META_PREFIX + userId;
+                redis.hSet(metaKey, "userId", userId);
+                redis.hSet(metaKey, "nickname", "bench-" + userId.substring(0, 8));
+                redis.hSet(metaKey, "ticketId", "");
+                redis.hSet(metaKey, "lastSeenAt", Instant.ofEpochMilli(lastSeen).toString());
+                redis.zAdd(QueueRedisKeys.WAITING_LAST_SEEN, lastSeen, userId);
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package com.likelion.queuebench;
+
+import com.likelion.queue.common.QueueShards;
+import com.likelion.queueapi.config.QueueApiProperties;
+import com.likelion.queueapi.dto.QueueEntryRequest;
+import com.likelion.queueapi.dto.QueueEntryResponse;
+import com.likelion.queueapi.dto.QueueStatusResponse;
+import com.likelion.queueapi.repository.QueueCommandBatcher;
+import com.likelion.queueapi.repository.QueueRepository;
+import com.likelion.queueapi.service.MetricService;
+import com.likelion.queueapi.service.QueueService;
+import com.likelion.queueapi.service.WaitEstimator;
+import com.likelion.queueapi.service.WaitingMetaCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * queue-api 진입/상태 조회 경로 처리량.
+ * atomic=true 는 Lua 스크립트 한 번, false 는 기존 명령 조합 경로를 탄다.
+ * batching=true 면 스레드 간 스크립트 호출을 파이프라인으로 묶는다. (atomic 경로에만 적용)
+ * metaCache=true 면 상태 조회가 로컬 대기 메타 캐시를 거친다. (명령 조합 경로에서 메타 조회를 건너뜀)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class QueueServiceBenchmark {
+
+    @Param({"true", "false"})
+    public boolean atomic;
+
+    @Param({"true", "false"})
+    public boolean batching;
+
+    @Param({"true", "false"})
+    public boolean metaCache;
+
+    @Param({"10000"})
+    public int waitingUsers;
+
+    private BenchRedis redis;
+    private QueueCommandBatcher commandBatcher;
+    private QueueService queueService;
+    private List<String> userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redis = BenchRedis.start();
+
+        QueueApiProperties properties = new QueueApiProperties();
+        properties.setAtomicEntry(atomic);
+        properties.setAtomicStatus(atomic);
+        properties.getBatching().setEnabled(batching);
+        properties.getMetaCache().setEnabled(metaCache);
+
+        QueueShards shards = new QueueShards(1);
+        QueueRepository repository = new QueueRepository(redis.template(), shards);
+        commandBatcher = new QueueCommandBatcher(repository, properties, new SimpleMeterRegistry());
+        MetricService metrics = new MetricService(new SimpleMeterRegistry());
+        queueService = new QueueService(
+                repository,
+                commandBatcher,
+                properties,
+                metrics,
+                new WaitEstimator(repository, properties),
+                shards,
+                new WaitingMetaCache(properties, metrics),
+                OpenTelemetry.noop());
+
+        userIds = new QueueSeeder(redis.template()).seedWaiting(waitingUsers, 0, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        commandBatcher.shutdown();
+        redis.flush();
+        redis.close();
+    }
+
+    @Benchmark
+    public QueueEntryResponse enqueue() {
+        return queueService.enqueue(new QueueEntryRequest("bench", null));
+    }
+
+    @Benchmark
+    public QueueStatusResponse getStatus() {
+        String userId = userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+        return queueService.getStatus(userId);
+    }
+}
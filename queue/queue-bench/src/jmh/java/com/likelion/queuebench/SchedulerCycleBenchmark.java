@@ -0,0 +1,103 @@
+package com.likelion.queuebench;
+
+import com.likelion.queue.common.QueueShards;
+import com.likelion.queue.common.SignedTickets;
+import com.likelion.queuemanager.QueueScheduler;
+import com.likelion.queuemanager.admission.FixedBatchAdmissionPolicy;
+import com.likelion.queuemanager.config.QueueManagerProperties;
+import com.likelion.queuemanager.repository.QueueManagerRepository;
+import com.likelion.queuemanager.service.AdmissionRateTracker;
+import com.likelion.queuemanager.service.LeaderLease;
+import com.likelion.queuemanager.service.MetricService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QueueScheduler 한 사이클(만료 정리 + scheduleNextBatch) 처리량.
+ * 매 호출 전에 대기열을 queueDepth 까지 다시 채우므로 깊이는 측정 동안 일정하게 유지된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SchedulerCycleBenchmark {
+
+    @Param({"1000", "100000"})
+    public int queueDepth;
+
+    @Param({"0.0", "0.25"})
+    public double dropRatio;
+
+    @Param({"BATCH", "PER_USER"})
+    public QueueManagerProperties.PromotionMode promotionMode;
+
+    @Param({"100"})
+    public int batchLimit;
+
+    private BenchRedis redis;
+    private QueueSeeder seeder;
+    private QueueScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redis = BenchRedis.start();
+        seeder = new QueueSeeder(redis.template());
+
+        QueueManagerProperties properties = new QueueManagerProperties();
+        properties.setPromotionMode(promotionMode);
+        properties.setBatchLimit(batchLimit);
+        properties.setInactivityGrace(Duration.ofSeconds(30));
+        // 단일 인스턴스 측정이므로 리더 임대 없이 항상 리더로 동작
+        properties.getLeader().setEnabled(false);
+        // 사이클마다 batch-limit 만큼 발급되도록 용량은 충분히 크게 둔다
+        seeder.setServerStatus(0, Long.MAX_VALUE / 2);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        QueueManagerRepository repository = new QueueManagerRepository(redis.template(), new QueueShards(1),
+                SignedTickets.disabled());
+        scheduler = new QueueScheduler(
+                repository,
+                properties,
+                new MetricService(meterRegistry, repository),
+                new AdmissionRateTracker(repository, properties, meterRegistry),
+                new FixedBatchAdmissionPolicy(),
+                new LeaderLease(repository, properties, meterRegistry),
+                meterRegistry,
+                OpenTelemetry.noop());
+
+        seeder.seedWaiting(queueDepth, dropRatio, Duration.ofMinutes(5).toMillis());
+    }
+
+    @Setup(Level.Invocation)
+    public void refill() {
+        long missing = queueDepth - seeder.waitingSize();
+        if (missing > 0) {
+            seeder.seedWaiting((int) missing, dropRatio, Duration.ofMinutes(5).toMillis());
+        }
+        seeder.clearJoining();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdown();
+        redis.flush();
+        redis.close();
+    }
+
+    @Benchmark
+    public void processQueue() {
+        scheduler.processQueue();
+    }
+}
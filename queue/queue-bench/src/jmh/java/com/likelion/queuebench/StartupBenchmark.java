@@ -0,0 +1,129 @@
+package com.likelion.queuebench;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * queue-api / queue-manager 기동 시간 비교 (JMH 가 아닌 단일 실행).
+ * 프로세스를 띄운 시점부터 첫 요청이 5xx 아닌 응답을 받을 때까지를 time-to-first-request 로 잰다.
+ * 모드: jar (java -jar), aot (풀어낸 jar + spring.aot.enabled), cds (aot + CDS 아카이브)
+ * queue-api 는 상태 조회(404 = Valkey 왕복까지 성공), queue-manager 는 readiness probe 를 첫 요청으로 쓴다.
+ *
+ * 실행: ./gradlew :queue-bench:startupTime -Pbench.startup.runs=10
+ */
+public final class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.getInteger("bench.startup.runs", 5);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        measureApp(java, "queue-api", Path.of(System.getProperty("bench.startup.api")),
+                "/api/queue/status?userId=startup-probe", runs);
+        measureApp(java, "queue-manager", Path.of(System.getProperty("bench.startup.manager")),
+                "/actuator/health/readiness", runs);
+    }
+
+    private static void measureApp(String java, String app, Path fastStartDir, String probePath, int runs)
+            throws Exception {
+        Path bootJar = fastStartDir.resolveSibling("libs").resolve(app + ".jar");
+        Path extractedJar = fastStartDir.resolve(app + ".jar");
+        Path archive = fastStartDir.resolve(app + ".jsa");
+
+        System.out.printf(Locale.ROOT, "%s (%d runs, %s)%n", app, runs, probePath);
+        report("jar", measure(List.of(java, "-jar", bootJar.toString()), fastStartDir, probePath, runs));
+        report("aot", measure(List.of(java, "-Dspring.aot.enabled=true", "-jar", extractedJar.toString()),
+                fastStartDir, probePath, runs));
+        if (Files.exists(archive)) {
+            report("cds", measure(List.of(java, "-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+                    "-jar", extractedJar.toString()), fastStartDir, probePath, runs));
+        }
+    }
+
+    private static List<Long> measure(List<String> command, Path workingDir, String probePath, int runs)
+            throws Exception {
+        List<Long> samples = new ArrayList<>(runs);
+        for (int i = 0; i < runs; i++) {
+            samples.add(startOnce(command, workingDir, probePath));
+        }
+        Collections.sort(samples);
+        return samples;
+    }
+
+    private static long startOnce(List<String> command, Path workingDir, String probePath) throws Exception {
+        int port = freePort();
+        List<String> args = new ArrayList<>(command);
+        args.add("--server.port=" + port);
+        args.add("--spring.data.redis.host=" + System.getProperty("bench.redis.host", "localhost"));
+        args.add("--spring.data.redis.port=" + Integer.getInteger("bench.redis.port", 6379));
+        args.add("--spring.data.redis.database=" + Integer.getInteger("bench.redis.database", 15));
+        // 벤치마크 Valkey 에서 발급 사이클이 돌지 않도록 임대를 잡지 않는다
+        args.add("--queue.manager.leader.enabled=false");
+
+        ProcessBuilder builder = new ProcessBuilder(args)
+                .directory(workingDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        builder.environment().put("OTEL_LOGS_EXPORTER", "none");
+        builder.environment().put("OTEL_METRICS_EXPORTER", "none");
+        builder.environment().put("OTEL_TRACES_EXPORTER", "none");
+
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + probePath))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+        long startedAt = System.nanoTime();
+        Process process = builder.start();
+        try {
+            while (System.nanoTime() - startedAt < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Process exited with " + process.exitValue() + ": " + args);
+                }
+                try {
+                    HttpResponse<Void> response = HTTP.send(probe, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() < 500) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                    }
+                } catch (IOException ignored) {
+                    // 아직 포트가 열리지 않았다
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No response within " + TIMEOUT + ": " + args);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static void report(String mode, List<Long> samples) {
+        System.out.printf(Locale.ROOT, "  %-4s min %5d ms  median %5d ms  max %5d ms%n",
+                mode, samples.get(0), samples.get(samples.size() / 2), samples.get(samples.size() - 1));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.likelion.queuebench;
+
+import com.likelion.queue.common.QueueRedisKeys;
+import com.likelion.queue.common.TicketRedeemer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 게임 서버 입장 처리량.
+ * stepwise: chat-server 와 같은 순서로 HGETALL -> HINCRBY -> (DEL + ZREM 파이프라인), 티켓당 3 RTT
+ * atomic: TicketRedeemer 의 REDEEM 스크립트 1회, 티켓당 1 RTT
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TicketRedeemBenchmark {
+
+    @Param({"100"})
+    public int batchSize;
+
+    private BenchRedis redis;
+    private QueueSeeder seeder;
+    private TicketRedeemer redeemer;
+    private List<String> tickets;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        redis = BenchRedis.start();
+        seeder = new QueueSeeder(redis.template());
+        redeemer = new TicketRedeemer(redis.template());
+    }
+
+    @Setup(Level.Invocation)
+    public void seed() {
+        seeder.clearJoining();
+        seeder.setServerStatus(0, Long.MAX_VALUE / 2);
+        tickets = seeder.seedTickets(batchSize, System.currentTimeMillis() + 60_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        redis.flush();
+        redis.close();
+    }
+
+    @Benchmark
+    public int stepwise() {
+        StringRedisTemplate template = redis.template();
+        int redeemed = 0;
+        for (String ticketId : tickets) {
+            String ticketKey = QueueRedisKeys.JOINING_TICKET_PREFIX + ticketId;
+            Map<Object, Object> ticket = template.opsForHash().entries(ticketKey);
+            if (ticket.isEmpty()) {
+                continue;
+            }
+            template.opsForHash().increment(QueueRedisKeys.SERVER_STATUS, "current_users", 1);
+            template.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection pipeline = (StringRedisConnection) connection;
+                pipeline.del(ticketKey);
+                pipeline.zRem(QueueRedisKeys.JOINING_TICKETS, ticketId);
+                return null;
+            });
+            redeemed++;
+        }
+        return redeemed;
+    }
+
+    @Benchmark
+    public int atomic() {
+        int redeemed = 0;
+        for (String ticketId : tickets) {
+            if (redeemer.redeem(ticketId, null).isRedeemed()) {
+                redeemed++;
+            }
+        }
+        return redeemed;
+    }
+}
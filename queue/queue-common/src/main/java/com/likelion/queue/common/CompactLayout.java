@@ -0,0 +1,127 @@
+package com.likelion.queue.common;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 대기열 compact 저장 레이아웃.
+ *
+ * legacy: member 는 UUID, 유저마다 queue:waiting:user:{userId} 해시(userId/nickname/ticketId/lastSeenAt) + TTL
+ * compact: member 는 64비트 난수의 base62 문자열(최대 11자), 닉네임만
+ * queue:waiting:meta:{bucket} 해시의 필드로 묶어 listpack 인코딩을 유지한다.
+ * 마지막 활동 시각은 last-seen 인덱스에만, 발급된 티켓은 queue:granted:{userId} 에 티켓 TTL 로 저장한다.
+ *
+ * 두 레이아웃은 userId 형식으로 구분하므로(UUID 는 '-' 포함) 전환 중에도 함께 존재할 수 있다.
+ *
+ * 샘플링된 유저만 진입 시점의 W3C traceparent 를 메타에 함께 남긴다.
+ * legacy 는 traceparent 필드, compact 는 버킷 값 "nickname + 0x1f + traceparent" 로 저장한다.
+ */
+public final class CompactLayout {
+
+    /**
+     * 메타 버킷 수. 기본 hash-max-listpack-entries(128) 기준 약 150만 명까지 버킷당 listpack 을 유지한다.
+     * 값을 바꾸면 기존 compact 유저의 버킷 위치가 달라지므로 대기열이 빈 상태에서만 바꿔야 한다.
+     */
+    public static final int META_BUCKETS = 16384;
+
+    /**
+     * compact 버킷 값에서 닉네임과 traceparent 를 나누는 구분자 (US, 0x1f)
+     */
+    public static final char META_TRACE_SEPARATOR = '\u001f';
+
+    /**
+     * Lua 스크립트 앞에 붙여 쓰는 공용 함수. metaBucket(String) 과 같은 계산을 한다.
+     */
+    public static final String LUA_FUNCTIONS = """
+            local function isCompact(userId)
+              return string.find(userId, '-', 1, true) == nil
+            end
+            local function metaBucketKey(prefix, userId, buckets)
+              local h = 0
+              for i = 1, #userId do
+                h = (h * 31 + string.byte(userId, i)) % buckets
+              end
+              return prefix .. h
+            end
+            local function splitMeta(value)
+              if not value then
+                return value, ''
+              end
+              local separator = string.find(value, '\\31', 1, true)
+              if not separator then
+                return value, ''
+              end
+              return string.sub(value, 1, separator - 1), string.sub(value, separator + 1)
+            end
+            """;
+
+    private static final char[] ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private CompactLayout() {
+    }
+
+    public static String newUserId() {
+        return toBase62(ThreadLocalRandom.current().nextLong());
+    }
+
+    public static boolean isCompact(String userId) {
+        return userId != null && userId.indexOf('-') < 0;
+    }
+
+    public static int metaBucket(String userId) {
+        int h = 0;
+        for (int i = 0; i < userId.length(); i++) {
+            h = (h * 31 + userId.charAt(i)) % META_BUCKETS;
+        }
+        return h;
+    }
+
+    public static String metaBucketKey(String userId) {
+        return QueueRedisKeys.WAITING_META_BUCKET_PREFIX + metaBucket(userId);
+    }
+
+    public static String grantedKey(String userId) {
+        return QueueRedisKeys.GRANTED_TICKET_PREFIX + userId;
+    }
+
+    /**
+     * compact 버킷 값. traceparent 가 없으면 닉네임만 저장한다.
+     */
+    public static String encodeMeta(String nickname, String traceparent) {
+        if (traceparent == null || traceparent.isEmpty()) {
+            return nickname;
+        }
+        return nickname + META_TRACE_SEPARATOR + traceparent;
+    }
+
+    public static String nicknameOf(String metaValue) {
+        int separator = metaValue.indexOf(META_TRACE_SEPARATOR);
+        return separator < 0 ? metaValue : metaValue.substring(0, separator);
+    }
+
+    /**
+     * compact 버킷 값에 남긴 traceparent (없으면 null)
+     */
+    public static String traceparentOf(String metaValue) {
+        int separator = metaValue.indexOf(META_TRACE_SEPARATOR);
+        return separator < 0 ? null : metaValue.substring(separator + 1);
+    }
+
+    /**
+     * 부호 없는 64비트 값으로 취급해 base62 로 인코딩한다.
+     */
+    static String toBase62(long value) {
+        if (value == 0) {
+            return "0";
+        }
+        char[] buffer = new char[11];
+        int position = buffer.length;
+        long remaining = value;
+        while (remaining != 0) {
+            int digit = (int) Long.remainderUnsigned(remaining, ALPHABET.length);
+            buffer[--position] = ALPHABET[digit];
+            remaining = Long.divideUnsigned(remaining, ALPHABET.length);
+        }
+        return new String(buffer, position, buffer.length - position);
+    }
+}
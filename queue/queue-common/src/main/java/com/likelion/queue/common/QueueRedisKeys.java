@@ -4,11 +4,25 @@ public final class QueueRedisKeys {
 
     public static final String WAITING_QUEUE = "queue:waiting";
     public static final String WAITING_META_PREFIX = "queue:waiting:user:";
+    public static final String WAITING_LAST_SEEN = "queue:waiting:last-seen";
+    public static final String WAITING_META_BUCKET_PREFIX = "queue:waiting:meta:";
     public static final String USER_STATUS_PREFIX = "queue:user-status:";
     public static final String GRANTED_TICKET_PREFIX = "queue:granted:";
     public static final String JOINING_TICKETS = "queue:joining:tickets";
     public static final String JOINING_TICKET_PREFIX = "queue:joining:";
     public static final String SERVER_STATUS = "server:status";
+    public static final String GAME_SERVER_INSTANCES = "server:instances";
+    public static final String GAME_SERVER_INSTANCE_PREFIX = "server:instance:";
+    public static final String GAME_SERVER_JOINING_SUFFIX = ":joining";
+    public static final String PROMOTION_CHANNEL = "queue:promotions";
+    public static final String ADMISSION_RATE = "queue:admission-rate";
+    public static final String CAPACITY_CHANNEL = "queue:capacity";
+    public static final String MANAGER_LEADER = "queue:manager:leader";
+    public static final String MANAGER_FENCE = "queue:manager:fence";
+    public static final String RATE_LIMIT_PREFIX = "queue:ratelimit:";
+    public static final String ENTRY_KEY_PREFIX = "queue:entry-key:";
+    public static final String REDEEMED_TICKET_PREFIX = "queue:redeemed:";
+    public static final String ADMITTED_TICKET_PREFIX = "queue:admitted:";
 
     private QueueRedisKeys() {
     }
@@ -0,0 +1,191 @@
+package com.likelion.queue.common;
+
+/**
+ * 대기열 샤드 키 계산.
+ *
+ * 샤드가 1개면 기존 키 이름을 그대로 쓴다. 2개 이상이면 대기열/last-seen 인덱스/메타 버킷/발급 기록을
+ * queue:{sN}:... 해시 태그 키로 나눠 샤드 하나의 키가 모두 같은 클러스터 슬롯에 놓이게 한다.
+ * 샤드 대기열은 compact 레이아웃만 지원하며 userId 는 "{shard}.{base62}" 형식으로 샤드를 담는다.
+ * 티켓도 같은 방식으로 nonce 가 "{shard}.{uuid}" 형식이고, 티켓 해시/JOINING_TICKETS/인스턴스 joining 인덱스를
+ * 그 샤드 슬롯(queue:{sN}:joining:*, queue:{sN}:instance:{id}:joining)에 둔다. 그래서 발급 스크립트 한 번이
+ * 대기열 정리와 티켓 기록을 함께 처리할 수 있다. 티켓을 읽는 쪽은 ticketKey(ticketId) 처럼 ticketId 로 키를 찾는다.
+ */
+public final class QueueShards {
+
+    private static final char SHARD_SEPARATOR = '.';
+
+    private final int count;
+
+    public QueueShards(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.count = count;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean enabled() {
+        return count > 1;
+    }
+
+    /**
+     * 도착 순서(sequence)로 샤드를 돌아가며 배정한 새 userId
+     */
+    public String newUserId(long sequence) {
+        String id = CompactLayout.newUserId();
+        if (!enabled()) {
+            return id;
+        }
+        return Math.floorMod(sequence, count) + String.valueOf(SHARD_SEPARATOR) + id;
+    }
+
+    public int shardOf(String userId) {
+        if (!enabled() || userId == null) {
+            return 0;
+        }
+        int separator = userId.indexOf(SHARD_SEPARATOR);
+        if (separator <= 0) {
+            return 0;
+        }
+        try {
+            int shard = Integer.parseInt(userId, 0, separator, 10);
+            return shard >= 0 && shard < count ? shard : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public String waitingKey(int shard) {
+        return enabled() ? prefix(shard) + "waiting" : QueueRedisKeys.WAITING_QUEUE;
+    }
+
+    public String lastSeenKey(int shard) {
+        return enabled() ? prefix(shard) + "waiting:last-seen" : QueueRedisKeys.WAITING_LAST_SEEN;
+    }
+
+    public String metaBucketPrefix(int shard) {
+        return enabled() ? prefix(shard) + "waiting:meta:" : QueueRedisKeys.WAITING_META_BUCKET_PREFIX;
+    }
+
+    public String grantedPrefix(int shard) {
+        return enabled() ? prefix(shard) + "granted:" : QueueRedisKeys.GRANTED_TICKET_PREFIX;
+    }
+
+    /**
+     * 샤드 스크립트가 확인하는 fencing 토큰 키. 리더가 바뀌면 새 리더가 모든 샤드의 값을 올린다.
+     */
+    public String fenceKey(int shard) {
+        return enabled() ? prefix(shard) + "fence" : QueueRedisKeys.MANAGER_FENCE;
+    }
+
+    public String waitingKey(String userId) {
+        return waitingKey(shardOf(userId));
+    }
+
+    public String lastSeenKey(String userId) {
+        return lastSeenKey(shardOf(userId));
+    }
+
+    public String metaBucketKey(String userId) {
+        return metaBucketPrefix(shardOf(userId)) + CompactLayout.metaBucket(userId);
+    }
+
+    public String grantedKey(String userId) {
+        return grantedPrefix(shardOf(userId)) + userId;
+    }
+
+    /**
+     * 발급 대기 티켓 인덱스 (score: 만료 시각)
+     */
+    public String joiningTicketsKey(int shard) {
+        return enabled() ? prefix(shard) + "joining:tickets" : QueueRedisKeys.JOINING_TICKETS;
+    }
+
+    /**
+     * 게임 서버 인스턴스로 배정된 발급 대기 티켓 인덱스. 인스턴스 여유 계산은 모든 샤드의 값을 더한다.
+     */
+    public String instanceJoiningKey(int shard, String instanceId) {
+        return enabled()
+                ? prefix(shard) + "instance:" + instanceId + QueueRedisKeys.GAME_SERVER_JOINING_SUFFIX
+                : QueueRedisKeys.GAME_SERVER_INSTANCE_PREFIX + instanceId + QueueRedisKeys.GAME_SERVER_JOINING_SUFFIX;
+    }
+
+    /**
+     * shard 대기열에서 발급하는 티켓 nonce. 샤드 대기열이면 샤드 번호를 앞에 붙인다.
+     */
+    public String ticketNonce(int shard, String nonce) {
+        return enabled() ? shard + String.valueOf(SHARD_SEPARATOR) + nonce : nonce;
+    }
+
+    /**
+     * 티켓이 속한 샤드. 단일 대기열에서 발급한 티켓이면 -1 (서명 티켓은 payload 의 nonce 로 판단한다)
+     */
+    public static int ticketShard(String ticketId) {
+        String nonce = SignedTickets.isSigned(ticketId) ? SignedTickets.nonceOf(ticketId) : ticketId;
+        if (nonce == null) {
+            return -1;
+        }
+        int separator = nonce.indexOf(SHARD_SEPARATOR);
+        if (separator <= 0) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(nonce, 0, separator, 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public static String ticketKey(String ticketId) {
+        int shard = ticketShard(ticketId);
+        return (shard < 0 ? QueueRedisKeys.JOINING_TICKET_PREFIX : prefix(shard) + "joining:") + ticketId;
+    }
+
+    public static String joiningTicketsKeyOf(String ticketId) {
+        int shard = ticketShard(ticketId);
+        return shard < 0 ? QueueRedisKeys.JOINING_TICKETS : prefix(shard) + "joining:tickets";
+    }
+
+    public static String instanceJoiningKeyOf(String ticketId, String instanceId) {
+        int shard = ticketShard(ticketId);
+        return (shard < 0 ? QueueRedisKeys.GAME_SERVER_INSTANCE_PREFIX : prefix(shard) + "instance:")
+                + instanceId + QueueRedisKeys.GAME_SERVER_JOINING_SUFFIX;
+    }
+
+    /**
+     * TicketRedeemer 입장 마커. 티켓(서명 티켓이면 nonce)으로 정하고 샤드 티켓이면 그 샤드 슬롯에 둔다.
+     */
+    public static String admittedKeyOf(String ticketId) {
+        String member = SignedTickets.joiningMember(ticketId);
+        if (member == null) {
+            member = ticketId;
+        }
+        int shard = ticketShard(ticketId);
+        return (shard < 0 ? QueueRedisKeys.ADMITTED_TICKET_PREFIX : prefix(shard) + "admitted:") + member;
+    }
+
+    /**
+     * 만료 이벤트로 받은 키가 티켓 해시인지 (단일/샤드 모두)
+     */
+    public static boolean isTicketKey(String key) {
+        if (key.startsWith(QueueRedisKeys.JOINING_TICKET_PREFIX)) {
+            return true;
+        }
+        int tagEnd = key.indexOf("}:joining:");
+        return key.startsWith("queue:{s") && tagEnd > 0 && !key.endsWith(":joining:tickets");
+    }
+
+    /**
+     * 진입 멱등 키 -> userId 매핑. 같은 키의 userId 는 항상 같은 샤드에 배정되므로 그 샤드 슬롯에 둔다.
+     */
+    public String entryKey(String userId, String idempotencyKey) {
+        return (enabled() ? prefix(shardOf(userId)) + "entry-key:" : QueueRedisKeys.ENTRY_KEY_PREFIX) + idempotencyKey;
+    }
+
+    private static String prefix(int shard) {
+        return "queue:{s" + shard + "}:";
+    }
+}
@@ -0,0 +1,210 @@
+package com.likelion.queue.common;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 게임 서버가 Valkey 조회 없이 검증할 수 있는 서명 티켓.
+ *
+ * 형식: t1.{kid}.{base64url(payload)}.{base64url(HMAC-SHA256(secret, "t1.{kid}.{payload 인코딩}"))}
+ * payload: ticketNonce \n userId \n expireAtMillis \n target \n nickname (닉네임은 마지막이라 줄바꿈이 섞여도 된다)
+ *
+ * 서명은 queue-manager(Java)에서만 계산하고 키는 Valkey 로 보내지 않는다.
+ * Valkey 에는 nonce 만 남는다. (JOINING_TICKETS/인스턴스 joining 인덱스 멤버, 재사용 방지 마커)
+ * 토큰 자체는 발급 기록(메타/granted)과 발급 알림으로 클라이언트에게 전달될 뿐 키나 인덱스 멤버로 쓰지 않는다.
+ *
+ * 키는 kid 로 구분한다. active 키로 서명하고 등록된 모든 키로 검증하므로, 키 교체는 검증 쪽에 새 키를 먼저 추가하고
+ * active 키를 바꾼 뒤 티켓 TTL 이 지나면 이전 키를 뺀다.
+ * 재사용 방지는 티켓 해시 대신 queue:redeemed:{nonce} 단일 사용 마커(SET NX PX, 티켓 만료까지)로 한다.
+ */
+public final class SignedTickets {
+
+    public static final String VERSION = "t1";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SigningKey activeKey;
+    private final Map<String, SigningKey> keys = new LinkedHashMap<>();
+
+    /**
+     * keys 가 비어 있으면 서명하지 않는다. (sign 은 nonce 를 그대로 돌려준다) 첫 번째 키로 서명한다.
+     */
+    public SignedTickets(List<SigningKey> keys) {
+        this(keys, keys.isEmpty() ? null : keys.get(0).id());
+    }
+
+    /**
+     * activeKeyId 키로 서명하고 keys 모두로 검증한다.
+     */
+    public SignedTickets(List<SigningKey> keys, String activeKeyId) {
+        for (SigningKey key : keys) {
+            if (this.keys.putIfAbsent(key.id(), key) != null) {
+                throw new IllegalArgumentException("Duplicate ticket signing key id: " + key.id());
+            }
+        }
+        if (keys.isEmpty()) {
+            this.activeKey = null;
+            return;
+        }
+        this.activeKey = this.keys.get(activeKeyId);
+        if (activeKey == null) {
+            throw new IllegalArgumentException("Unknown active ticket signing key id: " + activeKeyId);
+        }
+    }
+
+    public static SignedTickets disabled() {
+        return new SignedTickets(List.of());
+    }
+
+    public boolean isEnabled() {
+        return activeKey != null;
+    }
+
+    public static boolean isSigned(String ticketId) {
+        return ticketId != null && ticketId.startsWith(VERSION + ".");
+    }
+
+    /**
+     * 서명을 확인하지 않고 payload 의 nonce 만 꺼낸다. 키 위치를 찾을 때만 쓴다. (형식이 틀리면 null)
+     */
+    public static String nonceOf(String token) {
+        if (!isSigned(token)) {
+            return null;
+        }
+        int start = token.indexOf('.', VERSION.length() + 1);
+        int end = start < 0 ? -1 : token.indexOf('.', start + 1);
+        if (end < 0) {
+            return null;
+        }
+        try {
+            String payload = new String(DECODER.decode(token.substring(start + 1, end)), StandardCharsets.UTF_8);
+            int newline = payload.indexOf('\n');
+            return newline < 0 ? null : payload.substring(0, newline);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * JOINING_TICKETS/인스턴스 joining 인덱스에 넣는 멤버. 서명 티켓이면 nonce, 아니면 ticketId 그대로 (형식이 틀리면 null)
+     */
+    public static String joiningMember(String ticketId) {
+        return isSigned(ticketId) ? nonceOf(ticketId) : ticketId;
+    }
+
+    public String sign(String ticketNonce, String userId, String nickname, String target, long expireAtMillis) {
+        if (activeKey == null) {
+            return ticketNonce;
+        }
+        String payload = ticketNonce + '\n' + userId + '\n' + expireAtMillis + '\n'
+                + (target != null ? target : "") + '\n' + nickname;
+        String body = VERSION + '.' + activeKey.id() + '.' + ENCODER.encodeToString(bytes(payload));
+        return body + '.' + ENCODER.encodeToString(activeKey.mac(body));
+    }
+
+    /**
+     * 서명과 만료를 확인한다. 형식이 틀리거나, 모르는 kid 거나, 서명이 맞지 않거나, 만료됐으면 empty
+     */
+    public Optional<Claims> verify(String token, long nowMillis) {
+        if (!isSigned(token)) {
+            return Optional.empty();
+        }
+        String[] parts = token.split("\\.", -1);
+        if (parts.length != 4) {
+            return Optional.empty();
+        }
+        SigningKey key = keys.get(parts[1]);
+        if (key == null) {
+            return Optional.empty();
+        }
+        String[] fields;
+        try {
+            byte[] signature = DECODER.decode(parts[3]);
+            byte[] expected = key.mac(parts[0] + '.' + parts[1] + '.' + parts[2]);
+            if (!MessageDigest.isEqual(expected, signature)) {
+                return Optional.empty();
+            }
+            fields = new String(DECODER.decode(parts[2]), StandardCharsets.UTF_8).split("\n", 5);
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+        if (fields.length != 5) {
+            return Optional.empty();
+        }
+        long expireAtMillis;
+        try {
+            expireAtMillis = Long.parseLong(fields[2]);
+        } catch (NumberFormatException ex) {
+            return Optional.empty();
+        }
+        if (nowMillis >= expireAtMillis) {
+            return Optional.empty();
+        }
+        return Optional.of(new Claims(fields[0], fields[1], fields[4],
+                fields[3].isEmpty() ? null : fields[3], expireAtMillis));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 검증된 티켓 내용. target 은 게임 서버를 배정하지 않았으면 null
+     */
+    public record Claims(String ticketNonce, String userId, String nickname, String target, long expireAtMillis) {
+
+        public TicketInfo toTicketInfo() {
+            return new TicketInfo(userId, nickname);
+        }
+
+        /**
+         * 단일 사용 마커 키. 만료까지 SET NX PX 로 잡아 두 번째 사용을 거절한다.
+         */
+        public String redeemedKey() {
+            return QueueRedisKeys.REDEEMED_TICKET_PREFIX + ticketNonce;
+        }
+    }
+
+    /**
+     * 서명 키. secret 은 16 바이트 이상 (32 바이트 이상 권장)
+     */
+    public record SigningKey(String id, byte[] secret) {
+
+        public SigningKey {
+            if (id == null || id.isEmpty() || id.indexOf('.') >= 0) {
+                throw new IllegalArgumentException("Ticket signing key id must be non-empty and must not contain '.'");
+            }
+            if (secret == null || secret.length < 16) {
+                throw new IllegalArgumentException("Ticket signing secret must be at least 16 bytes");
+            }
+            secret = secret.clone();
+        }
+
+        public static SigningKey fromBase64(String id, String secret) {
+            if (secret == null || secret.isBlank()) {
+                throw new IllegalArgumentException("Ticket signing secret is required");
+            }
+            return new SigningKey(id, Base64.getDecoder().decode(secret.trim()));
+        }
+
+        byte[] mac(String body) {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(new SecretKeySpec(secret, ALGORITHM));
+                return mac.doFinal(bytes(body));
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", ex);
+            }
+        }
+    }
+}
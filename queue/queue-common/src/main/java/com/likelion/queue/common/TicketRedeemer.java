@@ -0,0 +1,316 @@
+package com.likelion.queue.common;
+
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 게임 서버 입장(티켓 사용)과 퇴장을 Lua 한 번으로 처리한다.
+ *
+ * 입장: 티켓 해시 조회 -> 만료/배정 인스턴스/인스턴스 max_cap 확인 -> 티켓 해시 삭제, JOINING_TICKETS 와
+ * 인스턴스 joining 인덱스에서 제거 -> server:status(와 인스턴스) current_users 증가 -> 입장 마커 기록.
+ * 두 handshake 가 같은 티켓으로 동시에 들어와도 한쪽만 REDEEMED 를 받고, 용량 카운터는 실제 입장 수와 어긋나지 않는다.
+ * 퇴장: 입장 마커(QueueShards.admittedKeyOf(ticketId))를 지운 경우에만 current_users 를 1 줄인다.
+ * 같은 티켓의 퇴장이 두 번 들어와도(재접속 정리, 중복 disconnect 등) 한 번만 줄어든다.
+ * 입장 마커는 admitted-ttl 뒤 만료되므로 게임 서버는 하트비트마다 refresh 로 접속 중인 티켓의 마커를 연장한다.
+ * 인스턴스가 죽어 release 를 못 불러도 마커가 영구히 남지 않는다.
+ *
+ * 스크립트가 건드리는 키는 모두 KEYS 로 넘기고, 티켓 하나로 키를 모두 정할 수 있어 Valkey 왕복은 한 번이다.
+ * 유저별 발급 기록(legacy 메타, queue:granted:*)은 지우지 않고 TTL 로 만료시킨다. (샤드 발급 기록과 같은 동작)
+ * server:status 는 샤드 슬롯 밖에 있으므로 클러스터 모드가 아닌 단일 Valkey(+ replica) 배포를 전제로 한다.
+ *
+ * instanceId 를 넘기지 않으면 인스턴스 배정/용량 확인 없이 server:status 만 센다.
+ * 인스턴스 해시는 하트비트 TTL 을 가지므로 없으면 새로 만들지 않는다.
+ * 샤드 대기열 티켓이면 티켓 해시/JOINING_TICKETS/인스턴스 joining 인덱스/입장 마커를 ticketId 의 샤드 키에서 찾는다.
+ *
+ * 서명 티켓은 티켓 해시가 없으므로 SignedTickets 로 서명/만료를 확인하고, 재사용 방지 마커(queue:redeemed:{nonce})를
+ * 잡은 뒤 joining 인덱스에서 nonce 를 지운다. 검증 키가 없는 TicketRedeemer 는 서명 티켓을 MISSING 으로 거절한다.
+ *
+ * 쓰는 쪽이 spring-data-redis 를 가지고 있어야 한다. (queue-common 은 compileOnly)
+ */
+public final class TicketRedeemer {
+
+    public static final Duration DEFAULT_ADMITTED_TTL = Duration.ofMinutes(5);
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> REDEEM_SCRIPT;
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> REDEEM_SIGNED_SCRIPT;
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT;
+
+    static {
+        // KEYS: 티켓 해시, JOINING_TICKETS, server:status, 입장 마커, [인스턴스 해시, 인스턴스 joining 인덱스]
+        // ARGV: ticketId, now(epoch millis), instanceId, 입장 마커 TTL(millis)
+        // 반환값: {outcome} 또는 {'redeemed', userId, nickname}
+        REDEEM_SCRIPT = new DefaultRedisScript<>();
+        REDEEM_SCRIPT.setResultType(List.class);
+        REDEEM_SCRIPT.setScriptText(
+            """
+                local ticketKey = KEYS[1]
+                local joiningKey = KEYS[2]
+                local statusKey = KEYS[3]
+                local instanceKey = KEYS[5]
+                local instanceJoiningKey = KEYS[6]
+                local ticketId = ARGV[1]
+                local now = tonumber(ARGV[2])
+                local instanceId = ARGV[3]
+                local ticket = redis.call('HMGET', ticketKey, 'userId', 'nickname', 'target')
+                local userId = ticket[1]
+                local nickname = ticket[2]
+                if not userId or userId == '' or not nickname or nickname == '' then
+                  return {'missing'}
+                end
+                local expireAt = redis.call('ZSCORE', joiningKey, ticketId)
+                if expireAt and tonumber(expireAt) <= now then
+                  return {'expired'}
+                end
+                if instanceKey then
+                  local target = ticket[3]
+                  if target and target ~= '' and target ~= instanceId then
+                    return {'wrong_instance'}
+                  end
+                  if redis.call('EXISTS', instanceKey) == 1 then
+                    local capacity = redis.call('HMGET', instanceKey, 'current_users', 'max_cap')
+                    local maxCap = tonumber(capacity[2] or '0') or 0
+                    if maxCap > 0 and (tonumber(capacity[1] or '0') or 0) >= maxCap then
+                      return {'full'}
+                    end
+                    redis.call('HINCRBY', instanceKey, 'current_users', 1)
+                  end
+                  redis.call('ZREM', instanceJoiningKey, ticketId)
+                end
+                redis.call('DEL', ticketKey)
+                redis.call('ZREM', joiningKey, ticketId)
+                redis.call('HINCRBY', statusKey, 'current_users', 1)
+                redis.call('SET', KEYS[4], instanceId, 'PX', ARGV[4])
+                return {'redeemed', userId, nickname}"""
+        );
+
+        // 검증된 서명 티켓의 입장. REDEEM_SCRIPT 와 같은 순서로 확인하되 티켓 해시 대신 재사용 방지 마커를 잡는다.
+        // KEYS: 재사용 방지 마커, JOINING_TICKETS, server:status, 입장 마커, [인스턴스 해시, 인스턴스 joining 인덱스]
+        // ARGV: nonce, 재사용 방지 마커 TTL(millis), instanceId, target, userId, 입장 마커 TTL(millis)
+        // 반환값: {outcome} (이미 사용된 티켓은 missing)
+        REDEEM_SIGNED_SCRIPT = new DefaultRedisScript<>();
+        REDEEM_SIGNED_SCRIPT.setResultType(List.class);
+        REDEEM_SIGNED_SCRIPT.setScriptText(
+            """
+                local redeemedKey = KEYS[1]
+                local joiningKey = KEYS[2]
+                local statusKey = KEYS[3]
+                local instanceKey = KEYS[5]
+                local instanceJoiningKey = KEYS[6]
+                local nonce = ARGV[1]
+                local instanceId = ARGV[3]
+                local target = ARGV[4]
+                if redis.call('EXISTS', redeemedKey) == 1 then
+                  return {'missing'}
+                end
+                if instanceKey then
+                  if target ~= '' and target ~= instanceId then
+                    return {'wrong_instance'}
+                  end
+                  if redis.call('EXISTS', instanceKey) == 1 then
+                    local capacity = redis.call('HMGET', instanceKey, 'current_users', 'max_cap')
+                    local maxCap = tonumber(capacity[2] or '0') or 0
+                    if maxCap > 0 and (tonumber(capacity[1] or '0') or 0) >= maxCap then
+                      return {'full'}
+                    end
+                    redis.call('HINCRBY', instanceKey, 'current_users', 1)
+                  end
+                  redis.call('ZREM', instanceJoiningKey, nonce)
+                end
+                redis.call('SET', redeemedKey, ARGV[5], 'PX', ARGV[2])
+                redis.call('ZREM', joiningKey, nonce)
+                redis.call('HINCRBY', statusKey, 'current_users', 1)
+                redis.call('SET', KEYS[4], instanceId, 'PX', ARGV[6])
+                return {'redeemed'}"""
+        );
+
+        // 입장 마커를 지운 호출만 current_users 를 줄인다.
+        // KEYS: 입장 마커, server:status, [인스턴스 해시]
+        RELEASE_SCRIPT = new DefaultRedisScript<>();
+        RELEASE_SCRIPT.setResultType(Long.class);
+        RELEASE_SCRIPT.setScriptText(
+            """
+                if redis.call('DEL', KEYS[1]) == 0 then
+                  return 0
+                end
+                local function decrement(key)
+                  if (tonumber(redis.call('HGET', key, 'current_users') or '0') or 0) > 0 then
+                    redis.call('HINCRBY', key, 'current_users', -1)
+                    return 1
+                  end
+                  return 0
+                end
+                local released = decrement(KEYS[2])
+                if KEYS[3] and redis.call('EXISTS', KEYS[3]) == 1 then
+                  decrement(KEYS[3])
+                end
+                return released"""
+        );
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SignedTickets signedTickets;
+    private final long admittedTtlMillis;
+
+    public TicketRedeemer(StringRedisTemplate stringRedisTemplate) {
+        this(stringRedisTemplate, SignedTickets.disabled());
+    }
+
+    /**
+     * signedTickets: 서명 티켓 검증 키 (queue-manager 와 같은 키)
+     */
+    public TicketRedeemer(StringRedisTemplate stringRedisTemplate, SignedTickets signedTickets) {
+        this(stringRedisTemplate, signedTickets, DEFAULT_ADMITTED_TTL);
+    }
+
+    /**
+     * admittedTtl: 입장 마커 유지 시간. 게임 서버 하트비트 주기보다 충분히 길어야 한다.
+     */
+    public TicketRedeemer(StringRedisTemplate stringRedisTemplate, SignedTickets signedTickets, Duration admittedTtl) {
+        if (admittedTtl == null || admittedTtl.isNegative() || admittedTtl.isZero()) {
+            throw new IllegalArgumentException("admittedTtl must be positive");
+        }
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.signedTickets = signedTickets;
+        this.admittedTtlMillis = admittedTtl.toMillis();
+    }
+
+    /**
+     * 티켓을 사용하고 입장 인원을 1 늘린다. instanceId 는 입장시키는 게임 서버 인스턴스 (없으면 null)
+     */
+    public Redemption redeem(String ticketId, String instanceId) {
+        if (ticketId == null || ticketId.isBlank()) {
+            return Redemption.of(Outcome.MISSING);
+        }
+        if (SignedTickets.isSigned(ticketId)) {
+            return redeemSigned(ticketId, instanceId);
+        }
+        List<?> raw = stringRedisTemplate.execute(REDEEM_SCRIPT,
+            redeemKeys(QueueShards.ticketKey(ticketId), ticketId, instanceId),
+            ticketId,
+            String.valueOf(System.currentTimeMillis()),
+            instanceId != null ? instanceId : "",
+            String.valueOf(admittedTtlMillis));
+        if (raw == null || raw.isEmpty()) {
+            return Redemption.of(Outcome.MISSING);
+        }
+        Outcome outcome = Outcome.fromCode(String.valueOf(raw.get(0)));
+        if (outcome != Outcome.REDEEMED || raw.size() < 3) {
+            return Redemption.of(outcome == Outcome.REDEEMED ? Outcome.MISSING : outcome);
+        }
+        return new Redemption(outcome, new TicketInfo(String.valueOf(raw.get(1)), String.valueOf(raw.get(2))));
+    }
+
+    private Redemption redeemSigned(String token, String instanceId) {
+        long now = System.currentTimeMillis();
+        SignedTickets.Claims claims = signedTickets.verify(token, now).orElse(null);
+        if (claims == null) {
+            return Redemption.of(Outcome.MISSING);
+        }
+        List<?> raw = stringRedisTemplate.execute(REDEEM_SIGNED_SCRIPT,
+            redeemKeys(claims.redeemedKey(), token, instanceId),
+            claims.ticketNonce(),
+            String.valueOf(Math.max(1, claims.expireAtMillis() - now)),
+            instanceId != null ? instanceId : "",
+            claims.target() != null ? claims.target() : "",
+            claims.userId(),
+            String.valueOf(admittedTtlMillis));
+        Outcome outcome = raw == null || raw.isEmpty() ? Outcome.MISSING : Outcome.fromCode(String.valueOf(raw.get(0)));
+        return outcome == Outcome.REDEEMED ? new Redemption(outcome, claims.toTicketInfo()) : Redemption.of(outcome);
+    }
+
+    // 두 입장 스크립트가 같은 순서로 쓰는 KEYS. ticketKey 는 티켓 해시 또는 서명 티켓의 재사용 방지 마커
+    private static List<String> redeemKeys(String ticketKey, String ticketId, String instanceId) {
+        List<String> keys = new ArrayList<>(6);
+        keys.add(ticketKey);
+        keys.add(QueueShards.joiningTicketsKeyOf(ticketId));
+        keys.add(QueueRedisKeys.SERVER_STATUS);
+        keys.add(QueueShards.admittedKeyOf(ticketId));
+        if (instanceId != null) {
+            keys.add(QueueRedisKeys.GAME_SERVER_INSTANCE_PREFIX + instanceId);
+            keys.add(QueueShards.instanceJoiningKeyOf(ticketId, instanceId));
+        }
+        return keys;
+    }
+
+    /**
+     * 접속 중인 티켓들의 입장 마커를 admitted-ttl 만큼 연장한다. 게임 서버 하트비트마다 호출한다. (파이프라인 한 번)
+     */
+    public void refresh(Collection<String> ticketIds) {
+        if (ticketIds.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection pipeline = (StringRedisConnection) connection;
+            for (String ticketId : ticketIds) {
+                pipeline.pExpire(QueueShards.admittedKeyOf(ticketId), admittedTtlMillis);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 입장했던 유저가 나가면 입장 인원을 1 줄인다. ticketId 는 redeem 에 넘겼던 티켓. 줄였으면 true
+     * (입장 마커가 없으면, 즉 이미 퇴장 처리됐거나 입장하지 않았거나 마커가 만료된 티켓이면 false)
+     */
+    public boolean release(String ticketId, String instanceId) {
+        if (ticketId == null || ticketId.isBlank()) {
+            return false;
+        }
+        String admittedKey = QueueShards.admittedKeyOf(ticketId);
+        List<String> keys = instanceId != null
+            ? List.of(admittedKey, QueueRedisKeys.SERVER_STATUS, QueueRedisKeys.GAME_SERVER_INSTANCE_PREFIX + instanceId)
+            : List.of(admittedKey, QueueRedisKeys.SERVER_STATUS);
+        Long released = stringRedisTemplate.execute(RELEASE_SCRIPT, keys);
+        return released != null && released > 0;
+    }
+
+    public enum Outcome {
+        REDEEMED("redeemed"),
+        MISSING("missing"),
+        EXPIRED("expired"),
+        WRONG_INSTANCE("wrong_instance"),
+        FULL("full");
+
+        private final String code;
+
+        Outcome(String code) {
+            this.code = code;
+        }
+
+        public String code() {
+            return code;
+        }
+
+        static Outcome fromCode(String code) {
+            for (Outcome outcome : values()) {
+                if (outcome.code.equals(code)) {
+                    return outcome;
+                }
+            }
+            return MISSING;
+        }
+    }
+
+    /**
+     * 입장 결과. REDEEMED 일 때만 ticket 이 있다.
+     */
+    public record Redemption(Outcome outcome, TicketInfo ticket) {
+
+        static Redemption of(Outcome outcome) {
+            return new Redemption(outcome, null);
+        }
+
+        public boolean isRedeemed() {
+            return outcome == Outcome.REDEEMED;
+        }
+    }
+}
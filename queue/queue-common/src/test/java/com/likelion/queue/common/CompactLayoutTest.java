@@ -0,0 +1,59 @@
+package com.likelion.queue.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactLayoutTest {
+
+    @Test
+    void base62EncodesUnsignedValues() {
+        assertThat(CompactLayout.toBase62(0)).isEqualTo("0");
+        assertThat(CompactLayout.toBase62(61)).isEqualTo("z");
+        assertThat(CompactLayout.toBase62(62)).isEqualTo("10");
+        assertThat(CompactLayout.toBase62(-1)).isEqualTo("LygHa16AHYF");
+        assertThat(CompactLayout.toBase62(Long.MIN_VALUE)).hasSize(11);
+    }
+
+    @Test
+    void newUserIdIsCompact() {
+        String userId = CompactLayout.newUserId();
+
+        assertThat(userId).hasSizeBetween(1, 11).matches("[0-9A-Za-z]+");
+        assertThat(CompactLayout.isCompact(userId)).isTrue();
+        assertThat(CompactLayout.isCompact(UUID.randomUUID().toString())).isFalse();
+        assertThat(CompactLayout.isCompact(null)).isFalse();
+    }
+
+    @Test
+    void metaBucketIsStableAndInRange() {
+        int bucket = CompactLayout.metaBucket("abcXYZ123");
+
+        assertThat(bucket).isBetween(0, CompactLayout.META_BUCKETS - 1);
+        assertThat(CompactLayout.metaBucket("abcXYZ123")).isEqualTo(bucket);
+        assertThat(CompactLayout.metaBucket("a")).isEqualTo('a');
+        assertThat(CompactLayout.metaBucket("ab")).isEqualTo(('a' * 31 + 'b') % CompactLayout.META_BUCKETS);
+        assertThat(CompactLayout.metaBucketKey("ab"))
+                .isEqualTo(QueueRedisKeys.WAITING_META_BUCKET_PREFIX + CompactLayout.metaBucket("ab"));
+        assertThat(CompactLayout.grantedKey("ab")).isEqualTo(QueueRedisKeys.GRANTED_TICKET_PREFIX + "ab");
+    }
+
+    @Test
+    void metaRoundTripWithTraceparent() {
+        String traceparent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+        String value = CompactLayout.encodeMeta("nick", traceparent);
+
+        assertThat(CompactLayout.nicknameOf(value)).isEqualTo("nick");
+        assertThat(CompactLayout.traceparentOf(value)).isEqualTo(traceparent);
+    }
+
+    @Test
+    void metaWithoutTraceparentIsNickname() {
+        assertThat(CompactLayout.encodeMeta("nick", null)).isEqualTo("nick");
+        assertThat(CompactLayout.encodeMeta("nick", "")).isEqualTo("nick");
+        assertThat(CompactLayout.nicknameOf("nick")).isEqualTo("nick");
+        assertThat(CompactLayout.traceparentOf("nick")).isNull();
+    }
+}
@@ -0,0 +1,112 @@
+package com.likelion.queue.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueueShardsTest {
+
+    private final QueueShards single = new QueueShards(1);
+    private final QueueShards sharded = new QueueShards(4);
+
+    @Test
+    void rejectsNonPositiveCount() {
+        assertThatThrownBy(() -> new QueueShards(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void singleShardKeepsLegacyKeys() {
+        String userId = single.newUserId(7);
+
+        assertThat(single.enabled()).isFalse();
+        assertThat(userId).doesNotContain(".");
+        assertThat(single.shardOf(userId)).isZero();
+        assertThat(single.waitingKey(userId)).isEqualTo(QueueRedisKeys.WAITING_QUEUE);
+        assertThat(single.lastSeenKey(userId)).isEqualTo(QueueRedisKeys.WAITING_LAST_SEEN);
+        assertThat(single.metaBucketKey(userId)).isEqualTo(CompactLayout.metaBucketKey(userId));
+        assertThat(single.grantedKey(userId)).isEqualTo(CompactLayout.grantedKey(userId));
+        assertThat(single.fenceKey(0)).isEqualTo(QueueRedisKeys.MANAGER_FENCE);
+        assertThat(single.joiningTicketsKey(0)).isEqualTo(QueueRedisKeys.JOINING_TICKETS);
+        assertThat(single.ticketNonce(0, "uuid")).isEqualTo("uuid");
+        assertThat(single.entryKey(userId, "key")).isEqualTo(QueueRedisKeys.ENTRY_KEY_PREFIX + "key");
+    }
+
+    @Test
+    void newUserIdRoundRobinsShards() {
+        assertThat(sharded.shardOf(sharded.newUserId(0))).isZero();
+        assertThat(sharded.shardOf(sharded.newUserId(5))).isEqualTo(1);
+        assertThat(sharded.shardOf(sharded.newUserId(-1))).isEqualTo(3);
+    }
+
+    @Test
+    void shardOfFallsBackToZeroForForeignIds() {
+        assertThat(sharded.shardOf(null)).isZero();
+        assertThat(sharded.shardOf("abc")).isZero();
+        assertThat(sharded.shardOf(".abc")).isZero();
+        assertThat(sharded.shardOf("x.abc")).isZero();
+        assertThat(sharded.shardOf("9.abc")).isZero();
+    }
+
+    @Test
+    void shardKeysShareHashTag() {
+        String userId = "2.abc";
+
+        assertThat(sharded.waitingKey(userId)).isEqualTo("queue:{s2}:waiting");
+        assertThat(sharded.lastSeenKey(userId)).isEqualTo("queue:{s2}:waiting:last-seen");
+        assertThat(sharded.metaBucketKey(userId))
+                .isEqualTo("queue:{s2}:waiting:meta:" + CompactLayout.metaBucket(userId));
+        assertThat(sharded.grantedKey(userId)).isEqualTo("queue:{s2}:granted:2.abc");
+        assertThat(sharded.fenceKey(2)).isEqualTo("queue:{s2}:fence");
+        assertThat(sharded.joiningTicketsKey(2)).isEqualTo("queue:{s2}:joining:tickets");
+        assertThat(sharded.instanceJoiningKey(2, "game-1")).isEqualTo("queue:{s2}:instance:game-1:joining");
+        assertThat(sharded.entryKey(userId, "key")).isEqualTo("queue:{s2}:entry-key:key");
+    }
+
+    @Test
+    void ticketKeysFollowNonceShard() {
+        String ticketId = sharded.ticketNonce(3, "uuid");
+
+        assertThat(ticketId).isEqualTo("3.uuid");
+        assertThat(QueueShards.ticketShard(ticketId)).isEqualTo(3);
+        assertThat(QueueShards.ticketKey(ticketId)).isEqualTo("queue:{s3}:joining:3.uuid");
+        assertThat(QueueShards.joiningTicketsKeyOf(ticketId)).isEqualTo("queue:{s3}:joining:tickets");
+        assertThat(QueueShards.instanceJoiningKeyOf(ticketId, "game-1"))
+                .isEqualTo("queue:{s3}:instance:game-1:joining");
+        assertThat(QueueShards.admittedKeyOf(ticketId)).isEqualTo("queue:{s3}:admitted:3.uuid");
+    }
+
+    @Test
+    void unshardedTicketKeysUseLegacyPrefixes() {
+        String ticketId = "0b0e7a4c-uuid";
+
+        assertThat(QueueShards.ticketShard(ticketId)).isEqualTo(-1);
+        assertThat(QueueShards.ticketKey(ticketId)).isEqualTo(QueueRedisKeys.JOINING_TICKET_PREFIX + ticketId);
+        assertThat(QueueShards.joiningTicketsKeyOf(ticketId)).isEqualTo(QueueRedisKeys.JOINING_TICKETS);
+        assertThat(QueueShards.instanceJoiningKeyOf(ticketId, "game-1")).isEqualTo("server:instance:game-1:joining");
+        assertThat(QueueShards.admittedKeyOf(ticketId)).isEqualTo(QueueRedisKeys.ADMITTED_TICKET_PREFIX + ticketId);
+    }
+
+    @Test
+    void signedTicketsResolveShardFromNonce() {
+        SignedTickets tickets = new SignedTickets(List.of(new SignedTickets.SigningKey("k",
+                "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8))));
+        String token = tickets.sign("1.uuid", "1.user", "nick", "", Long.MAX_VALUE);
+
+        assertThat(QueueShards.ticketShard(token)).isEqualTo(1);
+        assertThat(QueueShards.joiningTicketsKeyOf(token)).isEqualTo("queue:{s1}:joining:tickets");
+        assertThat(QueueShards.admittedKeyOf(token)).isEqualTo("queue:{s1}:admitted:1.uuid");
+    }
+
+    @Test
+    void recognizesTicketKeys() {
+        assertThat(QueueShards.isTicketKey("queue:joining:uuid")).isTrue();
+        assertThat(QueueShards.isTicketKey("queue:{s3}:joining:3.uuid")).isTrue();
+        assertThat(QueueShards.isTicketKey("queue:{s3}:joining:tickets")).isFalse();
+        assertThat(QueueShards.isTicketKey("queue:{s3}:waiting")).isFalse();
+        assertThat(QueueShards.isTicketKey("queue:granted:abc")).isFalse();
+    }
+}
@@ -0,0 +1,132 @@
+package com.likelion.queue.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SignedTicketsTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long EXPIRE_AT = NOW + 60_000;
+
+    private static final SignedTickets.SigningKey KEY_A =
+            new SignedTickets.SigningKey("a", "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+    private static final SignedTickets.SigningKey KEY_B =
+            new SignedTickets.SigningKey("b", "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void signAndVerifyRoundTrip() {
+        SignedTickets tickets = new SignedTickets(List.of(KEY_A));
+
+        String token = tickets.sign("2.nonce", "2.user", "nick\nname", "game-1", EXPIRE_AT);
+
+        assertThat(SignedTickets.isSigned(token)).isTrue();
+        SignedTickets.Claims claims = tickets.verify(token, NOW).orElseThrow();
+        assertThat(claims.ticketNonce()).isEqualTo("2.nonce");
+        assertThat(claims.userId()).isEqualTo("2.user");
+        assertThat(claims.nickname()).isEqualTo("nick\nname");
+        assertThat(claims.target()).isEqualTo("game-1");
+        assertThat(claims.expireAtMillis()).isEqualTo(EXPIRE_AT);
+        assertThat(claims.redeemedKey()).isEqualTo(QueueRedisKeys.REDEEMED_TICKET_PREFIX + "2.nonce");
+    }
+
+    @Test
+    void missingTargetVerifiesAsNull() {
+        SignedTickets tickets = new SignedTickets(List.of(KEY_A));
+
+        String token = tickets.sign("nonce", "user", "nick", null, EXPIRE_AT);
+
+        assertThat(tickets.verify(token, NOW).orElseThrow().target()).isNull();
+    }
+
+    @Test
+    void disabledSigningReturnsNonce() {
+        SignedTickets tickets = SignedTickets.disabled();
+
+        assertThat(tickets.isEnabled()).isFalse();
+        assertThat(tickets.sign("nonce", "user", "nick", "game-1", EXPIRE_AT)).isEqualTo("nonce");
+        assertThat(tickets.verify("nonce", NOW)).isEmpty();
+    }
+
+    @Test
+    void expiredTicketIsRejected() {
+        SignedTickets tickets = new SignedTickets(List.of(KEY_A));
+        String token = tickets.sign("nonce", "user", "nick", "", EXPIRE_AT);
+
+        assertThat(tickets.verify(token, EXPIRE_AT - 1)).isPresent();
+        assertThat(tickets.verify(token, EXPIRE_AT)).isEmpty();
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        SignedTickets tickets = new SignedTickets(List.of(KEY_A));
+        String token = tickets.sign("nonce", "user", "nick", "", EXPIRE_AT);
+        String[] parts = token.split("\\.");
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("nonce\nother\n" + EXPIRE_AT + "\n\nnick").getBytes(StandardCharsets.UTF_8));
+
+        assertThat(tickets.verify(parts[0] + '.' + parts[1] + '.' + forged + '.' + parts[3], NOW)).isEmpty();
+    }
+
+    @Test
+    void tamperedKeyIdIsRejected() {
+        SignedTickets tickets = new SignedTickets(List.of(KEY_A, KEY_B));
+        String token = tickets.sign("nonce", "user", "nick", "", EXPIRE_AT);
+
+        assertThat(tickets.verify(token.replaceFirst("^t1\\.a\\.", "t1.b."), NOW)).isEmpty();
+        assertThat(tickets.verify(token.replaceFirst("^t1\\.a\\.", "t1.c."), NOW)).isEmpty();
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        SignedTickets tickets = new SignedTickets(List.of(KEY_A));
+
+        assertThat(tickets.verify(null, NOW)).isEmpty();
+        assertThat(tickets.verify("t1.a.payload", NOW)).isEmpty();
+        assertThat(tickets.verify("t1.a.!!!.!!!", NOW)).isEmpty();
+        assertThat(SignedTickets.nonceOf("t1.a.!!!.sig")).isNull();
+    }
+
+    @Test
+    void rotationSignsWithActiveKeyAndVerifiesWithAllKeys() {
+        SignedTickets before = new SignedTickets(List.of(KEY_A));
+        SignedTickets during = new SignedTickets(List.of(KEY_A, KEY_B), "b");
+        SignedTickets after = new SignedTickets(List.of(KEY_B));
+        String oldToken = before.sign("old", "user", "nick", "", EXPIRE_AT);
+        String newToken = during.sign("new", "user", "nick", "", EXPIRE_AT);
+
+        assertThat(newToken).startsWith("t1.b.");
+        assertThat(during.verify(oldToken, NOW)).isPresent();
+        assertThat(during.verify(newToken, NOW)).isPresent();
+        assertThat(before.verify(newToken, NOW)).isEmpty();
+        assertThat(after.verify(oldToken, NOW)).isEmpty();
+        assertThat(after.verify(newToken, NOW)).isPresent();
+    }
+
+    @Test
+    void rejectsInvalidKeyConfiguration() {
+        assertThatThrownBy(() -> new SignedTickets(List.of(KEY_A, KEY_A)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SignedTickets(List.of(KEY_A), "b"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SignedTickets.SigningKey("a.b", new byte[16]))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SignedTickets.SigningKey("a", new byte[15]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void joiningMemberIsNonceForSignedTickets() {
+        SignedTickets tickets = new SignedTickets(List.of(KEY_A));
+        String token = tickets.sign("3.nonce", "user", "nick", "", EXPIRE_AT);
+
+        assertThat(SignedTickets.nonceOf(token)).isEqualTo("3.nonce");
+        assertThat(SignedTickets.joiningMember(token)).isEqualTo("3.nonce");
+        assertThat(SignedTickets.joiningMember("plain-ticket")).isEqualTo("plain-ticket");
+    }
+}
@@ -0,0 +1,151 @@
+package com.likelion.queue.common;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TicketRedeemerTest {
+
+    private static final SignedTickets SIGNED = new SignedTickets(List.of(new SignedTickets.SigningKey("k",
+            "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8))));
+
+    private final StringRedisTemplate template = mock(StringRedisTemplate.class);
+    private final TicketRedeemer redeemer = new TicketRedeemer(template, SIGNED, Duration.ofSeconds(90));
+
+    @Test
+    void redeemsShardTicketWithKeysFromTicketId() {
+        scriptReturns(List.of("redeemed", "2.user", "nick"));
+
+        TicketRedeemer.Redemption redemption = redeemer.redeem("2.uuid", "game-1");
+
+        assertThat(redemption.isRedeemed()).isTrue();
+        assertThat(redemption.ticket()).isEqualTo(new TicketInfo("2.user", "nick"));
+        ScriptCall call = captureScriptCall();
+        assertThat(call.keys()).containsExactly(
+                "queue:{s2}:joining:2.uuid",
+                "queue:{s2}:joining:tickets",
+                QueueRedisKeys.SERVER_STATUS,
+                "queue:{s2}:admitted:2.uuid",
+                "server:instance:game-1",
+                "queue:{s2}:instance:game-1:joining");
+        assertThat(call.args()[0]).isEqualTo("2.uuid");
+        assertThat(call.args()[2]).isEqualTo("game-1");
+        assertThat(call.args()[3]).isEqualTo("90000");
+    }
+
+    @Test
+    void redeemWithoutInstanceOnlyCountsServerStatus() {
+        scriptReturns(List.of("full"));
+
+        TicketRedeemer.Redemption redemption = redeemer.redeem("uuid", null);
+
+        assertThat(redemption.outcome()).isEqualTo(TicketRedeemer.Outcome.FULL);
+        assertThat(redemption.ticket()).isNull();
+        assertThat(captureScriptCall().keys()).containsExactly(
+                QueueRedisKeys.JOINING_TICKET_PREFIX + "uuid",
+                QueueRedisKeys.JOINING_TICKETS,
+                QueueRedisKeys.SERVER_STATUS,
+                QueueRedisKeys.ADMITTED_TICKET_PREFIX + "uuid");
+    }
+
+    @Test
+    void unknownOrEmptyResultIsMissing() {
+        scriptReturns(List.of("redeemed"));
+        assertThat(redeemer.redeem("uuid", null).outcome()).isEqualTo(TicketRedeemer.Outcome.MISSING);
+
+        scriptReturns(List.of("unexpected"));
+        assertThat(redeemer.redeem("uuid", null).outcome()).isEqualTo(TicketRedeemer.Outcome.MISSING);
+    }
+
+    @Test
+    void blankTicketIsMissingWithoutValkeyCall() {
+        assertThat(redeemer.redeem(" ", "game-1").outcome()).isEqualTo(TicketRedeemer.Outcome.MISSING);
+        assertThat(redeemer.release(null, "game-1")).isFalse();
+        verifyNoInteractions(template);
+    }
+
+    @Test
+    void signedTicketUsesNonceMarkers() {
+        scriptReturns(List.of("redeemed"));
+        String token = SIGNED.sign("1.nonce", "1.user", "nick", "game-1", System.currentTimeMillis() + 60_000);
+
+        TicketRedeemer.Redemption redemption = redeemer.redeem(token, "game-1");
+
+        assertThat(redemption.isRedeemed()).isTrue();
+        assertThat(redemption.ticket()).isEqualTo(new TicketInfo("1.user", "nick"));
+        ScriptCall call = captureScriptCall();
+        assertThat(call.keys()).containsExactly(
+                QueueRedisKeys.REDEEMED_TICKET_PREFIX + "1.nonce",
+                "queue:{s1}:joining:tickets",
+                QueueRedisKeys.SERVER_STATUS,
+                "queue:{s1}:admitted:1.nonce",
+                "server:instance:game-1",
+                "queue:{s1}:instance:game-1:joining");
+        assertThat(call.args()[0]).isEqualTo("1.nonce");
+        assertThat(call.args()[3]).isEqualTo("game-1");
+        assertThat(call.args()[4]).isEqualTo("1.user");
+    }
+
+    @Test
+    void invalidSignedTicketIsRejectedLocally() {
+        String token = SIGNED.sign("1.nonce", "1.user", "nick", "", System.currentTimeMillis() - 1);
+
+        assertThat(redeemer.redeem(token, null).outcome()).isEqualTo(TicketRedeemer.Outcome.MISSING);
+        assertThat(new TicketRedeemer(template).redeem(token, null).outcome())
+                .isEqualTo(TicketRedeemer.Outcome.MISSING);
+        verifyNoInteractions(template);
+    }
+
+    @Test
+    void releaseDeletesAdmittedMarker() {
+        when(template.execute(any(RedisScript.class), anyList())).thenReturn(1L, 0L);
+
+        assertThat(redeemer.release("2.uuid", "game-1")).isTrue();
+        assertThat(redeemer.release("2.uuid", null)).isFalse();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(template, times(2)).execute(any(RedisScript.class), keys.capture());
+        assertThat(keys.getAllValues().get(0)).containsExactly(
+                "queue:{s2}:admitted:2.uuid", QueueRedisKeys.SERVER_STATUS, "server:instance:game-1");
+        assertThat(keys.getAllValues().get(1)).containsExactly(
+                "queue:{s2}:admitted:2.uuid", QueueRedisKeys.SERVER_STATUS);
+    }
+
+    @Test
+    void rejectsNonPositiveAdmittedTtl() {
+        assertThatThrownBy(() -> new TicketRedeemer(template, SIGNED, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scriptReturns(List<?> result) {
+        when(template.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn((List<Object>) result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ScriptCall captureScriptCall() {
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(template).execute(any(RedisScript.class), keys.capture(), args.capture());
+        return new ScriptCall(keys.getValue(), args.getValue());
+    }
+
+    private record ScriptCall(List<String> keys, Object[] args) {
+    }
+}
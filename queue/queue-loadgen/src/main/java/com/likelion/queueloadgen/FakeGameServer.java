@@ -0,0 +1,130 @@
+package com.likelion.queueloadgen;
+
+import com.likelion.queue.common.QueueRedisKeys;
+import com.likelion.queue.common.QueueShards;
+import com.likelion.queue.common.SignedTickets;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 채팅 서버 대신 티켓을 소비하고 server:status 를 갱신한다.
+ * 접속 시 티켓/메타를 지우고 current_users 를 올리며, 체류 시간이 지나면 current_users 를 내리고
+ * 용량 반환 신호를 발행한다. 발급 사이클이 실제 용량 변화에 반응하는지 확인하기 위한 용도다.
+ */
+public class FakeGameServer implements AutoCloseable {
+
+    // 티켓이 있으면 소비 + current_users 증가, 없으면 0
+    // 서명 티켓(ARGV[2] == '1')은 티켓 해시가 없으므로 joining 인덱스의 nonce 로 존재를 확인한다. (서명 검증은 생략)
+    private static final String REDEEM_SCRIPT = """
+            if ARGV[2] == '1' then
+              if redis.call('ZREM', KEYS[2], ARGV[1]) == 0 then
+                return 0
+              end
+            else
+              if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+              end
+              redis.call('DEL', KEYS[1])
+              redis.call('ZREM', KEYS[2], ARGV[1])
+            end
+            redis.call('DEL', KEYS[3])
+            redis.call('HINCRBY', KEYS[4], 'current_users', 1)
+            return 1""";
+
+    // 퇴장: current_users 감소(0 미만 방지) + 용량 반환 신호
+    private static final String LEAVE_SCRIPT = """
+            local current = redis.call('HINCRBY', KEYS[1], 'current_users', -1)
+            if current < 0 then
+              redis.call('HSET', KEYS[1], 'current_users', 0)
+            end
+            redis.call('PUBLISH', ARGV[1], 'released')
+            return current""";
+
+    private final RedisClient client;
+    private final StatefulRedisConnection<String, String> connection;
+    private final RedisAsyncCommands<String, String> commands;
+    private final ScheduledExecutorService scheduler;
+    private final LoadReport report;
+    private final long meanSessionMillis;
+    private final AtomicLong inGame = new AtomicLong();
+
+    public FakeGameServer(LoadGenConfig config, ScheduledExecutorService scheduler, LoadReport report) {
+        this.client = RedisClient.create(RedisURI.create(config.redisHost(), config.redisPort()));
+        this.connection = client.connect();
+        this.commands = connection.async();
+        this.scheduler = scheduler;
+        this.report = report;
+        this.meanSessionMillis = Math.max(1, config.sessionTime().toMillis());
+    }
+
+    public void reset(long softCap) {
+        connection.sync().hset(QueueRedisKeys.SERVER_STATUS, Map.of(
+                "current_users", "0",
+                "soft_cap", String.valueOf(softCap)));
+    }
+
+    public CompletableFuture<Boolean> redeem(String ticketId, String userId) {
+        boolean signed = SignedTickets.isSigned(ticketId);
+        String member = SignedTickets.joiningMember(ticketId);
+        if (member == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return commands.<Long>eval(REDEEM_SCRIPT, ScriptOutputType.INTEGER,
+                        new String[]{
+                                QueueShards.ticketKey(ticketId),
+                                QueueShards.joiningTicketsKeyOf(ticketId),
+                                QueueRedisKeys.WAITING_META_PREFIX + userId,
+                                QueueRedisKeys.SERVER_STATUS},
+                        member, signed ? "1" : "0")
+                .toCompletableFuture()
+                .thenApply(result -> {
+                    boolean redeemed = result != null && result == 1L;
+                    if (redeemed) {
+                        inGame.incrementAndGet();
+                        report.increment(LoadReport.Event.REDEEMED);
+                        scheduleLeave();
+                    }
+                    return redeemed;
+                });
+    }
+
+    public long inGameUsers() {
+        return inGame.get();
+    }
+
+    public long waitingUsers() {
+        try {
+            Long size = commands.zcard(QueueRedisKeys.WAITING_QUEUE).get(1, TimeUnit.SECONDS);
+            return size != null ? size : 0;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private void scheduleLeave() {
+        double sample = -Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        long sessionMillis = (long) (sample * meanSessionMillis);
+        scheduler.schedule(() -> {
+            commands.eval(LEAVE_SCRIPT, ScriptOutputType.INTEGER,
+                    new String[]{QueueRedisKeys.SERVER_STATUS}, QueueRedisKeys.CAPACITY_CHANNEL);
+            inGame.decrementAndGet();
+            report.increment(LoadReport.Event.LEFT);
+        }, sessionMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+        client.shutdown();
+    }
+}
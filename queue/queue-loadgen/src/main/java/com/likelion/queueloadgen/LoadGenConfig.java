@@ -0,0 +1,90 @@
+package com.likelion.queueloadgen;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 부하 생성기 설정. {@code --key=value} 형태의 인자로 덮어쓴다.
+ *
+ * @param queueUrl        queue-api 주소
+ * @param redisHost       Valkey 호스트 (가짜 게임 서버가 티켓을 소비할 때 사용)
+ * @param redisPort       Valkey 포트
+ * @param users           생성할 대기 유저 수
+ * @param arrivalRate     초당 진입 유저 수
+ * @param duration        최대 실행 시간
+ * @param abandonRatio    대기 중 폴링을 멈추고 이탈하는 유저 비율
+ * @param redeemRatio     발급된 티켓 중 실제로 게임 서버에 접속하는 비율 (나머지는 no-show)
+ * @param pollInterval    서버 힌트가 없을 때의 폴링 간격
+ * @param ignorePollHint  true 면 nextPollAfterMs 를 무시하고 pollInterval 로 폴링
+ * @param softCap         server:status 에 설정할 soft cap
+ * @param sessionTime     게임 서버 평균 체류 시간 (지수 분포)
+ * @param maxInFlight     동시에 진행 중인 HTTP 요청 상한
+ * @param reportDir       리포트 출력 디렉터리
+ */
+public record LoadGenConfig(
+        String queueUrl,
+        String redisHost,
+        int redisPort,
+        int users,
+        double arrivalRate,
+        Duration duration,
+        double abandonRatio,
+        double redeemRatio,
+        Duration pollInterval,
+        boolean ignorePollHint,
+        long softCap,
+        Duration sessionTime,
+        int maxInFlight,
+        Path reportDir
+) {
+
+    public static LoadGenConfig fromArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return new LoadGenConfig(
+                options.getOrDefault("queue-url", "http://localhost:8080"),
+                options.getOrDefault("redis-host", "localhost"),
+                Integer.parseInt(options.getOrDefault("redis-port", "6379")),
+                Integer.parseInt(options.getOrDefault("users", "100000")),
+                Double.parseDouble(options.getOrDefault("arrival-rate", "1000")),
+                parseDuration(options.getOrDefault("duration", "10m")),
+                Double.parseDouble(options.getOrDefault("abandon-ratio", "0.1")),
+                Double.parseDouble(options.getOrDefault("redeem-ratio", "0.9")),
+                parseDuration(options.getOrDefault("poll-interval", "2s")),
+                Boolean.parseBoolean(options.getOrDefault("ignore-poll-hint", "false")),
+                Long.parseLong(options.getOrDefault("soft-cap", "1000")),
+                parseDuration(options.getOrDefault("session-time", "60s")),
+                Integer.parseInt(options.getOrDefault("max-in-flight", "2000")),
+                Path.of(options.getOrDefault("report-dir", "build/loadgen-report"))
+        );
+    }
+
+    /**
+     * 500ms, 30s, 10m, 1h 형태의 간단한 기간 표기를 해석한다.
+     */
+    static Duration parseDuration(String value) {
+        String trimmed = value.trim();
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        long amount = Long.parseLong(trimmed.substring(0, trimmed.length() - 1));
+        return switch (trimmed.charAt(trimmed.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration: " + value);
+        };
+    }
+}
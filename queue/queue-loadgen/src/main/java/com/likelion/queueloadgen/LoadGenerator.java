@@ -0,0 +1,147 @@
+package com.likelion.queueloadgen;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * queue-api / queue-manager 를 실제 Valkey 위에서 end-to-end 로 구동하는 부하 생성기.
+ *
+ * 유저 흐름: 진입 -> nextPollAfterMs(또는 poll-interval) 간격으로 상태 폴링 -> PROMOTED 확인 시
+ * 가짜 게임 서버로 티켓 소비 -> 체류 후 퇴장. abandon-ratio 만큼은 대기 중 폴링을 멈추고 이탈하고,
+ * 발급받은 유저 중 redeem-ratio 를 넘는 만큼은 티켓을 쓰지 않아(no-show) 만료 경로를 태운다.
+ *
+ * 결과는 report-dir 에 엔드포인트별 .hgrm, 대기 시간 .hgrm, 초 단위 timeline.csv 로 남는다.
+ */
+public class LoadGenerator {
+
+    private final LoadGenConfig config;
+    private final LoadReport report = new LoadReport();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService httpExecutor;
+    private final QueueApiClient apiClient;
+    private final FakeGameServer gameServer;
+    private final CountDownLatch finished;
+
+    public LoadGenerator(LoadGenConfig config) {
+        this.config = config;
+        this.scheduler = Executors.newScheduledThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()), daemon("loadgen-scheduler"));
+        this.httpExecutor = Executors.newFixedThreadPool(
+                Math.max(4, Runtime.getRuntime().availableProcessors() * 2), daemon("loadgen-http"));
+        this.apiClient = new QueueApiClient(config, httpExecutor, report);
+        this.gameServer = new FakeGameServer(config, scheduler, report);
+        this.finished = new CountDownLatch(config.users());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadGenConfig config = LoadGenConfig.fromArgs(args);
+        new LoadGenerator(config).run();
+    }
+
+    public void run() throws InterruptedException {
+        System.out.printf("queue-loadgen: users=%d arrivalRate=%.0f/s duration=%s target=%s%n",
+                config.users(), config.arrivalRate(), config.duration(), config.queueUrl());
+        gameServer.reset(config.softCap());
+
+        scheduler.scheduleAtFixedRate(
+                () -> report.tick(gameServer.waitingUsers(), gameServer.inGameUsers()),
+                1, 1, TimeUnit.SECONDS);
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.arrivalRate());
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + config.duration().toNanos();
+        for (int i = 0; i < config.users() && System.nanoTime() < deadline; i++) {
+            long due = startedAt + i * intervalNanos;
+            long sleepNanos = due - System.nanoTime();
+            if (sleepNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            }
+            enter(i);
+        }
+
+        long remaining = deadline - System.nanoTime();
+        if (remaining > 0) {
+            finished.await(remaining, TimeUnit.NANOSECONDS);
+        }
+        report.tick(gameServer.waitingUsers(), gameServer.inGameUsers());
+        report.write(config.reportDir(), System.out);
+
+        scheduler.shutdownNow();
+        httpExecutor.shutdownNow();
+        gameServer.close();
+    }
+
+    private void enter(int sequence) {
+        apiClient.enter("load-" + sequence).whenComplete((response, error) -> {
+            if (error != null) {
+                fail();
+                return;
+            }
+            report.increment(LoadReport.Event.ENTERED);
+            boolean abandons = ThreadLocalRandom.current().nextDouble() < config.abandonRatio();
+            // 이탈 유저는 대기 중 임의 시점까지 폴링하다가 멈춘다
+            int pollBudget = abandons ? ThreadLocalRandom.current().nextInt(1, 10) : Integer.MAX_VALUE;
+            schedulePoll(response.userId(), System.currentTimeMillis(), pollBudget, config.pollInterval().toMillis());
+        });
+    }
+
+    private void schedulePoll(String userId, long enteredAt, int pollBudget, long delayMillis) {
+        if (pollBudget <= 0) {
+            report.increment(LoadReport.Event.ABANDONED);
+            finished.countDown();
+            return;
+        }
+        scheduler.schedule(() -> poll(userId, enteredAt, pollBudget - 1), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll(String userId, long enteredAt, int pollBudget) {
+        apiClient.status(userId).whenComplete((response, error) -> {
+            if (error != null) {
+                fail();
+                return;
+            }
+            if ("PROMOTED".equals(response.status())) {
+                promoted(userId, response.ticketId(), enteredAt);
+                return;
+            }
+            long delay = !config.ignorePollHint() && response.nextPollAfterMs() != null
+                    ? response.nextPollAfterMs()
+                    : config.pollInterval().toMillis();
+            schedulePoll(userId, enteredAt, pollBudget, delay);
+        });
+    }
+
+    private void promoted(String userId, String ticketId, long enteredAt) {
+        report.increment(LoadReport.Event.PROMOTED);
+        report.recordQueueTime(System.currentTimeMillis() - enteredAt);
+        if (ThreadLocalRandom.current().nextDouble() >= config.redeemRatio()) {
+            report.increment(LoadReport.Event.NO_SHOW);
+            finished.countDown();
+            return;
+        }
+        gameServer.redeem(ticketId, userId).whenComplete((redeemed, error) -> {
+            if (error != null) {
+                report.increment(LoadReport.Event.ERROR);
+            }
+            finished.countDown();
+        });
+    }
+
+    private void fail() {
+        report.increment(LoadReport.Event.ERROR);
+        finished.countDown();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
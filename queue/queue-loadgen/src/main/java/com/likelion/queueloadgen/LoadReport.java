@@ -0,0 +1,157 @@
+package com.likelion.queueloadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 엔드포인트별 지연 시간, 대기 시간(진입 -> 발급 확인), 초 단위 입장 처리량을 모은다.
+ * tick() 을 1초마다 호출하면 구간 히스토그램을 누적하면서 timeline 한 줄을 남긴다.
+ */
+public class LoadReport {
+
+    private static final long HIGHEST_TRACKABLE_MILLIS = 3_600_000;
+
+    public enum Endpoint {
+        ENTRY,
+        STATUS
+    }
+
+    public enum Event {
+        ENTERED,
+        PROMOTED,
+        REDEEMED,
+        NO_SHOW,
+        LEFT,
+        ABANDONED,
+        ERROR
+    }
+
+    private final Map<Endpoint, Recorder> latencyRecorders = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Histogram> latencyTotals = new EnumMap<>(Endpoint.class);
+    private final Recorder queueTimeRecorder = new Recorder(HIGHEST_TRACKABLE_MILLIS, 3);
+    private final Histogram queueTimeTotal = new Histogram(HIGHEST_TRACKABLE_MILLIS, 3);
+    private final Map<Event, AtomicLong> counters = new EnumMap<>(Event.class);
+    private final Map<Event, Long> lastCounts = new EnumMap<>(Event.class);
+    private final List<String> timeline = new ArrayList<>();
+    private final long startedAt = System.currentTimeMillis();
+
+    public LoadReport() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            latencyRecorders.put(endpoint, new Recorder(HIGHEST_TRACKABLE_MILLIS * 1000, 3));
+            latencyTotals.put(endpoint, new Histogram(HIGHEST_TRACKABLE_MILLIS * 1000, 3));
+        }
+        for (Event event : Event.values()) {
+            counters.put(event, new AtomicLong());
+            lastCounts.put(event, 0L);
+        }
+    }
+
+    public void recordLatency(Endpoint endpoint, long micros) {
+        latencyRecorders.get(endpoint).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MILLIS * 1000));
+    }
+
+    public void recordQueueTime(long millis) {
+        queueTimeRecorder.recordValue(Math.min(millis, HIGHEST_TRACKABLE_MILLIS));
+    }
+
+    public void increment(Event event) {
+        counters.get(event).incrementAndGet();
+    }
+
+    public long count(Event event) {
+        return counters.get(event).get();
+    }
+
+    public synchronized void tick(long waitingUsers, long inGameUsers) {
+        long second = (System.currentTimeMillis() - startedAt) / 1000;
+        StringBuilder row = new StringBuilder().append(second);
+        for (Event event : Event.values()) {
+            long current = counters.get(event).get();
+            row.append(',').append(current - lastCounts.get(event));
+            lastCounts.put(event, current);
+        }
+        row.append(',').append(waitingUsers).append(',').append(inGameUsers);
+
+        Histogram queueTime = queueTimeRecorder.getIntervalHistogram();
+        queueTimeTotal.add(queueTime);
+        row.append(',').append(queueTime.getValueAtPercentile(50))
+                .append(',').append(queueTime.getValueAtPercentile(99));
+
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram interval = latencyRecorders.get(endpoint).getIntervalHistogram();
+            latencyTotals.get(endpoint).add(interval);
+            row.append(',').append(interval.getTotalCount())
+                    .append(',').append(interval.getValueAtPercentile(99));
+        }
+        timeline.add(row.toString());
+    }
+
+    public synchronized void write(Path directory, PrintStream console) {
+        try {
+            Files.createDirectories(directory);
+            for (Endpoint endpoint : Endpoint.values()) {
+                Path file = directory.resolve("latency-" + endpoint.name().toLowerCase(Locale.ROOT) + ".hgrm");
+                try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                    latencyTotals.get(endpoint).outputPercentileDistribution(out, 1000.0);
+                }
+            }
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("queue-time.hgrm")))) {
+                queueTimeTotal.outputPercentileDistribution(out, 1.0);
+            }
+            List<String> lines = new ArrayList<>(timeline.size() + 1);
+            lines.add(timelineHeader());
+            lines.addAll(timeline);
+            Files.write(directory.resolve("timeline.csv"), lines);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        console.println("== latency (ms) ==");
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = latencyTotals.get(endpoint);
+            console.printf(Locale.ROOT, "%-7s count=%d p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                    endpoint, histogram.getTotalCount(),
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+        }
+        console.printf(Locale.ROOT, "== time in queue (ms) ==%ncount=%d p50=%d p99=%d p999=%d max=%d%n",
+                queueTimeTotal.getTotalCount(),
+                queueTimeTotal.getValueAtPercentile(50),
+                queueTimeTotal.getValueAtPercentile(99),
+                queueTimeTotal.getValueAtPercentile(99.9),
+                queueTimeTotal.getMaxValue());
+        console.println("== events ==");
+        for (Event event : Event.values()) {
+            console.printf(Locale.ROOT, "%-9s %d%n", event, counters.get(event).get());
+        }
+        console.println("report written to " + directory.toAbsolutePath());
+    }
+
+    private String timelineHeader() {
+        StringBuilder header = new StringBuilder("second");
+        for (Event event : Event.values()) {
+            header.append(',').append(event.name().toLowerCase(Locale.ROOT));
+        }
+        header.append(",waiting,in_game,queue_time_p50_ms,queue_time_p99_ms");
+        for (Endpoint endpoint : Endpoint.values()) {
+            String name = endpoint.name().toLowerCase(Locale.ROOT);
+            header.append(',').append(name).append("_rps")
+                    .append(',').append(name).append("_p99_us");
+        }
+        return header.toString();
+    }
+}
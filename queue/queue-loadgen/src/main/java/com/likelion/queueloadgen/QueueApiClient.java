@@ -0,0 +1,88 @@
+package com.likelion.queueloadgen;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * queue-api 비동기 클라이언트. 요청마다 지연 시간을 LoadReport 에 기록하고,
+ * max-in-flight 를 넘는 요청은 세마포어에서 대기시켜 부하 생성기 자체가 병목이 되지 않게 한다.
+ */
+public class QueueApiClient {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final String baseUrl;
+    private final Semaphore inFlight;
+    private final LoadReport report;
+
+    public QueueApiClient(LoadGenConfig config, Executor executor, LoadReport report) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        this.baseUrl = config.queueUrl();
+        this.inFlight = new Semaphore(config.maxInFlight());
+        this.report = report;
+    }
+
+    public CompletableFuture<EntryResponse> enter(String nickname) {
+        String body = "{\"nickname\":\"" + nickname + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/queue/entry"))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return send(LoadReport.Endpoint.ENTRY, request)
+                .thenApply(response -> parse(response, EntryResponse.class));
+    }
+
+    public CompletableFuture<StatusResponse> status(String userId) {
+        String query = URLEncoder.encode(userId, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/queue/status?userId=" + query))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        return send(LoadReport.Endpoint.STATUS, request)
+                .thenApply(response -> parse(response, StatusResponse.class));
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(LoadReport.Endpoint endpoint, HttpRequest request) {
+        inFlight.acquireUninterruptibly();
+        long startedAt = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    inFlight.release();
+                    report.recordLatency(endpoint, (System.nanoTime() - startedAt) / 1000);
+                });
+    }
+
+    private <T> T parse(HttpResponse<String> response, Class<T> type) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + " " + response.uri().getPath());
+        }
+        try {
+            return objectMapper.readValue(response.body(), type);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected response body: " + response.body(), e);
+        }
+    }
+
+    public record EntryResponse(String status, long rank, String userId) {
+    }
+
+    public record StatusResponse(String status, Long rank, String ticketId, Long estimatedWaitMs, Long nextPollAfterMs) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.likelion.queuemanager;
+
+import com.likelion.queuemanager.config.QueueManagerProperties;
+import com.likelion.queuemanager.model.ReapResult;
+import com.likelion.queuemanager.repository.FencingTokenRejectedException;
+import com.likelion.queuemanager.repository.QueueManagerRepository;
+import com.likelion.queuemanager.service.LeaderLease;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 대기열 head 에 도달하기 전에 비활성/고아 대기자를 미리 제거한다.
+ * inactive: last-seen 인덱스에서 inactivity-grace 를 넘긴 유저
+ * orphan: 메타 해시가 TTL 로 만료됐는데 대기열에 남아 있는 유저 (rank 구간 커서로 조금씩 훑는다)
+ * 샤드 대기열이면 샤드마다 같은 작업을 반복하고 orphan 커서도 샤드별로 따로 유지한다.
+ * 정리 스크립트도 발급과 같은 fencing 토큰을 확인하므로 임대를 잃은 이전 리더는 대기열을 건드리지 못한다.
+ */
+@Component
+public class InactivityReaper {
+
+    private static final Logger log = LoggerFactory.getLogger(InactivityReaper.class);
+
+    private final QueueManagerRepository redisRepository;
+    private final QueueManagerProperties properties;
+    private final LeaderLease leaderLease;
+    private final Counter inactiveCounter;
+    private final Counter orphanCounter;
+    private final long[] orphanCursors;
+
+    public InactivityReaper(QueueManagerRepository redisRepository,
+                            QueueManagerProperties properties,
+                            LeaderLease leaderLease,
+                            MeterRegistry meterRegistry) {
+        this.redisRepository = redisRepository;
+        this.properties = properties;
+        this.leaderLease = leaderLease;
+        this.inactiveCounter = meterRegistry.counter("queue.reaped_users_total", "reason", "inactive");
+        this.orphanCounter = meterRegistry.counter("queue.reaped_users_total", "reason", "orphan");
+        this.orphanCursors = new long[redisRepository.shardCount()];
+    }
+
+    @Scheduled(fixedDelayString = "#{@queueManagerProperties.reaper.intervalMillis()}")
+    public synchronized void reap() {
+        QueueManagerProperties.Reaper reaper = properties.getReaper();
+        if (!reaper.isEnabled()) {
+            return;
+        }
+        long fencingToken = leaderLease.leaderToken();
+        if (fencingToken == 0) {
+            return;
+        }
+        try {
+            long inactive = 0;
+            long orphans = 0;
+            for (int shard = 0; shard < orphanCursors.length; shard++) {
+                inactive += reapInactive(shard, reaper, fencingToken);
+                orphans += reapOrphans(shard, reaper, fencingToken);
+            }
+            if ((inactive > 0 || orphans > 0) && log.isDebugEnabled()) {
+                log.debug("Reaped waiting users (inactive={}, orphan={})", inactive, orphans);
+            }
+        } catch (FencingTokenRejectedException ex) {
+            leaderLease.relinquish(ex.getToken());
+        } catch (Exception ex) {
+            log.error("Inactivity reaper pass failed", ex);
+        }
+    }
+
+    private long reapInactive(int shard, QueueManagerProperties.Reaper reaper, long fencingToken) {
+        long cutoff = System.currentTimeMillis() - properties.getInactivityGrace().toMillis();
+        long removed = 0;
+        for (int i = 0; i < reaper.getMaxBatches(); i++) {
+            ReapResult result = redisRepository.reapInactive(shard, cutoff, reaper.getBatchSize(), fencingToken);
+            removed += result.removed();
+            if (result.next() < reaper.getBatchSize()) {
+                break;
+            }
+        }
+        inactiveCounter.increment(removed);
+        return removed;
+    }
+
+    private long reapOrphans(int shard, QueueManagerProperties.Reaper reaper, long fencingToken) {
+        long removed = 0;
+        for (int i = 0; i < reaper.getMaxBatches(); i++) {
+            ReapResult result = redisRepository.reapOrphans(shard, orphanCursors[shard], reaper.getBatchSize(),
+                    fencingToken);
+            removed += result.removed();
+            orphanCursors[shard] = result.next();
+            if (orphanCursors[shard] == 0) {
+                break;
+            }
+        }
+        orphanCounter.increment(removed);
+        return removed;
+    }
+}
@@ -1,10 +1,13 @@
 package com.likelion.queuemanager;
 
+import com.likelion.queuemanager.config.QueueManagerRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableScheduling
+@ImportRuntimeHints(QueueManagerRuntimeHints.class)
 @SpringBootApplication
 public class QueueManagerApplication {
 
@@ -1,11 +1,36 @@
 package com.likelion.queuemanager;
 
+import com.likelion.queue.common.SignedTickets;
+import com.likelion.queuemanager.admission.AdmissionContext;
+import com.likelion.queuemanager.admission.AdmissionPolicy;
 import com.likelion.queuemanager.config.QueueManagerProperties;
+import com.likelion.queuemanager.config.QueueManagerProperties.PromotionMode;
+import com.likelion.queuemanager.config.QueueManagerProperties.SchedulingMode;
+import com.likelion.queuemanager.model.ExpiredCleanupResult;
+import com.likelion.queuemanager.model.GameServerInstance;
+import com.likelion.queuemanager.model.PromotionOutcome;
+import com.likelion.queuemanager.model.PromotionResult;
 import com.likelion.queuemanager.model.ServerStatus;
+import com.likelion.queuemanager.repository.FencingTokenRejectedException;
 import com.likelion.queuemanager.repository.QueueManagerRepository;
+import com.likelion.queuemanager.service.AdmissionRateTracker;
+import com.likelion.queuemanager.service.LeaderLease;
 import com.likelion.queuemanager.service.MetricService;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -14,105 +39,370 @@ import org.springframework.stereotype.Component;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.PriorityQueue;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Component
 public class QueueScheduler {
 
     private static final Logger log = LoggerFactory.getLogger(QueueScheduler.class);
 
+    private static final AttributeKey<String> USER_ID = AttributeKey.stringKey("queue.user_id");
+    private static final AttributeKey<String> TICKET_ID = AttributeKey.stringKey("queue.ticket_id");
+    private static final AttributeKey<Long> WAIT_MS = AttributeKey.longKey("queue.wait_ms");
+    private static final TextMapGetter<String> TRACEPARENT_GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(String carrier) {
+            return List.of("traceparent");
+        }
+
+        @Override
+        public String get(String carrier, String key) {
+            return "traceparent".equals(key) ? carrier : null;
+        }
+    };
+
     private final QueueManagerRepository redisRepository;
     private final QueueManagerProperties properties;
     private final MetricService queueMetrics;
+    private final AdmissionRateTracker admissionRate;
+    private final AdmissionPolicy admissionPolicy;
+    private final LeaderLease leaderLease;
+    private final Tracer tracer;
     private final Counter issuedCounter;
     private final Counter expiredCounter;
     private final Counter droppedUsersCounter;
+    private final Counter triggeredCyclesCounter;
+    private final ScheduledExecutorService triggerExecutor;
+    private final AtomicBoolean cyclePending = new AtomicBoolean(false);
+    private ScheduledFuture<?> expiryWake;
+    private long expiryWakeAt;
 
     public QueueScheduler(QueueManagerRepository redisRepository,
                           QueueManagerProperties properties,
                           MetricService queueMetrics,
-                          MeterRegistry meterRegistry) {
+                          AdmissionRateTracker admissionRate,
+                          AdmissionPolicy admissionPolicy,
+                          LeaderLease leaderLease,
+                          MeterRegistry meterRegistry,
+                          OpenTelemetry openTelemetry) {
         this.redisRepository = redisRepository;
         this.properties = properties;
         this.queueMetrics = queueMetrics;
+        this.admissionRate = admissionRate;
+        this.admissionPolicy = admissionPolicy;
+        this.leaderLease = leaderLease;
+        this.tracer = openTelemetry.getTracer("queue-manager");
         this.issuedCounter = meterRegistry.counter("queue.tickets_issued_total");
         this.expiredCounter = meterRegistry.counter("queue.tickets_expired_total");
         this.droppedUsersCounter = meterRegistry.counter("queue.dropped_users_total");
+        this.triggeredCyclesCounter = meterRegistry.counter("queue.triggered_cycles_total");
+        this.triggerExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "queue-trigger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 스탠바이가 리더를 넘겨받으면 다음 주기를 기다리지 않고 밀린 발급을 시작한다.
+        leaderLease.onAcquired(this::requestCycle);
+    }
+
+    /**
+     * 용량 변화 신호를 받았을 때 호출한다. trigger-debounce 안에 들어온 신호는 한 번의 사이클로 합쳐진다.
+     */
+    public void requestCycle() {
+        requestCycle(properties.getTriggerDebounce().toMillis());
+    }
+
+    private void requestCycle(long delayMillis) {
+        if (!cyclePending.compareAndSet(false, true)) {
+            return;
+        }
+        triggerExecutor.schedule(() -> {
+            cyclePending.set(false);
+            triggeredCyclesCounter.increment();
+            processQueue();
+        }, Math.max(delayMillis, properties.getTriggerDebounce().toMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        triggerExecutor.shutdownNow();
     }
 
     @Scheduled(fixedDelayString = "#{@queueManagerProperties.scheduleIntervalMillis()}")
-    public void processQueue() {
+    public synchronized void processQueue() {
+        long fencingToken = leaderLease.leaderToken();
+        if (fencingToken == 0) {
+            return;
+        }
+        Timer.Sample cycle = Timer.start();
         try {
             long now = System.currentTimeMillis();
-            handleExpiredTickets(now);
-            scheduleNextBatch(now);
+            Timer.Sample cleanup = Timer.start();
+            handleExpiredTickets(now, fencingToken);
+            cleanup.stop(queueMetrics.phaseTimer("cleanup"));
+            int issued = scheduleNextBatch(now, fencingToken);
+            admissionRate.record(issued, now);
+            armExpiryWake(now);
+        } catch (FencingTokenRejectedException ex) {
+            leaderLease.relinquish(ex.getToken());
         } catch (Exception ex) {
             log.error("Queue scheduling cycle failed", ex);
+        } finally {
+            cycle.stop(queueMetrics.cycleTimer());
         }
     }
 
-    private void handleExpiredTickets(long nowEpochMillis) {
-        Set<String> expiredIds = redisRepository.removeExpiredTickets(nowEpochMillis);
-        if (expiredIds.isEmpty()) {
+    private void handleExpiredTickets(long nowEpochMillis, long fencingToken) {
+        // 장애 후 만료 티켓이 대량으로 쌓여도 한 사이클의 정리량은 batch-size * max-batches 로 제한한다.
+        int batchSize = properties.getExpiredCleanupBatchSize();
+        long removed = 0;
+        long backlog = 0;
+        for (int i = 0; i < properties.getExpiredCleanupMaxBatches(); i++) {
+            ExpiredCleanupResult result = queueMetrics.redisTimer("cleanup_expired").record(
+                    () -> redisRepository.cleanupExpiredTickets(nowEpochMillis, batchSize, fencingToken));
+            removed += result.removed();
+            backlog = result.backlog();
+            if (backlog == 0 || result.removed() < batchSize) {
+                break;
+            }
+        }
+        queueMetrics.updateExpiredTicketBacklog(backlog);
+        if (removed == 0) {
             return;
         }
-        redisRepository.deleteTicketHashes(expiredIds);
-        expiredCounter.increment(expiredIds.size());
+        expiredCounter.increment(removed);
+        admissionPolicy.onExpired((int) removed);
         if (log.isDebugEnabled()) {
-            log.debug("Cleaned up {} expired tickets", expiredIds.size());
+            log.debug("Cleaned up {} expired tickets (backlog={})", removed, backlog);
+        }
+        if (backlog > 0 && properties.getSchedulingMode() == SchedulingMode.EVENT_DRIVEN) {
+            requestCycle();
+        }
+    }
+
+    /**
+     * 다음 티켓이 만료되는 시각에 사이클을 깨운다. 서명 티켓은 만료 이벤트를 낼 티켓 해시가 없으므로
+     * 키 만료 알림 대신 joining 인덱스의 가장 이른 만료 시각으로 용량 반환 시점을 잡는다.
+     */
+    private void armExpiryWake(long nowEpochMillis) {
+        if (properties.getSchedulingMode() != SchedulingMode.EVENT_DRIVEN) {
+            return;
+        }
+        long nextExpireAt = queueMetrics.redisTimer("next_ticket_expiry").record(
+                () -> redisRepository.nextTicketExpiry(nowEpochMillis));
+        if (nextExpireAt <= 0) {
+            return;
+        }
+        if (expiryWake != null && !expiryWake.isDone() && expiryWakeAt <= nextExpireAt) {
+            return;
+        }
+        if (expiryWake != null) {
+            expiryWake.cancel(false);
         }
+        expiryWakeAt = nextExpireAt;
+        expiryWake = triggerExecutor.schedule(() -> requestCycle(),
+                Math.max(0, nextExpireAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
     }
 
-    private void scheduleNextBatch(long nowEpochMillis) {
-        ServerStatus serverStatus = redisRepository.fetchServerStatus();
-        long joiningUsers = redisRepository.countJoiningTickets(nowEpochMillis);
-        long currentUsers = serverStatus.currentUsers();
-        long softCap = serverStatus.resolveSoftCap(properties.getDefaultSoftCap());
-        long availableSlots = softCap - (currentUsers + joiningUsers);
+    private int scheduleNextBatch(long nowEpochMillis, long fencingToken) {
+        Timer.Sample statusRead = Timer.start();
+        long joiningUsers = queueMetrics.redisTimer("count_joining").record(
+                () -> redisRepository.countJoiningTickets(nowEpochMillis));
+        List<GameServerInstance> instances = queueMetrics.redisTimer("fetch_game_servers").record(
+                () -> redisRepository.fetchGameServers(nowEpochMillis, properties.getGameServerHeartbeatTimeout(),
+                        fencingToken));
+        queueMetrics.updateGameServers(instances.size());
+        long currentUsers;
+        long softCap;
+        long availableSlots;
+        if (instances.isEmpty()) {
+            // 인스턴스 레지스트리가 비어 있으면 단일 server:status 기준으로 동작한다.
+            ServerStatus serverStatus = queueMetrics.redisTimer("fetch_server_status").record(
+                    redisRepository::fetchServerStatus);
+            currentUsers = serverStatus.currentUsers();
+            softCap = serverStatus.resolveSoftCap(properties.getDefaultSoftCap());
+            availableSlots = softCap - (currentUsers + joiningUsers);
+        } else {
+            currentUsers = 0;
+            softCap = 0;
+            availableSlots = 0;
+            for (GameServerInstance instance : instances) {
+                currentUsers += instance.status().currentUsers();
+                softCap += instance.status().resolveSoftCap(properties.getDefaultSoftCap());
+                availableSlots += Math.max(0, instance.headroom(properties.getDefaultSoftCap()));
+            }
+        }
 
         // 대기열 크기 조회 및 메트릭 업데이트
-        Long waitingSize = redisRepository.waitingSize();
+        Long waitingSize = queueMetrics.redisTimer("waiting_size").record(redisRepository::waitingSize);
         long waitingUsers = waitingSize != null ? waitingSize : 0;
         queueMetrics.updateQueueMetrics(waitingUsers, joiningUsers, currentUsers, softCap);
+        queueMetrics.updateOldestWaiting(waitingUsers > 0
+                ? queueMetrics.redisTimer("head_score").record(redisRepository::oldestWaitingScore)
+                : null);
+        statusRead.stop(queueMetrics.phaseTimer("status_read"));
 
-        if (availableSlots <= 0) {
-            if (log.isDebugEnabled()) {
+        int permits = admissionPolicy.permits(
+                new AdmissionContext(nowEpochMillis, availableSlots, joiningUsers, waitingUsers));
+        if (permits <= 0) {
+            if (availableSlots <= 0 && log.isDebugEnabled()) {
                 log.debug("No capacity available (softCap={}, current={}, joining={})",
                         softCap, currentUsers, joiningUsers);
             }
-            return;
+            if (availableSlots > 0 && waitingUsers > 0
+                    && properties.getSchedulingMode() == SchedulingMode.EVENT_DRIVEN) {
+                requestCycle(admissionPolicy.nextCycleDelayMillis());
+            }
+            return 0;
         }
 
-        int batchSize = (int) Math.min(availableSlots, properties.getBatchLimit());
-        if (batchSize <= 0) {
-            return;
-        }
-
-        List<String> candidates = redisRepository.fetchNextBatch(batchSize);
-        if (candidates.isEmpty()) {
-            return;
-        }
+        int batchSize = Math.min(permits, properties.getBatchLimit());
 
         Duration ticketTtl = properties.getTicketTtl();
         if (ticketTtl == null || ticketTtl.isZero() || ticketTtl.isNegative()) {
             log.warn("Ticket TTL is not configured properly, skipping scheduling cycle");
-            return;
+            return 0;
         }
+
+        List<String> targets = assignTargets(instances, batchSize);
+
+        // 발급 span 은 진입 시 샘플링된 유저의 enqueue span 을 링크로 묶어 유저별 대기 구간을 이어 준다.
+        Span span = tracer.spanBuilder("queue.promote").setAttribute("queue.batch_size", batchSize).startSpan();
+        CycleResult result;
+        Scope scope = span.makeCurrent();
+        try {
+            // 샤드 대기열은 head 병합이 필요해 항상 배치 경로로 발급한다.
+            result = properties.getPromotionMode() == PromotionMode.BATCH || redisRepository.isSharded()
+                    ? promoteInBatch(batchSize, targets, ticketTtl, nowEpochMillis, fencingToken, span)
+                    : promotePerUser(batchSize, targets, ticketTtl, nowEpochMillis, fencingToken, span);
+            span.setAttribute("queue.issued", result.issued());
+            span.setAttribute("queue.dropped", result.dropped());
+        } catch (RuntimeException ex) {
+            span.recordException(ex);
+            span.setStatus(StatusCode.ERROR);
+            throw ex;
+        } finally {
+            scope.close();
+            span.end();
+        }
+
+        if (result.dropped() > 0) {
+            droppedUsersCounter.increment(result.dropped());
+        }
+        queueMetrics.recordPromotionOutcome(PromotionOutcome.ISSUED.code(), result.issued());
+
+        if (result.issued() > 0) {
+            issuedCounter.increment(result.issued());
+            log.info("Issued {} tickets (softCap={}, current={}, joining={})",
+                    result.issued(), softCap, currentUsers, joiningUsers);
+        }
+
+        admissionPolicy.onIssued(result.issued(), nowEpochMillis);
+
+        // batch-limit 나 발급 속도 제한에 걸려 남은 슬롯이 있으면 다음 주기를 기다리지 않고 이어서 실행한다.
+        if (properties.getSchedulingMode() == SchedulingMode.EVENT_DRIVEN
+                && result.issued() == batchSize && availableSlots > batchSize) {
+            requestCycle(batchSize < permits ? 0 : admissionPolicy.nextCycleDelayMillis());
+        }
+        return result.issued();
+    }
+
+    /**
+     * 발급할 티켓마다 남은 여유(headroom)가 가장 큰 인스턴스를 고른다. 레지스트리가 비어 있으면 null
+     */
+    private List<String> assignTargets(List<GameServerInstance> instances, int count) {
+        if (instances.isEmpty()) {
+            return null;
+        }
+        PriorityQueue<long[]> byHeadroom = new PriorityQueue<>((a, b) -> Long.compare(b[0], a[0]));
+        for (int i = 0; i < instances.size(); i++) {
+            byHeadroom.add(new long[]{instances.get(i).headroom(properties.getDefaultSoftCap()), i});
+        }
+        List<String> targets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long[] best = byHeadroom.poll();
+            targets.add(instances.get((int) best[1]).id());
+            best[0]--;
+            byHeadroom.add(best);
+        }
+        return targets;
+    }
+
+    private CycleResult promoteInBatch(int batchSize,
+                                       List<String> targets,
+                                       Duration ticketTtl,
+                                       long nowEpochMillis,
+                                       long fencingToken,
+                                       Span span) {
+        List<String> ticketIds = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            ticketIds.add(UUID.randomUUID().toString());
+        }
+        int scanLimit = Math.max(batchSize, properties.getPromotionScanLimit());
+        Instant expireAt = Instant.now().plus(ticketTtl);
+        Timer.Sample promote = Timer.start();
+        List<PromotionResult> results = queueMetrics.redisTimer("promote_batch").record(
+                () -> redisRepository.promoteBatch(ticketIds, targets, expireAt, ticketTtl, nowEpochMillis,
+                        properties.getInactivityGrace(), scanLimit, fencingToken));
+        promote.stop(queueMetrics.phaseTimer("promote"));
+
+        int issued = 0;
+        int dropped = 0;
+        for (PromotionResult result : results) {
+            if (result.outcome() == PromotionOutcome.ISSUED) {
+                issued++;
+                queueMetrics.recordWaitTime(result.enqueuedAt(), nowEpochMillis);
+                linkJourney(span, result.traceparent(), result.userId(), result.ticketId(),
+                        nowEpochMillis - result.enqueuedAt());
+                continue;
+            }
+            dropped++;
+            queueMetrics.recordPromotionOutcome(result.outcome().code(), 1);
+            if (log.isDebugEnabled()) {
+                log.debug("Removed user {} from waiting queue ({})", result.userId(), result.outcome());
+            }
+        }
+        return new CycleResult(issued, dropped);
+    }
+
+    private CycleResult promotePerUser(int batchSize,
+                                       List<String> targets,
+                                       Duration ticketTtl,
+                                       long nowEpochMillis,
+                                       long fencingToken,
+                                       Span span) {
+        Timer.Sample candidateFetch = Timer.start();
+        Map<String, Long> candidates = queueMetrics.redisTimer("fetch_candidates").record(
+                () -> redisRepository.fetchNextBatch(batchSize));
+        candidateFetch.stop(queueMetrics.phaseTimer("candidate_fetch"));
+        if (candidates.isEmpty()) {
+            return CycleResult.EMPTY;
+        }
+
+        Timer.Sample promote = Timer.start();
         int issuedThisCycle = 0;
         int droppedThisCycle = 0;
-        for (String userId : candidates) {
-            Map<String, String> meta = redisRepository.fetchUserMeta(userId);
+        for (Map.Entry<String, Long> candidate : candidates.entrySet()) {
+            String userId = candidate.getKey();
+            Map<String, String> meta = queueMetrics.redisTimer("fetch_meta").record(
+                    () -> redisRepository.fetchUserMeta(userId));
             if (meta == null || meta.isEmpty()) {
-                dropWaitingUser(userId);
+                dropWaitingUser(userId, PromotionOutcome.DROPPED_MISSING);
                 droppedThisCycle++;
                 continue;
             }
 
             if (isInactive(meta, nowEpochMillis)) {
-                dropWaitingUser(userId);
+                dropWaitingUser(userId, PromotionOutcome.DROPPED_INACTIVE);
                 droppedThisCycle++;
                 if (log.isDebugEnabled()) {
                     log.debug("Removed inactive user {} from waiting queue", userId);
@@ -122,33 +412,49 @@ public class QueueScheduler {
 
             String nickname = meta.get("nickname");
             if (nickname == null || nickname.isBlank()) {
-                dropWaitingUser(userId);
+                dropWaitingUser(userId, PromotionOutcome.DROPPED_MISSING);
                 droppedThisCycle++;
                 continue;
             }
 
-            String ticketId = UUID.randomUUID().toString();
+            String ticketNonce = UUID.randomUUID().toString();
             Instant expireAt = Instant.now().plus(ticketTtl);
-            boolean promoted = redisRepository.promoteToJoining(userId, ticketId, expireAt, ticketTtl);
-            if (promoted) {
+            String target = targets != null ? targets.get(issuedThisCycle) : null;
+            String ticketId = queueMetrics.redisTimer("promote_user").record(
+                    () -> redisRepository.promoteToJoining(userId, meta.get("userId"), nickname, ticketNonce, target,
+                            expireAt, ticketTtl, fencingToken));
+            if (ticketId != null) {
                 issuedThisCycle++;
+                queueMetrics.recordWaitTime(candidate.getValue(), nowEpochMillis);
+                linkJourney(span, meta.get("traceparent"), userId, ticketId, nowEpochMillis - candidate.getValue());
+            } else {
+                // 조회와 발급 사이에 다른 경로(이탈, reaper)로 대기열에서 빠진 경우
+                queueMetrics.recordPromotionOutcome("rejected", 1);
             }
         }
+        promote.stop(queueMetrics.phaseTimer("promote"));
+        return new CycleResult(issuedThisCycle, droppedThisCycle);
+    }
 
-        if (droppedThisCycle > 0) {
-            droppedUsersCounter.increment(droppedThisCycle);
+    private static void linkJourney(Span span, String traceparent, String userId, String ticketId, long waitMillis) {
+        if (traceparent == null || traceparent.isEmpty()) {
+            return;
         }
-
-        if (issuedThisCycle > 0) {
-            issuedCounter.increment(issuedThisCycle);
-            log.info("Issued {} tickets (softCap={}, current={}, joining={})",
-                    issuedThisCycle, softCap, currentUsers, joiningUsers);
+        SpanContext journey = Span.fromContext(W3CTraceContextPropagator.getInstance()
+                .extract(Context.root(), traceparent, TRACEPARENT_GETTER)).getSpanContext();
+        if (journey.isValid()) {
+            // 서명 티켓은 그 자체가 입장 자격이므로 span 에는 nonce 만 남긴다
+            span.addLink(journey, Attributes.of(USER_ID, userId, TICKET_ID, SignedTickets.joiningMember(ticketId),
+                    WAIT_MS, waitMillis));
         }
     }
 
-    private void dropWaitingUser(String userId) {
-        redisRepository.removeFromWaiting(userId);
-        redisRepository.deleteWaitingMeta(userId);
+    private void dropWaitingUser(String userId, PromotionOutcome reason) {
+        queueMetrics.redisTimer("drop_user").record(() -> {
+            redisRepository.removeFromWaiting(userId);
+            redisRepository.deleteWaitingMeta(userId);
+        });
+        queueMetrics.recordPromotionOutcome(reason.code(), 1);
     }
 
     private boolean isInactive(Map<String, String> meta, long nowEpochMillis) {
@@ -171,4 +477,8 @@ public class QueueScheduler {
             return false;
         }
     }
+
+    private record CycleResult(int issued, int dropped) {
+        private static final CycleResult EMPTY = new CycleResult(0, 0);
+    }
 }
@@ -0,0 +1,10 @@
+package com.likelion.queuemanager.admission;
+
+/**
+ * 한 스케줄링 사이클 시점의 용량 스냅샷
+ */
+public record AdmissionContext(long nowEpochMillis,
+                               long availableSlots,
+                               long joiningUsers,
+                               long waitingUsers) {
+}
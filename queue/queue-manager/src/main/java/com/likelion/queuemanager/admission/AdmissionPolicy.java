@@ -0,0 +1,28 @@
+package com.likelion.queuemanager.admission;
+
+/**
+ * 사이클마다 몇 장의 티켓을 발급할지 결정한다.
+ */
+public interface AdmissionPolicy {
+
+    /**
+     * 이번 사이클에 발급할 수 있는 티켓 수. batch-limit 상한은 스케줄러가 따로 적용한다.
+     */
+    int permits(AdmissionContext context);
+
+    /**
+     * 실제로 발급된 수를 알려준다. permits 보다 적을 수 있다.
+     */
+    void onIssued(int issued, long nowEpochMillis);
+
+    /**
+     * 입장하지 않고 만료된 티켓 수를 알려준다.
+     */
+    default void onExpired(int expired) {
+    }
+
+    /**
+     * 허용량이 남았는데 정책 때문에 덜 발급한 경우 다음 사이클까지 기다릴 시간
+     */
+    long nextCycleDelayMillis();
+}
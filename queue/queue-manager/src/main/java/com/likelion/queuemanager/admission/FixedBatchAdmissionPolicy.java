@@ -0,0 +1,21 @@
+package com.likelion.queuemanager.admission;
+
+/**
+ * 기존 방식: 남은 슬롯만큼 한 번에 발급 (batch-limit 상한)
+ */
+public class FixedBatchAdmissionPolicy implements AdmissionPolicy {
+
+    @Override
+    public int permits(AdmissionContext context) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, context.availableSlots()));
+    }
+
+    @Override
+    public void onIssued(int issued, long nowEpochMillis) {
+    }
+
+    @Override
+    public long nextCycleDelayMillis() {
+        return 0;
+    }
+}
@@ -0,0 +1,100 @@
+package com.likelion.queuemanager.admission;
+
+import com.likelion.queuemanager.config.QueueManagerProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 토큰 버킷 기반 발급 속도 제어
+ * - 기본 rate 로 토큰을 채우고 burst 까지만 쌓아 한 사이클에 몰리는 발급을 막는다.
+ * - 빈 슬롯이 많으면 ramp-up-window 안에 채울 수 있도록 max-rate 까지 속도를 올린다.
+ * - 만료 티켓 비율(no-show)을 EWMA 로 학습해 joining 인원의 일부만큼 초과 발급한다 (max-over-admit 상한).
+ * 스케줄러 주기를 짧게(예: 100ms) 두면 사이클 안팎으로 고르게 분산된다.
+ */
+public class PacedAdmissionPolicy implements AdmissionPolicy {
+
+    private final QueueManagerProperties.Admission settings;
+
+    private double tokens;
+    private long lastRefillAt;
+    private volatile double targetRate;
+    private volatile double noShowRatio;
+    private long windowIssued;
+    private long windowExpired;
+
+    public PacedAdmissionPolicy(QueueManagerProperties.Admission settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.tokens = settings.getBurst();
+        this.targetRate = settings.getRate();
+
+        Gauge.builder("queue.admission.target_rate", this, policy -> policy.targetRate)
+                .description("Current ticket issuance rate target (tickets/s)")
+                .register(meterRegistry);
+        Gauge.builder("queue.admission.no_show_ratio", this, policy -> policy.noShowRatio)
+                .description("Learned ratio of issued tickets that expire unused")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized int permits(AdmissionContext context) {
+        long slots = context.availableSlots() + overAdmission(context.joiningUsers());
+        if (slots <= 0 || context.waitingUsers() <= 0) {
+            refill(context.nowEpochMillis(), settings.getRate());
+            return 0;
+        }
+
+        double rampRate = slots * 1000.0 / Math.max(1, settings.getRampUpWindow().toMillis());
+        double rate = Math.min(settings.getMaxRate(), Math.max(settings.getRate(), rampRate));
+        targetRate = rate;
+        refill(context.nowEpochMillis(), rate);
+
+        long allowed = Math.min(slots, (long) Math.floor(tokens));
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, allowed));
+    }
+
+    @Override
+    public synchronized void onIssued(int issued, long nowEpochMillis) {
+        tokens = Math.max(0, tokens - issued);
+        windowIssued += issued;
+        learnNoShow();
+    }
+
+    @Override
+    public synchronized void onExpired(int expired) {
+        windowExpired += expired;
+        learnNoShow();
+    }
+
+    @Override
+    public long nextCycleDelayMillis() {
+        double rate = targetRate;
+        long tokenMillis = rate > 0 ? (long) Math.ceil(1000.0 / rate) : settings.getPaceInterval().toMillis();
+        return Math.max(settings.getPaceInterval().toMillis(), tokenMillis);
+    }
+
+    private void refill(long nowEpochMillis, double rate) {
+        if (lastRefillAt > 0 && nowEpochMillis > lastRefillAt) {
+            // 버킷 크기는 속도와 사이클 간격에 맞춰 커져야 한 사이클 분량을 담을 수 있다.
+            long elapsedMillis = nowEpochMillis - lastRefillAt;
+            long windowMillis = Math.max(settings.getPaceInterval().toMillis(), elapsedMillis);
+            double capacity = Math.max(settings.getBurst(), rate * windowMillis / 1000.0);
+            tokens = Math.min(capacity, tokens + rate * elapsedMillis / 1000.0);
+        }
+        lastRefillAt = nowEpochMillis;
+    }
+
+    private long overAdmission(long joiningUsers) {
+        double ratio = Math.min(noShowRatio, settings.getMaxOverAdmit());
+        return (long) Math.floor(joiningUsers * ratio);
+    }
+
+    private void learnNoShow() {
+        if (windowIssued < settings.getNoShowMinSample()) {
+            return;
+        }
+        double sample = Math.min(1.0, (double) windowExpired / windowIssued);
+        noShowRatio = noShowRatio + settings.getNoShowAlpha() * (sample - noShowRatio);
+        windowIssued = 0;
+        windowExpired = 0;
+    }
+}
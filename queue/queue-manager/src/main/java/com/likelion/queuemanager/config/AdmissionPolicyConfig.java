@@ -0,0 +1,21 @@
+package com.likelion.queuemanager.config;
+
+import com.likelion.queuemanager.admission.AdmissionPolicy;
+import com.likelion.queuemanager.admission.FixedBatchAdmissionPolicy;
+import com.likelion.queuemanager.admission.PacedAdmissionPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AdmissionPolicyConfig {
+
+    @Bean
+    public AdmissionPolicy admissionPolicy(QueueManagerProperties properties, MeterRegistry meterRegistry) {
+        QueueManagerProperties.Admission admission = properties.getAdmission();
+        return switch (admission.getPolicy()) {
+            case FIXED -> new FixedBatchAdmissionPolicy();
+            case PACED -> new PacedAdmissionPolicy(admission, meterRegistry);
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.likelion.queuemanager.config;
+
+import com.likelion.queue.common.QueueRedisKeys;
+import com.likelion.queue.common.QueueShards;
+import com.likelion.queuemanager.QueueScheduler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * EVENT_DRIVEN 모드에서 용량 변화 신호를 구독한다.
+ * - queue:capacity: chat-server 퇴장/soft cap 증가, 빈 대기열에 첫 유저 진입
+ * - __keyevent@*__:expired: 미사용 티켓 해시 만료 (Valkey notify-keyspace-events 에 Ex 필요)
+ * 티켓 해시가 없는 서명 티켓의 만료는 QueueScheduler 가 joining 인덱스의 다음 만료 시각에 직접 깨운다.
+ * AOT 처리는 조건부 빈을 빌드 시점에 고정하므로 @ConditionalOnProperty 대신 실행 시점 설정으로 리스너 등록 여부를 정한다.
+ * FIXED 모드에서는 리스너가 없어 컨테이너가 구독하지 않는다.
+ */
+@Configuration
+public class CapacitySignalConfig {
+
+    private static final String EXPIRED_EVENTS = "__keyevent@*__:expired";
+
+    @Bean
+    public RedisMessageListenerContainer capacitySignalListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                        QueueScheduler queueScheduler,
+                                                                        QueueManagerProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (properties.getSchedulingMode() != QueueManagerProperties.SchedulingMode.EVENT_DRIVEN) {
+            return container;
+        }
+        container.addMessageListener((message, pattern) -> queueScheduler.requestCycle(),
+                new ChannelTopic(QueueRedisKeys.CAPACITY_CHANNEL));
+        container.addMessageListener((message, pattern) -> {
+            String expiredKey = new String(message.getBody(), StandardCharsets.UTF_8);
+            if (QueueShards.isTicketKey(expiredKey)) {
+                queueScheduler.requestCycle();
+            }
+        }, new PatternTopic(EXPIRED_EVENTS));
+        return container;
+    }
+}
@@ -1,5 +1,6 @@
 package com.likelion.queuemanager.config;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.convert.DurationUnit;
@@ -8,6 +9,8 @@ import org.springframework.validation.annotation.Validated;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
 
 @Validated
 @Component("queueManagerProperties")
@@ -26,11 +29,57 @@ public class QueueManagerProperties {
     @Positive
     private long defaultSoftCap = 1000;
 
+    // queue-api 의 polling.inactivity-grace 와 같은 값 (폴링 힌트 상한이 이 값의 1/3)
     @DurationUnit(ChronoUnit.SECONDS)
     private Duration inactivityGrace = Duration.ofSeconds(30);
+
+    private PromotionMode promotionMode = PromotionMode.BATCH;
+
+    @Positive
+    private int promotionScanLimit = 500;
+
+    // 입장률 EWMA 시간 상수. 사이클 간격이 달라도 표본은 경과 시간만큼만 반영된다.
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration admissionRateWindow = Duration.ofSeconds(5);
+
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration admissionRateTtl = Duration.ofSeconds(30);
 
+    private SchedulingMode schedulingMode = SchedulingMode.FIXED;
+
+    @DurationUnit(ChronoUnit.MILLIS)
+    private Duration triggerDebounce = Duration.ofMillis(50);
+
+    @DurationUnit(ChronoUnit.MILLIS)
+    private Duration safetyNetInterval = Duration.ofSeconds(5);
+
+    @Positive
+    private int expiredCleanupBatchSize = 500;
+
+    @Positive
+    private int expiredCleanupMaxBatches = 4;
+
+    @Positive
+    private int shardCount = 1;
+
+    @DurationUnit(ChronoUnit.SECONDS)
+    private Duration gameServerHeartbeatTimeout = Duration.ofSeconds(45);
+
+    @Valid
+    private final Admission admission = new Admission();
+
+    @Valid
+    private final Reaper reaper = new Reaper();
+
+    @Valid
+    private final Leader leader = new Leader();
+
+    @Valid
+    private final TicketSigning ticketSigning = new TicketSigning();
+
     public long scheduleIntervalMillis() {
-        long millis = scheduleInterval.toMillis();
+        Duration interval = schedulingMode == SchedulingMode.EVENT_DRIVEN ? safetyNetInterval : scheduleInterval;
+        long millis = interval.toMillis();
         return millis > 0 ? millis : Duration.ofSeconds(1).toMillis();
     }
 
@@ -83,4 +132,451 @@ public class QueueManagerProperties {
             this.inactivityGrace = inactivityGrace;
         }
     }
+
+    public PromotionMode getPromotionMode() {
+        return promotionMode;
+    }
+
+    public void setPromotionMode(PromotionMode promotionMode) {
+        if (promotionMode != null) {
+            this.promotionMode = promotionMode;
+        }
+    }
+
+    public int getPromotionScanLimit() {
+        return promotionScanLimit;
+    }
+
+    public void setPromotionScanLimit(int promotionScanLimit) {
+        if (promotionScanLimit > 0) {
+            this.promotionScanLimit = promotionScanLimit;
+        }
+    }
+
+    public Duration getAdmissionRateWindow() {
+        return admissionRateWindow;
+    }
+
+    public void setAdmissionRateWindow(Duration admissionRateWindow) {
+        if (admissionRateWindow != null && !admissionRateWindow.isZero() && !admissionRateWindow.isNegative()) {
+            this.admissionRateWindow = admissionRateWindow;
+        }
+    }
+
+    public Duration getAdmissionRateTtl() {
+        return admissionRateTtl;
+    }
+
+    public void setAdmissionRateTtl(Duration admissionRateTtl) {
+        if (admissionRateTtl != null && !admissionRateTtl.isZero() && !admissionRateTtl.isNegative()) {
+            this.admissionRateTtl = admissionRateTtl;
+        }
+    }
+
+    public SchedulingMode getSchedulingMode() {
+        return schedulingMode;
+    }
+
+    public void setSchedulingMode(SchedulingMode schedulingMode) {
+        if (schedulingMode != null) {
+            this.schedulingMode = schedulingMode;
+        }
+    }
+
+    public Duration getTriggerDebounce() {
+        return triggerDebounce;
+    }
+
+    public void setTriggerDebounce(Duration triggerDebounce) {
+        if (triggerDebounce != null && !triggerDebounce.isNegative()) {
+            this.triggerDebounce = triggerDebounce;
+        }
+    }
+
+    public Duration getSafetyNetInterval() {
+        return safetyNetInterval;
+    }
+
+    public void setSafetyNetInterval(Duration safetyNetInterval) {
+        if (safetyNetInterval != null && !safetyNetInterval.isZero() && !safetyNetInterval.isNegative()) {
+            this.safetyNetInterval = safetyNetInterval;
+        }
+    }
+
+    public int getExpiredCleanupBatchSize() {
+        return expiredCleanupBatchSize;
+    }
+
+    public void setExpiredCleanupBatchSize(int expiredCleanupBatchSize) {
+        if (expiredCleanupBatchSize > 0) {
+            this.expiredCleanupBatchSize = expiredCleanupBatchSize;
+        }
+    }
+
+    public int getExpiredCleanupMaxBatches() {
+        return expiredCleanupMaxBatches;
+    }
+
+    public void setExpiredCleanupMaxBatches(int expiredCleanupMaxBatches) {
+        if (expiredCleanupMaxBatches > 0) {
+            this.expiredCleanupMaxBatches = expiredCleanupMaxBatches;
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount) {
+        if (shardCount > 0) {
+            this.shardCount = shardCount;
+        }
+    }
+
+    public Duration getGameServerHeartbeatTimeout() {
+        return gameServerHeartbeatTimeout;
+    }
+
+    public void setGameServerHeartbeatTimeout(Duration gameServerHeartbeatTimeout) {
+        if (gameServerHeartbeatTimeout != null && !gameServerHeartbeatTimeout.isZero()
+                && !gameServerHeartbeatTimeout.isNegative()) {
+            this.gameServerHeartbeatTimeout = gameServerHeartbeatTimeout;
+        }
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    public Reaper getReaper() {
+        return reaper;
+    }
+
+    public Leader getLeader() {
+        return leader;
+    }
+
+    public TicketSigning getTicketSigning() {
+        return ticketSigning;
+    }
+
+    /**
+     * 티켓 발급 방식
+     * PER_USER: 유저마다 메타 조회 + PROMOTE_SCRIPT 호출
+     * BATCH: 한 번의 Lua 호출로 대기열 head를 꺼내며 일괄 발급
+     */
+    public enum PromotionMode {
+        PER_USER,
+        BATCH
+    }
+
+    /**
+     * 스케줄링 방식
+     * FIXED: schedule-interval 주기로만 실행
+     * EVENT_DRIVEN: 용량 변화 신호를 받으면 즉시 실행, 주기 실행은 safety-net-interval 로 안전망 역할만 한다
+     */
+    public enum SchedulingMode {
+        FIXED,
+        EVENT_DRIVEN
+    }
+
+    /**
+     * 발급 속도 제어 설정 (queue.manager.admission.*)
+     */
+    public static class Admission {
+
+        private AdmissionPolicyType policy = AdmissionPolicyType.FIXED;
+
+        @Positive
+        private double rate = 100;
+
+        @Positive
+        private double maxRate = 2000;
+
+        @Positive
+        private int burst = 50;
+
+        @DurationUnit(ChronoUnit.MILLIS)
+        private Duration rampUpWindow = Duration.ofSeconds(2);
+
+        @DurationUnit(ChronoUnit.MILLIS)
+        private Duration paceInterval = Duration.ofMillis(100);
+
+        private double maxOverAdmit = 0.2;
+
+        private double noShowAlpha = 0.2;
+
+        @Positive
+        private int noShowMinSample = 50;
+
+        public AdmissionPolicyType getPolicy() {
+            return policy;
+        }
+
+        public void setPolicy(AdmissionPolicyType policy) {
+            if (policy != null) {
+                this.policy = policy;
+            }
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            if (rate > 0) {
+                this.rate = rate;
+            }
+        }
+
+        public double getMaxRate() {
+            return maxRate;
+        }
+
+        public void setMaxRate(double maxRate) {
+            if (maxRate > 0) {
+                this.maxRate = maxRate;
+            }
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            if (burst > 0) {
+                this.burst = burst;
+            }
+        }
+
+        public Duration getRampUpWindow() {
+            return rampUpWindow;
+        }
+
+        public void setRampUpWindow(Duration rampUpWindow) {
+            if (rampUpWindow != null && !rampUpWindow.isZero() && !rampUpWindow.isNegative()) {
+                this.rampUpWindow = rampUpWindow;
+            }
+        }
+
+        public Duration getPaceInterval() {
+            return paceInterval;
+        }
+
+        public void setPaceInterval(Duration paceInterval) {
+            if (paceInterval != null && !paceInterval.isZero() && !paceInterval.isNegative()) {
+                this.paceInterval = paceInterval;
+            }
+        }
+
+        public double getMaxOverAdmit() {
+            return maxOverAdmit;
+        }
+
+        public void setMaxOverAdmit(double maxOverAdmit) {
+            if (maxOverAdmit >= 0 && maxOverAdmit <= 1) {
+                this.maxOverAdmit = maxOverAdmit;
+            }
+        }
+
+        public double getNoShowAlpha() {
+            return noShowAlpha;
+        }
+
+        public void setNoShowAlpha(double noShowAlpha) {
+            if (noShowAlpha > 0 && noShowAlpha <= 1) {
+                this.noShowAlpha = noShowAlpha;
+            }
+        }
+
+        public int getNoShowMinSample() {
+            return noShowMinSample;
+        }
+
+        public void setNoShowMinSample(int noShowMinSample) {
+            if (noShowMinSample > 0) {
+                this.noShowMinSample = noShowMinSample;
+            }
+        }
+    }
+
+    /**
+     * 비활성/고아 대기자 정리 설정 (queue.manager.reaper.*)
+     * 한 번 실행할 때 batch-size 단위 Lua 호출을 최대 max-batches 번까지만 수행한다.
+     */
+    public static class Reaper {
+
+        private boolean enabled = true;
+
+        @DurationUnit(ChronoUnit.MILLIS)
+        private Duration interval = Duration.ofSeconds(5);
+
+        @Positive
+        private int batchSize = 200;
+
+        @Positive
+        private int maxBatches = 10;
+
+        public long intervalMillis() {
+            return interval.toMillis();
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            if (interval != null && !interval.isZero() && !interval.isNegative()) {
+                this.interval = interval;
+            }
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            if (batchSize > 0) {
+                this.batchSize = batchSize;
+            }
+        }
+
+        public int getMaxBatches() {
+            return maxBatches;
+        }
+
+        public void setMaxBatches(int maxBatches) {
+            if (maxBatches > 0) {
+                this.maxBatches = maxBatches;
+            }
+        }
+    }
+
+    /**
+     * 리더 임대 설정 (queue.manager.leader.*)
+     * 여러 replica 중 lease-ttl 동안 임대를 쥔 한 대만 발급/정리를 수행하고 나머지는 대기한다.
+     * renew-interval 은 lease-ttl 보다 충분히 짧아야 한다. (기본 1/3)
+     */
+    public static class Leader {
+
+        private boolean enabled = true;
+
+        @DurationUnit(ChronoUnit.MILLIS)
+        private Duration leaseTtl = Duration.ofSeconds(3);
+
+        @DurationUnit(ChronoUnit.MILLIS)
+        private Duration renewInterval = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getLeaseTtl() {
+            return leaseTtl;
+        }
+
+        public void setLeaseTtl(Duration leaseTtl) {
+            if (leaseTtl != null && !leaseTtl.isZero() && !leaseTtl.isNegative()) {
+                this.leaseTtl = leaseTtl;
+            }
+        }
+
+        public Duration getRenewInterval() {
+            return renewInterval;
+        }
+
+        public void setRenewInterval(Duration renewInterval) {
+            if (renewInterval != null && !renewInterval.isZero() && !renewInterval.isNegative()) {
+                this.renewInterval = renewInterval;
+            }
+        }
+    }
+
+    /**
+     * 서명 티켓 설정 (queue.manager.ticket-signing.*)
+     * 켜면 ticketId 대신 게임 서버가 로컬에서 검증할 수 있는 HMAC-SHA256 서명 토큰을 발급한다.
+     * keys 의 secret 은 base64 로 인코딩한 16 바이트 이상. active-key-id 키로 서명하고, 게임 서버에 같은 키가 먼저 등록돼 있어야 한다.
+     * 키 교체: 새 키를 keys 에 추가(게임 서버에도) -> active-key-id 변경 -> 티켓 TTL 이 지나면 이전 키 제거
+     */
+    public static class TicketSigning {
+
+        private boolean enabled = false;
+
+        private String activeKeyId;
+
+        private List<Key> keys = new ArrayList<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getActiveKeyId() {
+            return activeKeyId;
+        }
+
+        public void setActiveKeyId(String activeKeyId) {
+            if (activeKeyId != null && !activeKeyId.isBlank()) {
+                this.activeKeyId = activeKeyId.trim();
+            }
+        }
+
+        public List<Key> getKeys() {
+            return keys;
+        }
+
+        public void setKeys(List<Key> keys) {
+            if (keys != null) {
+                this.keys = keys;
+            }
+        }
+    }
+
+    /**
+     * 서명 키 한 개 (queue.manager.ticket-signing.keys[n].*)
+     */
+    public static class Key {
+
+        private String id;
+
+        private String secret;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            if (id != null && !id.isBlank()) {
+                this.id = id.trim();
+            }
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+    }
+
+    public enum AdmissionPolicyType {
+        FIXED,
+        PACED
+    }
 }
@@ -0,0 +1,17 @@
+package com.likelion.queuemanager.config;
+
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * AOT 처리(빠른 기동 모드)에서 자동으로 잡히지 않는 런타임 힌트.
+ * OpenTelemetry autoconfigure 는 ServiceLoader 로 exporter/propagator 를 찾는다.
+ * Lua 스크립트는 클래스 안의 문자열이라 리소스 힌트가 필요 없다.
+ */
+public class QueueManagerRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources().registerPattern("META-INF/services/io.opentelemetry.*");
+    }
+}
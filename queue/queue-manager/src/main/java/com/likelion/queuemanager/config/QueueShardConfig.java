@@ -0,0 +1,17 @@
+package com.likelion.queuemanager.config;
+
+import com.likelion.queue.common.QueueShards;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 대기열 샤드 수 설정. queue-api 의 queue.api.shard-count 와 반드시 같은 값이어야 한다.
+ */
+@Configuration
+public class QueueShardConfig {
+
+    @Bean
+    public QueueShards queueShards(QueueManagerProperties properties) {
+        return new QueueShards(properties.getShardCount());
+    }
+}
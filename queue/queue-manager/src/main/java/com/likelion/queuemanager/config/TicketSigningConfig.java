@@ -0,0 +1,33 @@
+package com.likelion.queuemanager.config;
+
+import com.likelion.queue.common.SignedTickets;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 서명 티켓 발급 키. 꺼져 있으면 ticketId 를 그대로 쓰는 SignedTickets 를 등록한다.
+ * active-key-id 가 없으면 keys 의 첫 번째 키로 서명한다.
+ */
+@Configuration
+public class TicketSigningConfig {
+
+    @Bean
+    public SignedTickets signedTickets(QueueManagerProperties properties) {
+        QueueManagerProperties.TicketSigning settings = properties.getTicketSigning();
+        if (!settings.isEnabled()) {
+            return SignedTickets.disabled();
+        }
+        List<SignedTickets.SigningKey> keys = new ArrayList<>(settings.getKeys().size());
+        for (QueueManagerProperties.Key key : settings.getKeys()) {
+            keys.add(SignedTickets.SigningKey.fromBase64(key.getId(), key.getSecret()));
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("queue.manager.ticket-signing.keys is required when signing is enabled");
+        }
+        String activeKeyId = settings.getActiveKeyId() != null ? settings.getActiveKeyId() : keys.get(0).id();
+        return new SignedTickets(keys, activeKeyId);
+    }
+}
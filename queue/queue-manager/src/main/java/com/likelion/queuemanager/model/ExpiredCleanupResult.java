@@ -0,0 +1,10 @@
+package com.likelion.queuemanager.model;
+
+/**
+ * 만료 티켓 정리 한 번의 결과.
+ * backlog 는 정리 후에도 남아 있는 만료 티켓 수다.
+ */
+public record ExpiredCleanupResult(long removed, long backlog) {
+
+    public static final ExpiredCleanupResult EMPTY = new ExpiredCleanupResult(0, 0);
+}
@@ -0,0 +1,12 @@
+package com.likelion.queuemanager.model;
+
+/**
+ * 하트비트가 살아 있는 게임 서버 인스턴스 하나의 상태
+ * joiningUsers 는 이 인스턴스로 배정됐지만 아직 접속하지 않은 티켓 수
+ */
+public record GameServerInstance(String id, ServerStatus status, long joiningUsers) {
+
+    public long headroom(long defaultSoftCap) {
+        return status.resolveSoftCap(defaultSoftCap) - status.currentUsers() - joiningUsers;
+    }
+}
@@ -0,0 +1,30 @@
+package com.likelion.queuemanager.model;
+
+public enum PromotionOutcome {
+    ISSUED("issued"),
+    DROPPED_MISSING("missing"),
+    DROPPED_INACTIVE("inactive");
+
+    private final String code;
+
+    PromotionOutcome(String code) {
+        this.code = code;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    public boolean isDropped() {
+        return this != ISSUED;
+    }
+
+    public static PromotionOutcome fromCode(String code) {
+        for (PromotionOutcome outcome : values()) {
+            if (outcome.code.equals(code)) {
+                return outcome;
+            }
+        }
+        throw new IllegalArgumentException("Unknown promotion outcome: " + code);
+    }
+}
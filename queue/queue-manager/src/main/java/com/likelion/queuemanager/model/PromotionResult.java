@@ -0,0 +1,11 @@
+package com.likelion.queuemanager.model;
+
+/**
+ * enqueuedAt: 대기열 score (진입 시각 epoch millis), traceparent: 진입 span (샘플링되지 않았으면 null)
+ */
+public record PromotionResult(String userId,
+                              PromotionOutcome outcome,
+                              String ticketId,
+                              long enqueuedAt,
+                              String traceparent) {
+}
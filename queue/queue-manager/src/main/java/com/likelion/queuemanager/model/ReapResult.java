@@ -0,0 +1,10 @@
+package com.likelion.queuemanager.model;
+
+/**
+ * reaper 한 번 실행 결과.
+ * inactive 정리에서는 {@code next} 가 인덱스에서 꺼낸 항목 수, orphan 정리에서는 다음 커서(끝이면 0)다.
+ */
+public record ReapResult(long removed, long next) {
+
+    public static final ReapResult EMPTY = new ReapResult(0, 0);
+}
@@ -0,0 +1,18 @@
+package com.likelion.queuemanager.repository;
+
+/**
+ * 더 큰 fencing 토큰을 가진 리더가 이미 있어 쓰기 스크립트가 거부됐을 때 던진다.
+ */
+public class FencingTokenRejectedException extends RuntimeException {
+
+    private final long token;
+
+    public FencingTokenRejectedException(long token) {
+        super("Fencing token " + token + " was rejected by a newer leader");
+        this.token = token;
+    }
+
+    public long getToken() {
+        return token;
+    }
+}
@@ -1,15 +1,29 @@
 package com.likelion.queuemanager.repository;
 
+import com.likelion.queue.common.CompactLayout;
 import com.likelion.queue.common.QueueRedisKeys;
+import com.likelion.queue.common.QueueShards;
+import com.likelion.queue.common.SignedTickets;
+import com.likelion.queuemanager.model.ExpiredCleanupResult;
+import com.likelion.queuemanager.model.GameServerInstance;
+import com.likelion.queuemanager.model.PromotionOutcome;
+import com.likelion.queuemanager.model.PromotionResult;
+import com.likelion.queuemanager.model.ReapResult;
 import com.likelion.queuemanager.model.ServerStatus;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.zset.Tuple;
 import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Repository;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 @Repository
@@ -17,50 +31,396 @@ public class QueueManagerRepository {
 
     private static final String WAITING_QUEUE_KEY = QueueRedisKeys.WAITING_QUEUE;
     private static final String WAITING_META_PREFIX = QueueRedisKeys.WAITING_META_PREFIX;
+    private static final String WAITING_LAST_SEEN_KEY = QueueRedisKeys.WAITING_LAST_SEEN;
     private static final String JOINING_TICKETS_KEY = QueueRedisKeys.JOINING_TICKETS;
     private static final String JOINING_TICKET_PREFIX = QueueRedisKeys.JOINING_TICKET_PREFIX;
     private static final String SERVER_STATUS_KEY = QueueRedisKeys.SERVER_STATUS;
+    private static final String GAME_SERVER_INSTANCES_KEY = QueueRedisKeys.GAME_SERVER_INSTANCES;
+    private static final String GAME_SERVER_INSTANCE_PREFIX = QueueRedisKeys.GAME_SERVER_INSTANCE_PREFIX;
+    private static final String GAME_SERVER_JOINING_SUFFIX = QueueRedisKeys.GAME_SERVER_JOINING_SUFFIX;
+    private static final String PROMOTION_CHANNEL = QueueRedisKeys.PROMOTION_CHANNEL;
+    private static final String ADMISSION_RATE_KEY = QueueRedisKeys.ADMISSION_RATE;
+    private static final String MANAGER_LEADER_KEY = QueueRedisKeys.MANAGER_LEADER;
+    private static final String MANAGER_FENCE_KEY = QueueRedisKeys.MANAGER_FENCE;
+    private static final String FENCED_ERROR = "FENCED";
+    // 확정 단계에서 건너뛴 발급 후보의 자리를 같은 주기 안에서 다시 채우는 최대 횟수
+    private static final int MAX_TOP_UP_ROUNDS = 2;
+
+    /**
+     * 리더 임대를 쓰지 않을 때 쓰기 스크립트에 넘기는 토큰 (fencing 검사 생략)
+     */
+    public static final long UNFENCED = -1;
+
+    // 쓰기 스크립트 공통 fencing 검사. 토큰이 -1 이면(리더 임대 비활성) 검사하지 않는다.
+    // 그 밖에 0 이하인 토큰은 임대를 잃은 리더가 보낸 것이므로 거부한다.
+    private static final String FENCING_FUNCTIONS = """
+        local function fenced(fenceKey, token)
+          token = tonumber(token)
+          if token == -1 then
+            return false
+          end
+          if not token or token <= 0 then
+            return true
+          end
+          return tonumber(redis.call('GET', fenceKey) or '0') > token
+        end
+        """;
 
     private static final DefaultRedisScript<Long> PROMOTE_SCRIPT;
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> BATCH_PROMOTE_SCRIPT;
+    private static final DefaultRedisScript<Long> REAP_INACTIVE_SCRIPT;
+    private static final DefaultRedisScript<Long> REAP_ORPHAN_SCRIPT;
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLEANUP_EXPIRED_SCRIPT;
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> PRUNE_INSTANCE_JOINING_SCRIPT;
+    private static final DefaultRedisScript<Long> ACQUIRE_LEADER_SCRIPT;
+    private static final DefaultRedisScript<Long> RENEW_LEADER_SCRIPT;
+    private static final DefaultRedisScript<Long> RELEASE_LEADER_SCRIPT;
+    private static final DefaultRedisScript<Long> RAISE_FENCE_SCRIPT;
 
     static {
+        // compact 유저(KEYS[2] 가 버킷 해시)는 발급 시 버킷 필드를 지우고 queue:granted:{userId} 에 티켓을 남긴다.
+        // 배정된 게임 서버(ARGV[7])가 있으면 티켓 해시 target 필드와 인스턴스별 joining 인덱스(KEYS[8])에 기록한다.
+        // 진입 시 남긴 traceparent 가 있으면 티켓 해시로 옮겨 게임 서버 입장 span 이 링크할 수 있게 한다.
+        // 서명 티켓이면 ARGV[8] 이 토큰의 nonce 이고 티켓 해시 없이 nonce 만 joining 인덱스에 넣는다. (KEYS[4] 는 쓰지 않음)
         PROMOTE_SCRIPT = new DefaultRedisScript<>();
         PROMOTE_SCRIPT.setResultType(Long.class);
-        PROMOTE_SCRIPT.setScriptText(
+        PROMOTE_SCRIPT.setScriptText(CompactLayout.LUA_FUNCTIONS + FENCING_FUNCTIONS +
             """
+                if fenced(KEYS[7], ARGV[6]) then
+                  return redis.error_reply('FENCED')
+                end
                 local waitingKey = KEYS[1]
                 local metaKey = KEYS[2]
                 local joiningKey = KEYS[3]
                 local ticketKey = KEYS[4]
+                local lastSeenKey = KEYS[5]
+                local grantedKey = KEYS[6]
                 local userId = ARGV[1]
                 local ticketId = ARGV[2]
                 local expireAt = tonumber(ARGV[3])
                 local ttlSeconds = tonumber(ARGV[4])
+                local channel = ARGV[5]
+                local target = ARGV[7]
+                local member = ARGV[8]
+                local compact = isCompact(userId)
                 if redis.call('ZSCORE', waitingKey, userId) == false then
+                  redis.call('ZREM', lastSeenKey, userId)
                   return 0
                 end
-                if redis.call('EXISTS', metaKey) == 0 then
-                  redis.call('ZREM', waitingKey, userId)
-                  return 0
+                local nickname
+                local traceparent = ''
+                local storedUserId = userId
+                if compact then
+                  nickname, traceparent = splitMeta(redis.call('HGET', metaKey, userId))
+                else
+                  local meta = redis.call('HMGET', metaKey, 'nickname', 'userId', 'traceparent')
+                  nickname = meta[1]
+                  if meta[2] and meta[2] ~= '' then
+                    storedUserId = meta[2]
+                  end
+                  traceparent = meta[3] or ''
                 end
-                local nickname = redis.call('HGET', metaKey, 'nickname')
                 if not nickname or nickname == '' then
-                  redis.call('DEL', metaKey)
+                  if compact then
+                    redis.call('HDEL', metaKey, userId)
+                  else
+                    redis.call('DEL', metaKey)
+                  end
                   redis.call('ZREM', waitingKey, userId)
+                  redis.call('ZREM', lastSeenKey, userId)
                   return 0
                 end
-                local storedUserId = redis.call('HGET', metaKey, 'userId')
-                if not storedUserId or storedUserId == '' then
-                  storedUserId = userId
+                local signed = member ~= ticketId
+                if not signed then
+                  redis.call('HSET', ticketKey,
+                    'ticketId', ticketId,
+                    'userId', storedUserId,
+                    'nickname', nickname)
+                  if traceparent ~= '' then
+                    redis.call('HSET', ticketKey, 'traceparent', traceparent)
+                  end
+                  redis.call('EXPIRE', ticketKey, ttlSeconds)
+                end
+                local grant = ticketId
+                if target ~= '' then
+                  if not signed then
+                    redis.call('HSET', ticketKey, 'target', target)
+                  end
+                  redis.call('ZADD', KEYS[8], expireAt, member)
+                  grant = ticketId .. ' ' .. target
                 end
-                redis.call('HSET', ticketKey,
-                  'ticketId', ticketId,
-                  'userId', storedUserId,
-                  'nickname', nickname)
-                redis.call('EXPIRE', ticketKey, ttlSeconds)
                 redis.call('ZREM', waitingKey, userId)
-                redis.call('HSET', metaKey, 'ticketId', ticketId)
-                redis.call('ZADD', joiningKey, expireAt, ticketId)
+                redis.call('ZREM', lastSeenKey, userId)
+                if compact then
+                  redis.call('HDEL', metaKey, userId)
+                  redis.call('SET', grantedKey, grant, 'EX', ttlSeconds)
+                else
+                  redis.call('HSET', metaKey, 'ticketId', ticketId, 'target', target, 'expireAt', ARGV[3])
+                end
+                redis.call('ZADD', joiningKey, expireAt, member)
+                redis.call('PUBLISH', channel, '@' .. ARGV[3] .. '\\n' .. userId .. ' ' .. grant)
+                return 1"""
+        );
+
+        // promoteBatch 가 고른 후보를 한 번에 확정한다. 후보가 건드리는 키는 모두 KEYS 로 받는다.
+        // KEYS: 대기열, last-seen 인덱스, JOINING_TICKETS, fencing 키, 후보마다 {메타, 발급 기록, 티켓 해시, 인스턴스 joining}
+        // ARGV: fencing 토큰, 만료 시각, 티켓 TTL(초), 비활성 cutoff, 채널,
+        //       후보마다 {userId, 판정, ticketId, target, nickname, joining 멤버}
+        // 고른 뒤 상태가 바뀐 후보(이미 빠짐, 다시 활동함, 메타가 생기거나 사라짐, 닉네임이 바뀜)는 건드리지 않고 건너뛴다.
+        // 발급되지 않은 후보의 티켓 해시/인스턴스 joining 자리에는 JOINING_TICKETS 를 넣는다. (쓰지 않음)
+        // 서명 티켓은 joining 멤버가 nonce 이고 티켓 해시를 만들지 않는다. (티켓 해시 자리에도 JOINING_TICKETS)
+        // 발급 결과는 "@expireAt" 줄 뒤에 "userId ticketId [target]" 줄 단위로 묶어 PROMOTION_CHANNEL 에 한 번 발행한다.
+        // 반환값: {userId, outcome, ticketId, traceparent} 반복 (건너뛴 후보는 제외)
+        BATCH_PROMOTE_SCRIPT = new DefaultRedisScript<>();
+        BATCH_PROMOTE_SCRIPT.setResultType(List.class);
+        BATCH_PROMOTE_SCRIPT.setScriptText(CompactLayout.LUA_FUNCTIONS + FENCING_FUNCTIONS +
+            """
+                if fenced(KEYS[4], ARGV[1]) then
+                  return redis.error_reply('FENCED')
+                end
+                local waitingKey = KEYS[1]
+                local lastSeenKey = KEYS[2]
+                local joiningKey = KEYS[3]
+                local expireAt = tonumber(ARGV[2])
+                local ttlSeconds = tonumber(ARGV[3])
+                local cutoff = tonumber(ARGV[4])
+                local channel = ARGV[5]
+                local results = {}
+                local promotions = {}
+                for i = 0, (#KEYS - 4) / 4 - 1 do
+                  local metaKey = KEYS[5 + i * 4]
+                  local grantedKey = KEYS[6 + i * 4]
+                  local ticketKey = KEYS[7 + i * 4]
+                  local targetJoiningKey = KEYS[8 + i * 4]
+                  local userId = ARGV[6 + i * 6]
+                  local outcome = ARGV[7 + i * 6]
+                  local ticketId = ARGV[8 + i * 6]
+                  local target = ARGV[9 + i * 6]
+                  local plannedNickname = ARGV[10 + i * 6]
+                  local member = ARGV[11 + i * 6]
+                  local compact = isCompact(userId)
+                  local nickname
+                  local traceparent = ''
+                  local storedUserId = userId
+                  if compact then
+                    nickname, traceparent = splitMeta(redis.call('HGET', metaKey, userId))
+                  else
+                    local meta = redis.call('HMGET', metaKey, 'nickname', 'userId', 'traceparent')
+                    nickname = meta[1]
+                    if meta[2] and meta[2] ~= '' then
+                      storedUserId = meta[2]
+                    end
+                    traceparent = meta[3] or ''
+                  end
+                  local hasNickname = nickname and nickname ~= ''
+                  local current = false
+                  if outcome == 'issued' then
+                    current = hasNickname and nickname == plannedNickname
+                  elseif outcome == 'missing' then
+                    current = not hasNickname
+                  elseif outcome == 'inactive' then
+                    local seen = redis.call('ZSCORE', lastSeenKey, userId)
+                    current = hasNickname and not (seen and tonumber(seen) > cutoff)
+                  end
+                  if current and redis.call('ZREM', waitingKey, userId) == 1 then
+                    redis.call('ZREM', lastSeenKey, userId)
+                    if outcome == 'issued' then
+                      local signed = member ~= ticketId
+                      if not signed then
+                        redis.call('HSET', ticketKey,
+                          'ticketId', ticketId,
+                          'userId', storedUserId,
+                          'nickname', nickname)
+                        if traceparent ~= '' then
+                          redis.call('HSET', ticketKey, 'traceparent', traceparent)
+                        end
+                        redis.call('EXPIRE', ticketKey, ttlSeconds)
+                      end
+                      local grant = ticketId
+                      if target ~= '' then
+                        if not signed then
+                          redis.call('HSET', ticketKey, 'target', target)
+                        end
+                        redis.call('ZADD', targetJoiningKey, expireAt, member)
+                        grant = ticketId .. ' ' .. target
+                      end
+                      if compact then
+                        redis.call('HDEL', metaKey, userId)
+                        redis.call('SET', grantedKey, grant, 'EX', ttlSeconds)
+                      else
+                        redis.call('HSET', metaKey, 'ticketId', ticketId, 'target', target, 'expireAt', ARGV[2])
+                      end
+                      redis.call('ZADD', joiningKey, expireAt, member)
+                      promotions[#promotions + 1] = userId .. ' ' .. grant
+                    else
+                      ticketId = ''
+                      if compact then
+                        redis.call('HDEL', metaKey, userId)
+                      else
+                        redis.call('DEL', metaKey)
+                      end
+                    end
+                    results[#results + 1] = userId
+                    results[#results + 1] = outcome
+                    results[#results + 1] = ticketId
+                    results[#results + 1] = traceparent or ''
+                  end
+                end
+                if #promotions > 0 then
+                  redis.call('PUBLISH', channel, '@' .. ARGV[2] .. '\\n' .. table.concat(promotions, '\\n'))
+                end
+                return results"""
+        );
+
+        // promoteBatch 의 후보 확정과 같은 2단계 정리. 호출 측이 last-seen 인덱스에서 cutoff 이전 유저를 읽어 넘긴다.
+        // KEYS: 대기열, last-seen 인덱스, fencing 키, 유저마다 메타 키 / ARGV: fencing 토큰, cutoff, 유저마다 userId
+        // 읽은 뒤 다시 활동한 유저는 건너뛰고, 대기열에 없는 항목(이미 발급/이탈)은 인덱스에서만 지운다.
+        // 반환값: 제거한 유저 수
+        REAP_INACTIVE_SCRIPT = new DefaultRedisScript<>();
+        REAP_INACTIVE_SCRIPT.setResultType(Long.class);
+        REAP_INACTIVE_SCRIPT.setScriptText(CompactLayout.LUA_FUNCTIONS + FENCING_FUNCTIONS +
+            """
+                if fenced(KEYS[3], ARGV[1]) then
+                  return redis.error_reply('FENCED')
+                end
+                local waitingKey = KEYS[1]
+                local lastSeenKey = KEYS[2]
+                local cutoff = tonumber(ARGV[2])
+                local removed = 0
+                for i = 4, #KEYS do
+                  local userId = ARGV[i - 1]
+                  local seen = redis.call('ZSCORE', lastSeenKey, userId)
+                  if seen and tonumber(seen) <= cutoff then
+                    if redis.call('ZREM', waitingKey, userId) == 1 then
+                      if isCompact(userId) then
+                        redis.call('HDEL', KEYS[i], userId)
+                      else
+                        redis.call('DEL', KEYS[i])
+                      end
+                      removed = removed + 1
+                    end
+                    redis.call('ZREM', lastSeenKey, userId)
+                  end
+                end
+                return removed"""
+        );
+
+        // 호출 측이 대기열 rank 구간을 읽어 넘긴 멤버 중 메타가 만료된 멤버를 제거한다.
+        // KEYS: 대기열, last-seen 인덱스, fencing 키, 멤버마다 메타 키 / ARGV: fencing 토큰, 멤버마다 userId
+        // 반환값: 제거한 유저 수
+        REAP_ORPHAN_SCRIPT = new DefaultRedisScript<>();
+        REAP_ORPHAN_SCRIPT.setResultType(Long.class);
+        REAP_ORPHAN_SCRIPT.setScriptText(CompactLayout.LUA_FUNCTIONS + FENCING_FUNCTIONS +
+            """
+                if fenced(KEYS[3], ARGV[1]) then
+                  return redis.error_reply('FENCED')
+                end
+                local waitingKey = KEYS[1]
+                local lastSeenKey = KEYS[2]
+                local removed = 0
+                for i = 4, #KEYS do
+                  local userId = ARGV[i - 2]
+                  local exists
+                  if isCompact(userId) then
+                    exists = redis.call('HEXISTS', KEYS[i], userId)
+                  else
+                    exists = redis.call('EXISTS', KEYS[i])
+                  end
+                  if exists == 0 and redis.call('ZREM', waitingKey, userId) == 1 then
+                    redis.call('ZREM', lastSeenKey, userId)
+                    removed = removed + 1
+                  end
+                end
+                return removed"""
+        );
+
+        // 호출 측이 읽은 만료 티켓을 인덱스와 해시에서 함께 제거한다. 읽은 뒤 사용된 티켓은 인덱스에 없으므로 건너뛴다.
+        // KEYS: JOINING_TICKETS, fencing 키, 티켓마다 티켓 해시 / ARGV: fencing 토큰, now, 티켓마다 ticketId
+        // 반환값: {제거한 티켓 수, 남아 있는 만료 티켓 수}
+        CLEANUP_EXPIRED_SCRIPT = new DefaultRedisScript<>();
+        CLEANUP_EXPIRED_SCRIPT.setResultType(List.class);
+        CLEANUP_EXPIRED_SCRIPT.setScriptText(FENCING_FUNCTIONS +
+            """
+                if fenced(KEYS[2], ARGV[1]) then
+                  return redis.error_reply('FENCED')
+                end
+                local joiningKey = KEYS[1]
+                local now = tonumber(ARGV[2])
+                local removed = 0
+                for i = 3, #KEYS do
+                  local expireAt = redis.call('ZSCORE', joiningKey, ARGV[i])
+                  if expireAt and tonumber(expireAt) <= now then
+                    redis.call('ZREM', joiningKey, ARGV[i])
+                    redis.call('DEL', KEYS[i])
+                    removed = removed + 1
+                  end
+                end
+                return {removed, redis.call('ZCOUNT', joiningKey, '-inf', now)}"""
+        );
+
+        // 한 샤드의 인스턴스별 joining 인덱스에서 만료된 티켓을 지우고 남은 수를 센다.
+        // KEYS: fencing 키, 인스턴스 joining 인덱스... / ARGV: fencing 토큰, now
+        // 반환값: KEYS[2..] 순서대로 남은 티켓 수
+        PRUNE_INSTANCE_JOINING_SCRIPT = new DefaultRedisScript<>();
+        PRUNE_INSTANCE_JOINING_SCRIPT.setResultType(List.class);
+        PRUNE_INSTANCE_JOINING_SCRIPT.setScriptText(FENCING_FUNCTIONS +
+            """
+                if fenced(KEYS[1], ARGV[1]) then
+                  return redis.error_reply('FENCED')
+                end
+                local counts = {}
+                for i = 2, #KEYS do
+                  redis.call('ZREMRANGEBYSCORE', KEYS[i], '-inf', ARGV[2])
+                  counts[#counts + 1] = redis.call('ZCARD', KEYS[i])
+                end
+                return counts"""
+        );
+
+        // 임대가 비어 있으면 가져가고 fencing 토큰을 1 올려 반환한다. (이미 누가 쥐고 있으면 0)
+        ACQUIRE_LEADER_SCRIPT = new DefaultRedisScript<>();
+        ACQUIRE_LEADER_SCRIPT.setResultType(Long.class);
+        ACQUIRE_LEADER_SCRIPT.setScriptText(
+            """
+                if not redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+                  return 0
+                end
+                return redis.call('INCR', KEYS[2])"""
+        );
+
+        // 임대 주인과 토큰이 그대로일 때만 연장한다.
+        RENEW_LEADER_SCRIPT = new DefaultRedisScript<>();
+        RENEW_LEADER_SCRIPT.setResultType(Long.class);
+        RENEW_LEADER_SCRIPT.setScriptText(
+            """
+                if redis.call('GET', KEYS[1]) ~= ARGV[1] or redis.call('GET', KEYS[2]) ~= ARGV[2] then
+                  return 0
+                end
+                return redis.call('PEXPIRE', KEYS[1], ARGV[3])"""
+        );
+
+        RELEASE_LEADER_SCRIPT = new DefaultRedisScript<>();
+        RELEASE_LEADER_SCRIPT.setResultType(Long.class);
+        RELEASE_LEADER_SCRIPT.setScriptText(
+            """
+                if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+                  return 0
+                end
+                return redis.call('DEL', KEYS[1])"""
+        );
+
+        // 샤드 fencing 키는 더 큰 토큰으로만 덮어쓴다.
+        RAISE_FENCE_SCRIPT = new DefaultRedisScript<>();
+        RAISE_FENCE_SCRIPT.setResultType(Long.class);
+        RAISE_FENCE_SCRIPT.setScriptText(
+            """
+                local token = tonumber(ARGV[1])
+                if tonumber(redis.call('GET', KEYS[1]) or '0') >= token then
+                  return 0
+                end
+                redis.call('SET', KEYS[1], ARGV[1])
                 return 1"""
         );
     }
@@ -68,38 +428,113 @@ public class QueueManagerRepository {
     private final StringRedisTemplate stringRedisTemplate;
     private final ZSetOperations<String, String> zSetOperations;
     private final HashOperations<String, String, String> hashOperations;
+    private final QueueShards shards;
+    private final SignedTickets signedTickets;
 
-    public QueueManagerRepository(StringRedisTemplate stringRedisTemplate) {
+    public QueueManagerRepository(StringRedisTemplate stringRedisTemplate,
+                                  QueueShards shards,
+                                  SignedTickets signedTickets) {
         this.stringRedisTemplate = stringRedisTemplate;
+        this.shards = shards;
+        this.signedTickets = signedTickets;
         this.zSetOperations = stringRedisTemplate.opsForZSet();
         this.hashOperations = stringRedisTemplate.opsForHash();
     }
 
-    public List<String> fetchNextBatch(int batchSize) {
+    /**
+     * 대기열 앞쪽 batchSize 명과 진입 시각(score, epoch millis). 순서는 대기열 순서
+     */
+    public Map<String, Long> fetchNextBatch(int batchSize) {
         if (batchSize <= 0) {
-            return Collections.emptyList();
+            return Collections.emptyMap();
         }
-        Set<String> range = zSetOperations.range(WAITING_QUEUE_KEY, 0, batchSize - 1);
+        Set<ZSetOperations.TypedTuple<String>> range = zSetOperations.rangeWithScores(WAITING_QUEUE_KEY, 0, batchSize - 1);
         if (range == null || range.isEmpty()) {
-            return Collections.emptyList();
+            return Collections.emptyMap();
+        }
+        Map<String, Long> candidates = new LinkedHashMap<>();
+        for (ZSetOperations.TypedTuple<String> tuple : range) {
+            if (tuple.getValue() != null) {
+                candidates.put(tuple.getValue(), tuple.getScore() != null ? tuple.getScore().longValue() : 0L);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 대기열 head 의 진입 시각(score). 샤드가 여러 개면 샤드 head 중 가장 오래된 값, 비어 있으면 null
+     */
+    public Long oldestWaitingScore() {
+        if (!shards.enabled()) {
+            Set<ZSetOperations.TypedTuple<String>> head = zSetOperations.rangeWithScores(WAITING_QUEUE_KEY, 0, 0);
+            if (head == null || head.isEmpty()) {
+                return null;
+            }
+            Double score = head.iterator().next().getScore();
+            return score != null ? score.longValue() : null;
+        }
+        Long oldest = null;
+        for (ShardCandidate head : fetchShardHeads(new int[shards.count()], 1)) {
+            long score = (long) head.score();
+            if (oldest == null || score < oldest) {
+                oldest = score;
+            }
         }
-        return new ArrayList<>(range);
+        return oldest;
+    }
+
+    public boolean isSharded() {
+        return shards.enabled();
+    }
+
+    public int shardCount() {
+        return shards.count();
     }
 
     public Long waitingSize() {
-        return zSetOperations.zCard(WAITING_QUEUE_KEY);
+        if (!shards.enabled()) {
+            return zSetOperations.zCard(WAITING_QUEUE_KEY);
+        }
+        List<Object> sizes = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (int shard = 0; shard < shards.count(); shard++) {
+                redis.zCard(shards.waitingKey(shard));
+            }
+            return null;
+        });
+        long total = 0;
+        for (Object size : sizes) {
+            total += parseLong(size, 0);
+        }
+        return total;
     }
 
     public void removeFromWaiting(String userId) {
         zSetOperations.remove(WAITING_QUEUE_KEY, userId);
+        zSetOperations.remove(WAITING_LAST_SEEN_KEY, userId);
     }
 
     public Map<String, String> fetchUserMeta(String userId) {
-        return hashOperations.entries(WAITING_META_PREFIX + userId);
+        if (!CompactLayout.isCompact(userId)) {
+            return hashOperations.entries(WAITING_META_PREFIX + userId);
+        }
+        String value = hashOperations.get(shards.metaBucketKey(userId), userId);
+        if (value == null) {
+            return Collections.emptyMap();
+        }
+        String traceparent = CompactLayout.traceparentOf(value);
+        if (traceparent == null) {
+            return Map.of("userId", userId, "nickname", value);
+        }
+        return Map.of("userId", userId, "nickname", CompactLayout.nicknameOf(value), "traceparent", traceparent);
     }
 
     public void deleteWaitingMeta(String userId) {
-        stringRedisTemplate.delete(WAITING_META_PREFIX + userId);
+        if (CompactLayout.isCompact(userId)) {
+            hashOperations.delete(shards.metaBucketKey(userId), userId);
+        } else {
+            stringRedisTemplate.delete(WAITING_META_PREFIX + userId);
+        }
     }
 
     public ServerStatus fetchServerStatus() {
@@ -114,55 +549,634 @@ public class QueueManagerRepository {
     }
 
     public long countJoiningTickets(long fromEpochMillis) {
-        Long count = zSetOperations.count(JOINING_TICKETS_KEY, fromEpochMillis, Double.POSITIVE_INFINITY);
-        return count != null ? count : 0;
+        if (!shards.enabled()) {
+            Long count = zSetOperations.count(JOINING_TICKETS_KEY, fromEpochMillis, Double.POSITIVE_INFINITY);
+            return count != null ? count : 0;
+        }
+        List<Object> counts = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (int shard = 0; shard < shards.count(); shard++) {
+                redis.zCount(shards.joiningTicketsKey(shard), fromEpochMillis, Double.POSITIVE_INFINITY);
+            }
+            return null;
+        });
+        long total = 0;
+        for (Object count : counts) {
+            total += parseLong(count, 0);
+        }
+        return total;
     }
 
-    public Set<String> removeExpiredTickets(long nowEpochMillis) {
-        Set<String> expired = zSetOperations.rangeByScore(JOINING_TICKETS_KEY, 0, nowEpochMillis);
-        if (expired == null || expired.isEmpty()) {
-            return Collections.emptySet();
+    /**
+     * now 이후 가장 먼저 만료되는 티켓의 만료 시각 (모든 샤드 중 최솟값), 없으면 0
+     */
+    public long nextTicketExpiry(long nowEpochMillis) {
+        List<Object> heads = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (int shard = 0; shard < shards.count(); shard++) {
+                redis.zRangeByScoreWithScores(shards.joiningTicketsKey(shard), nowEpochMillis + 1,
+                    Double.POSITIVE_INFINITY, 0, 1);
+            }
+            return null;
+        });
+        long earliest = 0;
+        for (Object head : heads) {
+            if (!(head instanceof Collection<?> tuples)) {
+                continue;
+            }
+            for (Object tuple : tuples) {
+                Double score = tuple instanceof ZSetOperations.TypedTuple<?> typed ? typed.getScore()
+                    : tuple instanceof Tuple raw ? raw.getScore() : null;
+                if (score != null) {
+                    earliest = earliest == 0 ? score.longValue() : Math.min(earliest, score.longValue());
+                }
+            }
         }
-        zSetOperations.remove(JOINING_TICKETS_KEY, expired.toArray());
-        return expired;
+        return earliest;
     }
 
-    public void deleteTicketHashes(Collection<String> ticketIds) {
-        if (ticketIds == null || ticketIds.isEmpty()) {
-            return;
+    /**
+     * 샤드마다 만료 티켓을 최대 limit 개까지 정리한다. 결과는 모든 샤드의 합
+     */
+    public ExpiredCleanupResult cleanupExpiredTickets(long nowEpochMillis, int limit, long fencingToken) {
+        if (limit <= 0) {
+            return ExpiredCleanupResult.EMPTY;
         }
-        List<String> keys = ticketIds.stream()
-            .filter(Objects::nonNull)
-            .map(id -> JOINING_TICKET_PREFIX + id)
-            .toList();
-        if (!keys.isEmpty()) {
-            stringRedisTemplate.delete(keys);
+        long removed = 0;
+        long backlog = 0;
+        for (int shard = 0; shard < shards.count(); shard++) {
+            ExpiredCleanupResult result = cleanupExpiredTickets(shard, nowEpochMillis, limit, fencingToken);
+            removed += result.removed();
+            backlog += result.backlog();
         }
+        return new ExpiredCleanupResult(removed, backlog);
     }
 
-    public boolean promoteToJoining(String userId, String ticketId, Instant expireAt, Duration ttl) {
+    private ExpiredCleanupResult cleanupExpiredTickets(int shard, long nowEpochMillis, int limit, long fencingToken) {
+        String joiningKey = shards.joiningTicketsKey(shard);
+        Set<String> expired = zSetOperations.rangeByScore(joiningKey, Double.NEGATIVE_INFINITY, nowEpochMillis, 0, limit);
+        if (expired == null || expired.isEmpty()) {
+            return ExpiredCleanupResult.EMPTY;
+        }
+        List<String> keys = new ArrayList<>(expired.size() + 2);
+        keys.add(joiningKey);
+        keys.add(shards.fenceKey(shard));
+        List<String> args = new ArrayList<>(expired.size() + 2);
+        args.add(String.valueOf(fencingToken));
+        args.add(String.valueOf(nowEpochMillis));
+        for (String ticketId : expired) {
+            keys.add(QueueShards.ticketKey(ticketId));
+            args.add(ticketId);
+        }
+        List<?> raw = executeFenced(CLEANUP_EXPIRED_SCRIPT, fencingToken, keys, args.toArray());
+        if (raw == null || raw.size() < 2) {
+            return ExpiredCleanupResult.EMPTY;
+        }
+        return new ExpiredCleanupResult(parseLong(raw.get(0), 0), parseLong(raw.get(1), 0));
+    }
+
+    /**
+     * 발급한 티켓 ID (서명이 켜져 있으면 ticketNonce 로 만든 서명 티켓), 대기열에서 이미 빠졌으면 null
+     * storedUserId 는 메타에 저장된 userId 로, promoteBatch 와 같게 서명에 쓴다. (비어 있으면 대기열 멤버 userId)
+     */
+    public String promoteToJoining(String userId,
+                                   String storedUserId,
+                                   String nickname,
+                                   String ticketNonce,
+                                   String target,
+                                   Instant expireAt,
+                                   Duration ttl,
+                                   long fencingToken) {
         if (ttl == null || ttl.isZero() || ttl.isNegative()) {
             throw new IllegalArgumentException("Ticket TTL must be positive");
         }
         if (expireAt == null) {
             throw new IllegalArgumentException("Expire timestamp is required");
         }
+        String ticketUserId = storedUserId != null && !storedUserId.isEmpty() ? storedUserId : userId;
+        String ticketId = signedTickets.sign(ticketNonce, ticketUserId, nickname, target, expireAt.toEpochMilli());
         long ttlSeconds = Math.max(1, ttl.getSeconds());
+        // 서명 티켓은 티켓 해시를 만들지 않으므로 토큰이 키 이름에 들어가지 않는다
         List<String> keys = Arrays.asList(
             WAITING_QUEUE_KEY,
-            WAITING_META_PREFIX + userId,
+            CompactLayout.isCompact(userId) ? shards.metaBucketKey(userId) : WAITING_META_PREFIX + userId,
             JOINING_TICKETS_KEY,
-            JOINING_TICKET_PREFIX + ticketId
+            signedTickets.isEnabled() ? JOINING_TICKETS_KEY : JOINING_TICKET_PREFIX + ticketId,
+            WAITING_LAST_SEEN_KEY,
+            shards.grantedKey(userId),
+            MANAGER_FENCE_KEY,
+            target != null && !target.isEmpty() ? gameServerJoiningKey(target) : JOINING_TICKETS_KEY
         );
-        Long updated = stringRedisTemplate.execute(
+        Long updated = executeFenced(
             PROMOTE_SCRIPT,
+            fencingToken,
             keys,
             userId,
             ticketId,
             String.valueOf(expireAt.toEpochMilli()),
-            String.valueOf(ttlSeconds)
+            String.valueOf(ttlSeconds),
+            PROMOTION_CHANNEL,
+            String.valueOf(fencingToken),
+            target != null ? target : "",
+            ticketNonce
+        );
+        return updated != null && updated > 0 ? ticketId : null;
+    }
+
+    /**
+     * ticketIds 개수만큼 티켓을 발급한다. 고른 뒤 상태가 바뀌어 스크립트가 건너뛴 발급 후보의 ticketId/target 자리는
+     * 남은 scanLimit 안에서 다음 head 로 다시 채운다. (최대 MAX_TOP_UP_ROUNDS 번)
+     */
+    public List<PromotionResult> promoteBatch(List<String> ticketIds,
+                                              List<String> targets,
+                                              Instant expireAt,
+                                              Duration ttl,
+                                              long nowEpochMillis,
+                                              Duration inactivityGrace,
+                                              int scanLimit,
+                                              long fencingToken) {
+        if (ticketIds == null || ticketIds.isEmpty() || scanLimit <= 0) {
+            return Collections.emptyList();
+        }
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            throw new IllegalArgumentException("Ticket TTL must be positive");
+        }
+        if (expireAt == null) {
+            throw new IllegalArgumentException("Expire timestamp is required");
+        }
+        long ttlSeconds = Math.max(1, ttl.getSeconds());
+        long graceMillis = inactivityGrace != null && !inactivityGrace.isNegative()
+            ? inactivityGrace.toMillis()
+            : 0;
+        long inactiveCutoff = nowEpochMillis - graceMillis;
+        List<PromotionResult> results = new ArrayList<>();
+        List<String> slotIds = ticketIds;
+        List<String> slotTargets = targets;
+        int budget = scanLimit;
+        for (int round = 0; round <= MAX_TOP_UP_ROUNDS && budget > 0; round++) {
+            List<PlannedPromotion> plan = planPromotions(slotIds, slotTargets, expireAt.toEpochMilli(),
+                nowEpochMillis, graceMillis, budget);
+            if (plan.isEmpty()) {
+                break;
+            }
+            budget -= plan.size();
+            Map<String, PromotionResult> committed = commitPlan(plan, expireAt.toEpochMilli(), ttlSeconds,
+                inactiveCutoff, fencingToken);
+
+            // 건너뛴 발급 후보의 자리와 아직 쓰지 않은 뒤쪽 자리를 다음 라운드로 넘긴다
+            List<String> freeIds = new ArrayList<>();
+            List<String> freeTargets = new ArrayList<>();
+            int used = 0;
+            for (PlannedPromotion candidate : plan) {
+                PromotionResult result = committed.get(candidate.userId());
+                if (result != null) {
+                    results.add(result);
+                }
+                if (candidate.slot() >= 0) {
+                    used = Math.max(used, candidate.slot() + 1);
+                    if (result == null) {
+                        freeIds.add(slotIds.get(candidate.slot()));
+                        freeTargets.add(targetAt(slotTargets, candidate.slot()));
+                    }
+                }
+            }
+            if (freeIds.isEmpty()) {
+                break;
+            }
+            for (int slot = used; slot < slotIds.size(); slot++) {
+                freeIds.add(slotIds.get(slot));
+                freeTargets.add(targetAt(slotTargets, slot));
+            }
+            slotIds = freeIds;
+            slotTargets = freeTargets;
+        }
+        return results;
+    }
+
+    /**
+     * 계획을 확정하고 실제로 반영된 후보의 결과를 userId 로 돌려준다.
+     * 샤드마다 한 번씩 확정한다. 스크립트 하나가 자기 샤드 슬롯의 키만 쓰므로 샤드 단위로 원자적이다.
+     */
+    private Map<String, PromotionResult> commitPlan(List<PlannedPromotion> plan,
+                                                    long expireAtMillis,
+                                                    long ttlSeconds,
+                                                    long inactiveCutoff,
+                                                    long fencingToken) {
+        Map<Integer, List<PlannedPromotion>> byShard = new TreeMap<>();
+        for (PlannedPromotion candidate : plan) {
+            byShard.computeIfAbsent(candidate.shard(), shard -> new ArrayList<>()).add(candidate);
+        }
+        Map<String, PromotionResult> committed = new HashMap<>();
+        for (Map.Entry<Integer, List<PlannedPromotion>> entry : byShard.entrySet()) {
+            for (PromotionResult result : commitPromotions(entry.getKey(), entry.getValue(), expireAtMillis,
+                    ttlSeconds, inactiveCutoff, fencingToken)) {
+                committed.put(result.userId(), result);
+            }
+        }
+        return committed;
+    }
+
+    /**
+     * 발급 후보를 고른다. 샤드 head 를 score 순으로 병합해 전역 FIFO 순서를 지키고(샤드가 1개면 대기열 head 그대로),
+     * 메타/last-seen 을 파이프라인으로 읽어 발급/탈락을 정한다.
+     * 탈락한 유저는 티켓을 쓰지 않으므로 발급 수가 채워질 때까지 scanLimit 안에서 다음 head 를 더 읽는다.
+     * 서명 티켓은 닉네임을 여기서 읽으므로 Java 에서 만든다.
+     */
+    private List<PlannedPromotion> planPromotions(List<String> ticketIds,
+                                                  List<String> targets,
+                                                  long expireAtMillis,
+                                                  long nowEpochMillis,
+                                                  long graceMillis,
+                                                  int scanLimit) {
+        List<PlannedPromotion> plan = new ArrayList<>();
+        Set<String> planned = new HashSet<>();
+        int[] offsets = new int[shards.count()];
+        int issued = 0;
+        int scanned = 0;
+        while (issued < ticketIds.size() && scanned < scanLimit) {
+            int fetch = Math.min(ticketIds.size() - issued, scanLimit - scanned);
+            List<ShardCandidate> heads = fetchShardHeads(offsets, fetch);
+            scanned += heads.size();
+            List<Object> meta = readHeadMeta(heads);
+            for (int i = 0; i < heads.size(); i++) {
+                ShardCandidate head = heads.get(i);
+                offsets[head.shard()]++;
+                if (!planned.add(head.userId())) {
+                    continue;
+                }
+                HeadMeta headMeta = HeadMeta.of(head.userId(), meta.get(i * 2), meta.get(i * 2 + 1));
+                if (headMeta.nickname() == null) {
+                    plan.add(PlannedPromotion.dropped(head, PromotionOutcome.DROPPED_MISSING));
+                } else if (graceMillis > 0 && headMeta.lastSeen() != null
+                        && nowEpochMillis - headMeta.lastSeen() > graceMillis) {
+                    plan.add(PlannedPromotion.dropped(head, PromotionOutcome.DROPPED_INACTIVE));
+                } else {
+                    int slot = issued++;
+                    String target = targetAt(targets, slot);
+                    String nonce = shards.ticketNonce(head.shard(), ticketIds.get(slot));
+                    String ticketId = signedTickets.sign(nonce, headMeta.storedUserId(), headMeta.nickname(), target,
+                        expireAtMillis);
+                    plan.add(new PlannedPromotion(head.shard(), head.userId(), PromotionOutcome.ISSUED,
+                        (long) head.score(), slot, ticketId, nonce, target, headMeta.nickname()));
+                }
+            }
+            if (heads.size() < fetch) {
+                break;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * 샤드마다 offsets[shard] 부터 count 명씩 읽어 score 순으로 병합한 앞쪽 count 명
+     */
+    private List<ShardCandidate> fetchShardHeads(int[] offsets, int count) {
+        List<Object> heads = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int shard = 0; shard < shards.count(); shard++) {
+                connection.zSetCommands().zRangeWithScores(
+                    shards.waitingKey(shard).getBytes(StandardCharsets.UTF_8), offsets[shard], offsets[shard] + count - 1);
+            }
+            return null;
+        });
+        List<ShardCandidate> candidates = new ArrayList<>();
+        for (int shard = 0; shard < heads.size(); shard++) {
+            if (!(heads.get(shard) instanceof Collection<?> tuples)) {
+                continue;
+            }
+            for (Object tuple : tuples) {
+                if (tuple instanceof ZSetOperations.TypedTuple<?> typed && typed.getValue() != null) {
+                    double score = typed.getScore() != null ? typed.getScore() : 0;
+                    candidates.add(new ShardCandidate(shard, String.valueOf(typed.getValue()), score));
+                }
+            }
+        }
+        // 같은 score 면 샤드 번호가 작은 쪽이 먼저다. (queue-api 의 전역 순번 계산과 같은 규칙, 정렬은 stable)
+        candidates.sort(Comparator.comparingDouble(ShardCandidate::score).thenComparingInt(ShardCandidate::shard));
+        return candidates.size() > count ? candidates.subList(0, count) : candidates;
+    }
+
+    /**
+     * 후보마다 {메타, last-seen 점수} 두 개씩. compact 는 버킷 필드 값, legacy 는 [nickname, userId, lastSeenAt]
+     */
+    private List<Object> readHeadMeta(List<ShardCandidate> heads) {
+        if (heads.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (ShardCandidate head : heads) {
+                if (CompactLayout.isCompact(head.userId())) {
+                    redis.hGet(metaKeyOf(head.userId()), head.userId());
+                } else {
+                    redis.hMGet(metaKeyOf(head.userId()), "nickname", "userId", "lastSeenAt");
+                }
+                redis.zScore(shards.lastSeenKey(head.shard()), head.userId());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 한 샤드의 후보를 BATCH_PROMOTE_SCRIPT 한 번으로 확정한다. 스크립트가 건드리는 키는 모두 KEYS 로 넘긴다.
+     * 샤드 대기열이면 메타 버킷/발급 기록/티켓 키가 모두 queue:{sN}: 해시 태그를 가져 한 슬롯에 놓인다.
+     * 샤드가 1개인 기본 키에는 해시 태그가 없어 여러 슬롯에 걸치므로 단일 노드(또는 모든 키를 한 노드로 보내는 프록시)
+     * 전용이며, 클러스터는 샤드 대기열을 쓴다.
+     */
+    private List<PromotionResult> commitPromotions(int shard,
+                                                   List<PlannedPromotion> plan,
+                                                   long expireAtMillis,
+                                                   long ttlSeconds,
+                                                   long inactiveCutoff,
+                                                   long fencingToken) {
+        String joiningKey = shards.joiningTicketsKey(shard);
+        List<String> keys = new ArrayList<>(plan.size() * 4 + 4);
+        keys.add(shards.waitingKey(shard));
+        keys.add(shards.lastSeenKey(shard));
+        keys.add(joiningKey);
+        keys.add(shards.fenceKey(shard));
+        List<String> args = new ArrayList<>(plan.size() * 6 + 5);
+        args.add(String.valueOf(fencingToken));
+        args.add(String.valueOf(expireAtMillis));
+        args.add(String.valueOf(ttlSeconds));
+        args.add(String.valueOf(inactiveCutoff));
+        args.add(PROMOTION_CHANNEL);
+        Map<String, Long> scores = new HashMap<>();
+        for (PlannedPromotion candidate : plan) {
+            boolean issued = candidate.outcome() == PromotionOutcome.ISSUED;
+            keys.add(metaKeyOf(candidate.userId()));
+            keys.add(shards.grantedKey(candidate.userId()));
+            boolean ticketHash = issued && candidate.ticketId().equals(candidate.member());
+            keys.add(ticketHash ? QueueShards.ticketKey(candidate.ticketId()) : joiningKey);
+            keys.add(issued && !candidate.target().isEmpty()
+                ? shards.instanceJoiningKey(shard, candidate.target())
+                : joiningKey);
+            args.add(candidate.userId());
+            args.add(candidate.outcome().code());
+            args.add(candidate.ticketId());
+            args.add(candidate.target());
+            args.add(candidate.nickname());
+            args.add(candidate.member());
+            scores.put(candidate.userId(), candidate.score());
+        }
+
+        List<?> raw = executeFenced(BATCH_PROMOTE_SCRIPT, fencingToken, keys, args.toArray());
+        if (raw == null || raw.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<PromotionResult> results = new ArrayList<>(raw.size() / 4);
+        for (int i = 0; i + 3 < raw.size(); i += 4) {
+            String userId = String.valueOf(raw.get(i));
+            String ticketId = String.valueOf(raw.get(i + 2));
+            String traceparent = String.valueOf(raw.get(i + 3));
+            results.add(new PromotionResult(
+                userId,
+                PromotionOutcome.fromCode(String.valueOf(raw.get(i + 1))),
+                ticketId.isEmpty() ? null : ticketId,
+                scores.getOrDefault(userId, 0L),
+                traceparent.isEmpty() ? null : traceparent
+            ));
+        }
+        return results;
+    }
+
+    private String metaKeyOf(String userId) {
+        return CompactLayout.isCompact(userId) ? shards.metaBucketKey(userId) : WAITING_META_PREFIX + userId;
+    }
+
+    private record ShardCandidate(int shard, String userId, double score) {
+    }
+
+    /**
+     * 발급 후보. slot 은 ticketIds/targets 에서 쓴 자리, member 는 joining 인덱스 멤버 (서명 티켓이면 nonce, 아니면 ticketId)
+     * 탈락이면 slot 은 -1 이고 ticketId/member/target/nickname 은 비어 있다.
+     */
+    private record PlannedPromotion(int shard,
+                                    String userId,
+                                    PromotionOutcome outcome,
+                                    long score,
+                                    int slot,
+                                    String ticketId,
+                                    String member,
+                                    String target,
+                                    String nickname) {
+
+        static PlannedPromotion dropped(ShardCandidate head, PromotionOutcome outcome) {
+            return new PlannedPromotion(head.shard(), head.userId(), outcome, (long) head.score(), -1, "", "", "", "");
+        }
+    }
+
+    /**
+     * readHeadMeta 결과 한 명분. nickname 이 없으면 메타가 만료된 유저
+     */
+    private record HeadMeta(String nickname, String storedUserId, Long lastSeen) {
+
+        static HeadMeta of(String userId, Object meta, Object lastSeenScore) {
+            Long lastSeen = lastSeenScore instanceof Number number ? number.longValue() : null;
+            if (CompactLayout.isCompact(userId)) {
+                String value = meta != null ? meta.toString() : null;
+                String nickname = value != null ? CompactLayout.nicknameOf(value) : null;
+                return new HeadMeta(nickname == null || nickname.isEmpty() ? null : nickname, userId, lastSeen);
+            }
+            if (!(meta instanceof List<?> fields) || fields.size() < 3) {
+                return new HeadMeta(null, userId, lastSeen);
+            }
+            String nickname = fields.get(0) != null && !fields.get(0).toString().isEmpty()
+                ? fields.get(0).toString()
+                : null;
+            String storedUserId = fields.get(1) != null && !fields.get(1).toString().isEmpty()
+                ? fields.get(1).toString()
+                : userId;
+            if (lastSeen == null && fields.get(2) != null) {
+                lastSeen = parseIsoMillis(fields.get(2).toString());
+            }
+            return new HeadMeta(nickname, storedUserId, lastSeen);
+        }
+
+        private static Long parseIsoMillis(String value) {
+            try {
+                return Instant.parse(value).toEpochMilli();
+            } catch (DateTimeParseException ex) {
+                return null;
+            }
+        }
+    }
+
+    private static String targetAt(List<String> targets, int index) {
+        if (targets == null || index >= targets.size() || targets.get(index) == null) {
+            return "";
+        }
+        return targets.get(index);
+    }
+
+    private static String gameServerJoiningKey(String instanceId) {
+        return GAME_SERVER_INSTANCE_PREFIX + instanceId + GAME_SERVER_JOINING_SUFFIX;
+    }
+
+    /**
+     * 하트비트가 cutoff 이후인 게임 서버 인스턴스 목록. 끊긴 인스턴스는 레지스트리에서 지운다.
+     * 인스턴스별 joining 인덱스(샤드 대기열이면 샤드마다 하나)에서 만료된 티켓도 함께 정리한 뒤 남은 수를 더한다.
+     */
+    public List<GameServerInstance> fetchGameServers(long nowEpochMillis, Duration heartbeatTimeout, long fencingToken) {
+        long cutoff = nowEpochMillis - heartbeatTimeout.toMillis();
+        zSetOperations.removeRangeByScore(GAME_SERVER_INSTANCES_KEY, Double.NEGATIVE_INFINITY, cutoff);
+        Set<String> ids = zSetOperations.range(GAME_SERVER_INSTANCES_KEY, 0, -1);
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> instanceIds = new ArrayList<>(ids);
+        List<Object> raw = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (String id : instanceIds) {
+                redis.hMGet(GAME_SERVER_INSTANCE_PREFIX + id, "current_users", "soft_cap", "max_cap");
+            }
+            return null;
+        });
+        long[] joining = new long[instanceIds.size()];
+        for (int shard = 0; shard < shards.count(); shard++) {
+            List<String> keys = new ArrayList<>(instanceIds.size() + 1);
+            keys.add(shards.fenceKey(shard));
+            for (String id : instanceIds) {
+                keys.add(shards.instanceJoiningKey(shard, id));
+            }
+            List<?> counts = executeFenced(PRUNE_INSTANCE_JOINING_SCRIPT, fencingToken, keys,
+                String.valueOf(fencingToken), String.valueOf(nowEpochMillis));
+            for (int i = 0; counts != null && i < Math.min(counts.size(), joining.length); i++) {
+                joining[i] += parseLong(counts.get(i), 0);
+            }
+        }
+        List<GameServerInstance> instances = new ArrayList<>(instanceIds.size());
+        for (int i = 0; i < instanceIds.size(); i++) {
+            if (!(raw.get(i) instanceof List<?> fields) || fields.size() < 3 || fields.get(0) == null) {
+                continue;
+            }
+            ServerStatus status = new ServerStatus(
+                parseLong(fields.get(0), 0),
+                parseNullableLong(fields.get(1)),
+                parseNullableLong(fields.get(2)));
+            instances.add(new GameServerInstance(instanceIds.get(i), status, joining[i]));
+        }
+        return instances;
+    }
+
+    /**
+     * last-seen 인덱스에서 cutoff 이전 항목을 최대 limit 개 읽어 fencing 스크립트로 정리한다.
+     */
+    public ReapResult reapInactive(int shard, long cutoffEpochMillis, int limit, long fencingToken) {
+        if (limit <= 0) {
+            return ReapResult.EMPTY;
+        }
+        String lastSeenKey = shards.lastSeenKey(shard);
+        Set<String> stale = zSetOperations.rangeByScore(lastSeenKey, Double.NEGATIVE_INFINITY, cutoffEpochMillis,
+            0, limit);
+        if (stale == null || stale.isEmpty()) {
+            return ReapResult.EMPTY;
+        }
+        List<String> keys = new ArrayList<>(stale.size() + 3);
+        keys.add(shards.waitingKey(shard));
+        keys.add(lastSeenKey);
+        keys.add(shards.fenceKey(shard));
+        List<String> args = new ArrayList<>(stale.size() + 2);
+        args.add(String.valueOf(fencingToken));
+        args.add(String.valueOf(cutoffEpochMillis));
+        for (String userId : stale) {
+            keys.add(metaKeyOf(userId));
+            args.add(userId);
+        }
+        Long removed = executeFenced(REAP_INACTIVE_SCRIPT, fencingToken, keys, args.toArray());
+        return new ReapResult(removed != null ? removed : 0, stale.size());
+    }
+
+    /**
+     * 대기열을 rank 구간 단위로 읽어 메타가 만료된 멤버를 fencing 스크립트로 제거한다.
+     * 제거된 만큼 뒤 멤버의 rank 가 당겨지므로 다음 커서는 살아남은 멤버 수만큼만 전진한다.
+     */
+    public ReapResult reapOrphans(int shard, long cursor, int limit, long fencingToken) {
+        if (limit <= 0) {
+            return ReapResult.EMPTY;
+        }
+        String waitingKey = shards.waitingKey(shard);
+        long start = Math.max(0, cursor);
+        Set<String> members = zSetOperations.range(waitingKey, start, start + limit - 1);
+        if (members == null || members.isEmpty()) {
+            return ReapResult.EMPTY;
+        }
+        List<String> keys = new ArrayList<>(members.size() + 3);
+        keys.add(waitingKey);
+        keys.add(shards.lastSeenKey(shard));
+        keys.add(shards.fenceKey(shard));
+        List<String> args = new ArrayList<>(members.size() + 1);
+        args.add(String.valueOf(fencingToken));
+        for (String userId : members) {
+            keys.add(metaKeyOf(userId));
+            args.add(userId);
+        }
+        Long removed = executeFenced(REAP_ORPHAN_SCRIPT, fencingToken, keys, args.toArray());
+        long count = removed != null ? removed : 0;
+        long next = members.size() < limit ? 0 : start + members.size() - count;
+        return new ReapResult(count, next);
+    }
+
+    public void publishAdmissionRate(double ticketsPerSecond, Duration ttl) {
+        stringRedisTemplate.opsForValue().set(ADMISSION_RATE_KEY,
+            String.format(Locale.ROOT, "%.3f", ticketsPerSecond), ttl);
+    }
+
+    /**
+     * 임대를 가져오면 새 fencing 토큰을, 이미 다른 인스턴스가 쥐고 있으면 0 을 반환한다.
+     * 샤드 대기열이면 각 샤드 fencing 키도 새 토큰으로 올려 이전 리더의 샤드 스크립트를 막는다.
+     */
+    public long acquireLeadership(String instanceId, Duration leaseTtl) {
+        Long token = stringRedisTemplate.execute(
+            ACQUIRE_LEADER_SCRIPT,
+            Arrays.asList(MANAGER_LEADER_KEY, MANAGER_FENCE_KEY),
+            instanceId,
+            String.valueOf(leaseTtl.toMillis())
         );
-        return updated != null && updated > 0;
+        if (token == null || token <= 0) {
+            return 0;
+        }
+        if (shards.enabled()) {
+            for (int shard = 0; shard < shards.count(); shard++) {
+                stringRedisTemplate.execute(
+                    RAISE_FENCE_SCRIPT,
+                    Collections.singletonList(shards.fenceKey(shard)),
+                    String.valueOf(token)
+                );
+            }
+        }
+        return token;
+    }
+
+    public boolean renewLeadership(String instanceId, long fencingToken, Duration leaseTtl) {
+        Long renewed = stringRedisTemplate.execute(
+            RENEW_LEADER_SCRIPT,
+            Arrays.asList(MANAGER_LEADER_KEY, MANAGER_FENCE_KEY),
+            instanceId,
+            String.valueOf(fencingToken),
+            String.valueOf(leaseTtl.toMillis())
+        );
+        return renewed != null && renewed > 0;
+    }
+
+    public void releaseLeadership(String instanceId) {
+        stringRedisTemplate.execute(
+            RELEASE_LEADER_SCRIPT,
+            Collections.singletonList(MANAGER_LEADER_KEY),
+            instanceId
+        );
+    }
+
+    private <T> T executeFenced(DefaultRedisScript<T> script, long fencingToken, List<String> keys, Object... args) {
+        try {
+            return stringRedisTemplate.execute(script, keys, args);
+        } catch (DataAccessException ex) {
+            for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+                if (cause.getMessage() != null && cause.getMessage().contains(FENCED_ERROR)) {
+                    throw new FencingTokenRejectedException(fencingToken);
+                }
+            }
+            throw ex;
+        }
     }
 
     private long parseLong(Object value, long defaultValue) {
@@ -0,0 +1,71 @@
+package com.likelion.queuemanager.service;
+
+import com.likelion.queuemanager.config.QueueManagerProperties;
+import com.likelion.queuemanager.repository.QueueManagerRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 사이클별 티켓 발급 수로 초당 입장률 EWMA 를 계산해 Valkey 에 게시한다.
+ * queue-api 는 이 값으로 예상 대기 시간과 다음 폴링 간격을 정한다.
+ *
+ * 이벤트 기반 사이클은 간격이 일정하지 않으므로 표본마다 alpha = 1 - exp(-경과 시간 / admission-rate-window) 로
+ * 경과 시간만큼만 반영한다. 50ms 사이클의 순간 발급률이 1초 사이클과 같은 무게를 갖지 않는다.
+ * 초기값 0 에서 오는 치우침은 누적 가중치로 나눠 보정한다.
+ */
+@Component
+public class AdmissionRateTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionRateTracker.class);
+
+    private final QueueManagerRepository repository;
+    private final QueueManagerProperties properties;
+
+    private long lastCycleAt;
+    private double weightedRate;
+    private double weight;
+    private volatile double ratePerSecond;
+
+    public AdmissionRateTracker(QueueManagerRepository repository,
+                                QueueManagerProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+
+        Gauge.builder("queue.admission_rate", this, AdmissionRateTracker::ratePerSecond)
+                .description("EWMA of issued tickets per second")
+                .register(meterRegistry);
+    }
+
+    public void record(int issued, long nowEpochMillis) {
+        if (lastCycleAt == 0) {
+            lastCycleAt = nowEpochMillis;
+            return;
+        }
+        long elapsedMillis = nowEpochMillis - lastCycleAt;
+        if (elapsedMillis <= 0) {
+            return;
+        }
+        lastCycleAt = nowEpochMillis;
+
+        double sample = issued * 1000.0 / elapsedMillis;
+        double alpha = -Math.expm1(-(double) elapsedMillis / properties.getAdmissionRateWindow().toMillis());
+        weightedRate += alpha * (sample - weightedRate);
+        weight += alpha * (1 - weight);
+        double rate = weightedRate / weight;
+        ratePerSecond = rate;
+
+        try {
+            repository.publishAdmissionRate(rate, properties.getAdmissionRateTtl());
+        } catch (RuntimeException ex) {
+            log.warn("Failed to publish admission rate", ex);
+        }
+    }
+
+    public double ratePerSecond() {
+        return ratePerSecond;
+    }
+}
@@ -0,0 +1,146 @@
+package com.likelion.queuemanager.service;
+
+import com.likelion.queuemanager.config.QueueManagerProperties;
+import com.likelion.queuemanager.repository.QueueManagerRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Valkey 임대(queue:manager:leader)로 queue-manager replica 중 한 대만 발급/정리를 수행하게 한다.
+ * 임대를 얻을 때마다 fencing 토큰이 1씩 올라가고, 쓰기 스크립트는 더 큰 토큰이 이미 있으면 거부한다.
+ * 스탠바이는 renew-interval 마다 임대 획득을 시도하므로 리더가 죽으면 최대 lease-ttl 안에 넘겨받는다.
+ * 갱신은 스케줄러 스레드와 분리된 전용 스레드에서 돌려 긴 사이클이 임대를 놓치게 하지 않는다.
+ */
+@Component
+public class LeaderLease {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderLease.class);
+
+    private final QueueManagerRepository repository;
+    private final QueueManagerProperties.Leader settings;
+    private final String instanceId;
+    private final List<Runnable> acquiredListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService renewExecutor;
+
+    private volatile long token;
+    private volatile long validUntilNanos;
+
+    public LeaderLease(QueueManagerRepository repository,
+                       QueueManagerProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.settings = properties.getLeader();
+        this.instanceId = System.getenv().getOrDefault("HOSTNAME", "queue-manager")
+                + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.renewExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "queue-leader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("queue.manager_leader", this, lease -> lease.isLeader() ? 1 : 0)
+                .description("1 when this replica holds the queue-manager lease")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        renewExecutor.scheduleWithFixedDelay(this::renew, 0,
+                settings.getRenewInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewExecutor.shutdownNow();
+        if (settings.isEnabled() && token > 0) {
+            token = 0;
+            try {
+                // 정상 종료 시 임대를 바로 풀어 스탠바이가 TTL 만료를 기다리지 않게 한다.
+                repository.releaseLeadership(instanceId);
+            } catch (Exception ex) {
+                log.warn("Failed to release queue-manager lease", ex);
+            }
+        }
+    }
+
+    /**
+     * 리더가 되면 호출할 작업 (밀린 발급을 바로 시작하는 용도)
+     */
+    public void onAcquired(Runnable listener) {
+        acquiredListeners.add(listener);
+    }
+
+    public boolean isLeader() {
+        return leaderToken() != 0;
+    }
+
+    /**
+     * 이번 사이클의 쓰기 스크립트에 넘길 토큰. 리더가 아니면 0, 임대를 쓰지 않으면 UNFENCED.
+     * 리더 확인과 토큰 읽기를 한 번에 해서, 그 사이에 임대를 잃은 사이클이 0 을 들고 쓰지 않게 한다.
+     */
+    public long leaderToken() {
+        if (!settings.isEnabled()) {
+            return QueueManagerRepository.UNFENCED;
+        }
+        long current = token;
+        return current > 0 && System.nanoTime() - validUntilNanos < 0 ? current : 0;
+    }
+
+    /**
+     * 스크립트가 토큰을 거부했을 때 호출한다. 다음 갱신 주기에 다시 획득을 시도한다.
+     */
+    public void relinquish(long rejectedToken) {
+        if (rejectedToken > 0 && token == rejectedToken) {
+            token = 0;
+            log.warn("Stepped down from queue-manager leadership (token={} was fenced)", rejectedToken);
+        }
+    }
+
+    private void renew() {
+        long startedAt = System.nanoTime();
+        try {
+            long current = token;
+            if (current > 0) {
+                if (repository.renewLeadership(instanceId, current, settings.getLeaseTtl())) {
+                    extendValidity(startedAt);
+                    return;
+                }
+                token = 0;
+                log.warn("Lost queue-manager lease (instance={}, token={})", instanceId, current);
+            }
+            long acquired = repository.acquireLeadership(instanceId, settings.getLeaseTtl());
+            if (acquired <= 0) {
+                return;
+            }
+            extendValidity(startedAt);
+            token = acquired;
+            log.info("Acquired queue-manager lease (instance={}, token={})", instanceId, acquired);
+            for (Runnable listener : acquiredListeners) {
+                listener.run();
+            }
+        } catch (Exception ex) {
+            log.warn("Queue-manager lease renewal failed", ex);
+        }
+    }
+
+    private void extendValidity(long startedAt) {
+        // 요청을 보내기 전 시각 기준으로 계산하고 10% 여유를 둬 Valkey 쪽 만료보다 먼저 스스로 내려오게 한다.
+        long leaseNanos = settings.getLeaseTtl().toNanos();
+        validUntilNanos = startedAt + leaseNanos - leaseNanos / 10;
+    }
+}
@@ -1,29 +1,45 @@
 package com.likelion.queuemanager.service;
 
 import com.likelion.queuemanager.repository.QueueManagerRepository;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Queue Manager 커스텀 메트릭
- * 대기열 상태를 실시간으로 모니터링하기 위한 게이지 메트릭
+ * 대기열 상태 게이지와 함께 발급 사이클의 단계별/Valkey 명령별 소요 시간, 발급 결과, 대기 시간 분포를 기록한다.
  */
 @Component
 public class MetricService {
 
     private final QueueManagerRepository repository;
+    private final MeterRegistry meterRegistry;
 
     private final AtomicLong waitingUsers = new AtomicLong(0);
     private final AtomicLong joiningUsers = new AtomicLong(0);
     private final AtomicLong currentUsers = new AtomicLong(0);
     private final AtomicLong softCap = new AtomicLong(0);
     private final AtomicLong availableSlots = new AtomicLong(0);
+    private final AtomicLong expiredTicketBacklog = new AtomicLong(0);
+    private final AtomicLong gameServers = new AtomicLong(0);
+    private final AtomicLong oldestWaitingScore = new AtomicLong(0);
+
+    private final Timer cycleTimer;
+    private final Timer waitTimeTimer;
+    private final Map<String, Timer> phaseTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> redisTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> outcomeCounters = new ConcurrentHashMap<>();
 
     public MetricService(MeterRegistry meterRegistry, QueueManagerRepository repository) {
         this.repository = repository;
+        this.meterRegistry = meterRegistry;
 
         Gauge.builder("queue.waiting_users", waitingUsers, AtomicLong::get)
                 .description("Number of users waiting in queue")
@@ -44,6 +60,87 @@ public class MetricService {
         Gauge.builder("queue.available_slots", availableSlots, AtomicLong::get)
                 .description("Number of available slots for new connections")
                 .register(meterRegistry);
+
+        Gauge.builder("queue.expired_ticket_backlog", expiredTicketBacklog, AtomicLong::get)
+                .description("Number of expired tickets not yet cleaned up")
+                .register(meterRegistry);
+
+        Gauge.builder("queue.game_servers", gameServers, AtomicLong::get)
+                .description("Number of game server instances with a live heartbeat")
+                .register(meterRegistry);
+
+        // 마지막 사이클에서 읽은 head score 기준으로 스크랩 시점까지의 나이를 계산한다 (대기열이 비면 0)
+        Gauge.builder("queue.head_age_seconds", oldestWaitingScore, score -> {
+                    long enqueuedAt = score.get();
+                    return enqueuedAt > 0 ? Math.max(0, System.currentTimeMillis() - enqueuedAt) / 1000.0 : 0;
+                })
+                .description("Age of the oldest user in the waiting queue")
+                .register(meterRegistry);
+
+        this.cycleTimer = Timer.builder("queue.cycle")
+                .description("Duration of a whole scheduling cycle")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        this.waitTimeTimer = Timer.builder("queue.wait_time")
+                .description("Time from queue entry to ticket issue")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public Timer cycleTimer() {
+        return cycleTimer;
+    }
+
+    /**
+     * 사이클 단계(cleanup, status_read, candidate_fetch, promote)별 소요 시간
+     */
+    public Timer phaseTimer(String phase) {
+        return phaseTimers.computeIfAbsent(phase, key -> Timer.builder("queue.cycle_phase")
+                .description("Duration of each scheduling cycle phase")
+                .tag("phase", key)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * 스케줄러가 보내는 Valkey 명령(스크립트) 종류별 소요 시간
+     */
+    public Timer redisTimer(String operation) {
+        return redisTimers.computeIfAbsent(operation, key -> Timer.builder("queue.redis_operation")
+                .description("Duration of Valkey operations issued by the scheduler")
+                .tag("operation", key)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * 발급 결과 기록 (issued, missing, inactive, rejected)
+     */
+    public void recordPromotionOutcome(String outcome, int count) {
+        if (count <= 0) {
+            return;
+        }
+        outcomeCounters.computeIfAbsent(outcome, key -> Counter.builder("queue.promotion_outcomes_total")
+                .description("Promotion attempts by outcome")
+                .tag("outcome", key)
+                .register(meterRegistry)).increment(count);
+    }
+
+    /**
+     * 진입 시각(대기열 score)부터 발급까지 걸린 시간 기록
+     */
+    public void recordWaitTime(long enqueuedAtMillis, long issuedAtMillis) {
+        if (enqueuedAtMillis > 0 && issuedAtMillis >= enqueuedAtMillis) {
+            waitTimeTimer.record(issuedAtMillis - enqueuedAtMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 대기열 head 의 진입 시각 업데이트 (비어 있으면 null)
+     */
+    public void updateOldestWaiting(Long enqueuedAtMillis) {
+        this.oldestWaitingScore.set(enqueuedAtMillis != null ? enqueuedAtMillis : 0);
     }
 
     /**
@@ -59,6 +156,20 @@ public class MetricService {
         this.availableSlots.set(slots);
     }
 
+    /**
+     * 하트비트가 살아 있는 게임 서버 인스턴스 수 업데이트 (레지스트리를 쓰지 않으면 0)
+     */
+    public void updateGameServers(int count) {
+        this.gameServers.set(count);
+    }
+
+    /**
+     * 만료 티켓 정리 후 남은 backlog 업데이트
+     */
+    public void updateExpiredTicketBacklog(long backlog) {
+        this.expiredTicketBacklog.set(backlog);
+    }
+
     /**
      * Repository에서 직접 대기열 크기 조회하여 업데이트
      */
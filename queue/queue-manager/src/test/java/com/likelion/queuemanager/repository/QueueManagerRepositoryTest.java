@@ -0,0 +1,117 @@
+package com.likelion.queuemanager.repository;
+
+import com.likelion.queue.common.QueueShards;
+import com.likelion.queue.common.SignedTickets;
+import com.likelion.queuemanager.model.PromotionOutcome;
+import com.likelion.queuemanager.model.PromotionResult;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QueueManagerRepositoryTest {
+
+    private static final long NOW = 2_000;
+    private static final Duration TTL = Duration.ofSeconds(30);
+
+    private final StringRedisTemplate template = mock(StringRedisTemplate.class);
+    private final QueueManagerRepository repository =
+            new QueueManagerRepository(template, new QueueShards(1), SignedTickets.disabled());
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refillsSlotsOfCandidatesSkippedAtCommit() {
+        when(template.executePipelined(any(RedisCallback.class))).thenReturn(
+                List.of(heads("a", "b")), List.of("nickA", 1_000.0, "nickB", 1_000.0),
+                List.of(heads("c")), List.of("nickC", 1_000.0));
+        // b 는 계획 뒤에 빠져 스크립트가 건너뛴다
+        when(template.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(
+                List.of("a", "issued", "t1", ""),
+                List.of("c", "issued", "t2", ""));
+
+        List<PromotionResult> results = repository.promoteBatch(List.of("t1", "t2"), List.of("g1", "g2"),
+                Instant.ofEpochMilli(NOW).plus(TTL), TTL, NOW, Duration.ofSeconds(30), 10,
+                QueueManagerRepository.UNFENCED);
+
+        assertThat(results).extracting(PromotionResult::userId).containsExactly("a", "c");
+        assertThat(results).extracting(PromotionResult::outcome)
+                .containsOnly(PromotionOutcome.ISSUED);
+        List<List<Object>> commits = capturedCommitArgs(2);
+        // 두 번째 라운드는 b 가 쓰지 못한 자리(t2, g2)를 c 에게 준다: {userId, 판정, ticketId, target, nickname, 멤버}
+        assertThat(commits.get(1).subList(5, 11)).containsExactly("c", "issued", "t2", "g2", "nickC", "t2");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void commitsOnceWhenNothingIsSkipped() {
+        when(template.executePipelined(any(RedisCallback.class))).thenReturn(
+                List.of(heads("a")), List.of("nickA", 1_000.0));
+        when(template.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(
+                List.of("a", "issued", "t1", ""));
+
+        List<PromotionResult> results = repository.promoteBatch(List.of("t1", "t2"), null,
+                Instant.ofEpochMilli(NOW).plus(TTL), TTL, NOW, Duration.ofSeconds(30), 10,
+                QueueManagerRepository.UNFENCED);
+
+        assertThat(results).extracting(PromotionResult::userId).containsExactly("a");
+        capturedCommitArgs(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void droppedCandidatesDoNotUseTicketSlots() {
+        when(template.executePipelined(any(RedisCallback.class))).thenReturn(
+                List.of(heads("a")), List.of("nickA", 0.0),
+                List.of(heads("b")), List.of("nickB", 1_900.0));
+        when(template.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(
+                List.of("a", "inactive", "", "", "b", "issued", "t1", ""));
+
+        List<PromotionResult> results = repository.promoteBatch(List.of("t1"), null,
+                Instant.ofEpochMilli(NOW).plus(TTL), TTL, NOW, Duration.ofMillis(500), 10,
+                QueueManagerRepository.UNFENCED);
+
+        assertThat(results).extracting(PromotionResult::outcome)
+                .containsExactly(PromotionOutcome.DROPPED_INACTIVE, PromotionOutcome.ISSUED);
+        List<Object> args = capturedCommitArgs(1).get(0);
+        assertThat(args.subList(5, 8)).containsExactly("a", "inactive", "");
+        assertThat(args.subList(11, 14)).containsExactly("b", "issued", "t1");
+    }
+
+    private static Set<ZSetOperations.TypedTuple<String>> heads(String... userIds) {
+        Set<ZSetOperations.TypedTuple<String>> tuples = new LinkedHashSet<>();
+        for (int i = 0; i < userIds.length; i++) {
+            tuples.add(new DefaultTypedTuple<>(userIds[i], 100.0 + i));
+        }
+        return tuples;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object>> capturedCommitArgs(int commits) {
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(template, times(commits)).execute(any(RedisScript.class), anyList(), args.capture());
+        List<List<Object>> captured = new ArrayList<>();
+        for (Object[] call : args.getAllValues()) {
+            captured.add(Arrays.asList(call));
+        }
+        return captured;
+    }
+}
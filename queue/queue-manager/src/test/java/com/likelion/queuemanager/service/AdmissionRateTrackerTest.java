@@ -0,0 +1,90 @@
+package com.likelion.queuemanager.service;
+
+import com.likelion.queuemanager.config.QueueManagerProperties;
+import com.likelion.queuemanager.repository.QueueManagerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalMatchers;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class AdmissionRateTrackerTest {
+
+    private final QueueManagerRepository repository = mock(QueueManagerRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueueManagerProperties properties = new QueueManagerProperties();
+    private AdmissionRateTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        properties.setAdmissionRateWindow(Duration.ofSeconds(5));
+        tracker = new AdmissionRateTracker(repository, properties, meterRegistry);
+    }
+
+    @Test
+    void firstCycleOnlySetsBaseline() {
+        tracker.record(100, 1_000);
+
+        assertThat(tracker.ratePerSecond()).isZero();
+        verify(repository, never()).publishAdmissionRate(anyDouble(), any());
+    }
+
+    @Test
+    void firstSampleIsNotBiasedTowardZero() {
+        tracker.record(0, 1_000);
+        tracker.record(10, 2_000);
+
+        assertThat(tracker.ratePerSecond()).isCloseTo(10.0, within(1e-9));
+        verify(repository).publishAdmissionRate(AdditionalMatchers.eq(10.0, 1e-9), eq(properties.getAdmissionRateTtl()));
+        assertThat(meterRegistry.get("queue.admission_rate").gauge().value()).isCloseTo(10.0, within(1e-9));
+    }
+
+    @Test
+    void shortCyclesWeighLessThanLongCycles() {
+        AdmissionRateTracker shortCycle = new AdmissionRateTracker(repository, properties, new SimpleMeterRegistry());
+        AdmissionRateTracker longCycle = new AdmissionRateTracker(repository, properties, new SimpleMeterRegistry());
+        for (long t = 0; t <= 10_000; t += 1_000) {
+            shortCycle.record(10, 1 + t);
+            longCycle.record(10, 1 + t);
+        }
+
+        shortCycle.record(0, 10_051);
+        longCycle.record(0, 11_001);
+
+        assertThat(shortCycle.ratePerSecond()).isGreaterThan(longCycle.ratePerSecond());
+        assertThat(shortCycle.ratePerSecond()).isCloseTo(10.0, within(0.2));
+    }
+
+    @Test
+    void ignoresNonAdvancingClock() {
+        tracker.record(0, 1_000);
+        tracker.record(10, 2_000);
+
+        tracker.record(1_000, 2_000);
+        tracker.record(1_000, 1_500);
+
+        assertThat(tracker.ratePerSecond()).isCloseTo(10.0, within(1e-9));
+    }
+
+    @Test
+    void publishFailureKeepsLocalRate() {
+        doThrow(new QueryTimeoutException("timeout")).when(repository).publishAdmissionRate(anyDouble(), any());
+
+        tracker.record(0, 1_000);
+        tracker.record(5, 2_000);
+
+        assertThat(tracker.ratePerSecond()).isCloseTo(5.0, within(1e-9));
+    }
+}
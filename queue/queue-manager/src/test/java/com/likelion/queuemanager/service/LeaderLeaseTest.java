@@ -0,0 +1,116 @@
+package com.likelion.queuemanager.service;
+
+import com.likelion.queuemanager.config.QueueManagerProperties;
+import com.likelion.queuemanager.repository.QueueManagerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LeaderLeaseTest {
+
+    private final QueueManagerRepository repository = mock(QueueManagerRepository.class);
+    private final QueueManagerProperties properties = new QueueManagerProperties();
+    private LeaderLease lease;
+
+    @AfterEach
+    void tearDown() {
+        if (lease != null) {
+            lease.shutdown();
+        }
+    }
+
+    @Test
+    void disabledLeaseIsAlwaysLeaderWithoutFencing() {
+        properties.getLeader().setEnabled(false);
+        lease = new LeaderLease(repository, properties, new SimpleMeterRegistry());
+        lease.start();
+
+        assertThat(lease.leaderToken()).isEqualTo(QueueManagerRepository.UNFENCED);
+        assertThat(lease.isLeader()).isTrue();
+        verify(repository, never()).acquireLeadership(anyString(), any());
+    }
+
+    @Test
+    void notLeaderBeforeAcquiring() {
+        lease = new LeaderLease(repository, properties, new SimpleMeterRegistry());
+
+        assertThat(lease.leaderToken()).isZero();
+        assertThat(lease.isLeader()).isFalse();
+    }
+
+    @Test
+    void acquiredTokenIsUsedUntilRelinquished() throws Exception {
+        when(repository.acquireLeadership(anyString(), any())).thenReturn(7L);
+        CountDownLatch acquired = new CountDownLatch(1);
+        lease = new LeaderLease(repository, properties, new SimpleMeterRegistry());
+        lease.onAcquired(acquired::countDown);
+        lease.start();
+
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(lease.leaderToken()).isEqualTo(7);
+
+        lease.relinquish(6);
+        assertThat(lease.leaderToken()).isEqualTo(7);
+        lease.relinquish(7);
+        assertThat(lease.leaderToken()).isZero();
+    }
+
+    @Test
+    void tokenIsWithheldOnceLeaseValidityPasses() throws Exception {
+        properties.getLeader().setLeaseTtl(Duration.ofMillis(100));
+        properties.getLeader().setRenewInterval(Duration.ofSeconds(30));
+        when(repository.acquireLeadership(anyString(), any())).thenReturn(3L);
+        CountDownLatch acquired = new CountDownLatch(1);
+        lease = new LeaderLease(repository, properties, new SimpleMeterRegistry());
+        lease.onAcquired(acquired::countDown);
+        lease.start();
+
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(150);
+
+        assertThat(lease.leaderToken()).isZero();
+        assertThat(lease.isLeader()).isFalse();
+    }
+
+    @Test
+    void failedRenewalStepsDown() {
+        properties.getLeader().setRenewInterval(Duration.ofMillis(20));
+        when(repository.acquireLeadership(anyString(), any())).thenReturn(5L, 0L);
+        when(repository.renewLeadership(anyString(), anyLong(), any())).thenReturn(false);
+        lease = new LeaderLease(repository, properties, new SimpleMeterRegistry());
+        lease.start();
+
+        verify(repository, timeout(5_000)).renewLeadership(anyString(), anyLong(), any());
+        verify(repository, timeout(5_000).atLeast(2)).acquireLeadership(anyString(), any());
+        assertThat(lease.leaderToken()).isZero();
+    }
+
+    @Test
+    void shutdownReleasesHeldLease() throws Exception {
+        when(repository.acquireLeadership(anyString(), any())).thenReturn(9L);
+        CountDownLatch acquired = new CountDownLatch(1);
+        lease = new LeaderLease(repository, properties, new SimpleMeterRegistry());
+        lease.onAcquired(acquired::countDown);
+        lease.start();
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+
+        lease.shutdown();
+
+        verify(repository).releaseLeadership(anyString());
+        assertThat(lease.leaderToken()).isZero();
+    }
+}